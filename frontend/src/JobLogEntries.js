@@ -160,6 +160,18 @@ export default function JobLogEntries() {
     setCopySuccess(false);
   };
 
+  // Listings carry only hasPayload/hasStacktrace; the text itself is fetched for the one entry clicked
+  const openDetailModal = async (entryId, field, title) => {
+    try {
+      const res = await fetch(`/api/job-log-entries/${entryId}`);
+      if (!res.ok) throw new Error(`Request failed: ${res.status}`);
+      const entry = await res.json();
+      openModal(entry[field], title);
+    } catch (e) {
+      setError(e.message || 'Unknown error');
+    }
+  };
+
   const closeModal = () => {
     setShowModal(false);
     setSelectedContent('');
@@ -374,7 +386,7 @@ export default function JobLogEntries() {
                 </td>
                 <td>{r.recordId}</td>
                 <td style={{ textAlign: 'left', maxWidth: 120 }}>
-                  {r.payload ? (
+                  {r.payload || r.hasPayload ? (
                     <div 
                       style={{ 
                         cursor: 'pointer', 
@@ -384,17 +396,17 @@ export default function JobLogEntries() {
                         color: '#007bff',
                         textDecoration: 'underline'
                       }}
-                      onClick={() => openModal(r.payload, 'Payload')}
+                      onClick={() => r.payload ? openModal(r.payload, 'Payload') : openDetailModal(r.id, 'payload', 'Payload')}
                       title="Click to view full payload"
                     >
-                      {r.payload.length > 20 ? `${r.payload.substring(0, 20)}...` : r.payload}
+                      {!r.payload ? 'View payload' : r.payload.length > 20 ? `${r.payload.substring(0, 20)}...` : r.payload}
                     </div>
                   ) : (
                     <span style={{ color: '#6c757d', fontStyle: 'italic' }}>No payload</span>
                   )}
                 </td>
                 <td style={{ textAlign: 'left', maxWidth: 120 }}>
-                  {r.stacktrace ? (
+                  {r.stacktrace || r.hasStacktrace ? (
                     <div 
                       style={{ 
                         cursor: 'pointer', 
@@ -404,10 +416,10 @@ export default function JobLogEntries() {
                         color: '#007bff',
                         textDecoration: 'underline'
                       }}
-                      onClick={() => openModal(r.stacktrace, 'Stacktrace')}
+                      onClick={() => r.stacktrace ? openModal(r.stacktrace, 'Stacktrace') : openDetailModal(r.id, 'stacktrace', 'Stacktrace')}
                       title="Click to view full stacktrace"
                     >
-                      {r.stacktrace.length > 20 ? `${r.stacktrace.substring(0, 20)}...` : r.stacktrace}
+                      {!r.stacktrace ? 'View stacktrace' : r.stacktrace.length > 20 ? `${r.stacktrace.substring(0, 20)}...` : r.stacktrace}
                     </div>
                   ) : (
                     <span style={{ color: '#6c757d', fontStyle: 'italic' }}>No stacktrace</span>
@@ -135,6 +135,18 @@ export default function LogNotifications() {
     setCopySuccess(false);
   };
 
+  // Listings carry only hasStackTrace; the text itself is fetched for the one notification clicked
+  const openStackTraceDetail = async (notificationId) => {
+    try {
+      const res = await fetch(`${getApiUrl(API_ENDPOINTS.LOG_NOTIFICATIONS)}/${notificationId}`);
+      if (!res.ok) throw new Error(`Request failed: ${res.status}`);
+      const notification = await res.json();
+      openStackTraceModal(notification.stackTrace);
+    } catch (e) {
+      setError(e.message || 'Unknown error');
+    }
+  };
+
   const closeStackTraceModal = () => {
     setShowModal(false);
     setSelectedStackTrace('');
@@ -315,7 +327,7 @@ export default function LogNotifications() {
                 <td>{formatDate(r.lastUpdateTime)}</td>
                 <td>{String(r.succesfullyProcessed)}</td>
                 <td style={{ textAlign: 'left', maxWidth: 420 }}>
-                  {r.stackTrace ? (
+                  {r.stackTrace || r.hasStackTrace ? (
                     <div 
                       style={{ 
                         cursor: 'pointer', 
@@ -325,10 +337,10 @@ export default function LogNotifications() {
                         color: '#007bff',
                         textDecoration: 'underline'
                       }}
-                      onClick={() => openStackTraceModal(r.stackTrace)}
+                      onClick={() => r.stackTrace ? openStackTraceModal(r.stackTrace) : openStackTraceDetail(r.id)}
                       title="Click to view full stack trace"
                     >
-                      {r.stackTrace.length > 50 ? `${r.stackTrace.substring(0, 50)}...` : r.stackTrace}
+                      {!r.stackTrace ? 'View stack trace' : r.stackTrace.length > 50 ? `${r.stackTrace.substring(0, 50)}...` : r.stackTrace}
                     </div>
                   ) : (
                     <span style={{ color: '#6c757d', fontStyle: 'italic' }}>No stack trace</span>
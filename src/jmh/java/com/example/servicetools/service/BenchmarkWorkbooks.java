@@ -0,0 +1,164 @@
+package com.example.servicetools.service;
+
+import com.example.servicetools.model.ColumnToObjectMapping;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Synthetic client workbooks (and the equivalent CSV files) and mapping tables for the benchmarks.
+ * <p>
+ * The first five columns carry the {@code SimpleClient} headers seeded by {@code DataInitializer};
+ * any further columns are unmapped filler, alternating text and numbers, so wider sheets cost
+ * more to read without changing what is bound. Text goes through the shared-strings table, as in
+ * workbooks saved by Excel. Generated files are kept under
+ * {@code target/jmh-workbooks} and reused by later runs.
+ */
+final class BenchmarkWorkbooks {
+
+    static final List<String> CLIENT_HEADERS = List.of("CE", "CLIENT TYPE", "IS CLIENT", "IS VETTED", "COI");
+
+    private static final Path DIRECTORY = Path.of("target", "jmh-workbooks");
+    private static final String[] TYPES = {"IND", "ORG"};
+    private static final String[] COUNTRIES = {"US", "GB", "DE", "FR", "JP"};
+
+    private BenchmarkWorkbooks() {
+    }
+
+    /**
+     * Returns a workbook with a header row and {@code rows} data rows, generating it on first use.
+     * {@code .xls} sheets are capped at the format's 65,535 data rows.
+     *
+     * @param format  {@code xlsx}, {@code xls} or {@code csv}
+     * @param columns total column count, at least the five client columns
+     */
+    static Path workbook(String format, int rows, int columns) throws IOException {
+        if (columns < CLIENT_HEADERS.size()) {
+            throw new IllegalArgumentException("columns must be at least " + CLIENT_HEADERS.size());
+        }
+        boolean xls = "xls".equals(format);
+        int dataRows = xls ? Math.min(rows, SpreadsheetVersion.EXCEL97.getLastRowIndex()) : rows;
+        Path file = DIRECTORY.resolve("clients-" + dataRows + "x" + columns + "." + format);
+        if (Files.exists(file)) {
+            return file;
+        }
+
+        Files.createDirectories(DIRECTORY);
+        Path partial = Files.createTempFile(DIRECTORY, "clients-", ".part");
+        if ("csv".equals(format)) {
+            try (BufferedWriter out = Files.newBufferedWriter(partial)) {
+                writeCsv(out, dataRows, columns);
+            } catch (IOException | RuntimeException e) {
+                Files.deleteIfExists(partial);
+                throw e;
+            }
+            return Files.move(partial, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+        try (Workbook workbook = xls ? new HSSFWorkbook() : new SXSSFWorkbook(null, 1000, false, true);
+             OutputStream out = Files.newOutputStream(partial)) {
+            write(workbook.createSheet("Clients"), dataRows, columns);
+            workbook.write(out);
+            if (workbook instanceof SXSSFWorkbook streaming) {
+                streaming.dispose();
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(partial);
+            throw e;
+        }
+        return Files.move(partial, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /** Header text of a generated workbook with {@code columns} columns. */
+    static List<String> headers(int columns) {
+        List<String> headers = new ArrayList<>(CLIENT_HEADERS);
+        for (int c = headers.size(); c < columns; c++) {
+            headers.add("EXTRA " + c);
+        }
+        return headers;
+    }
+
+    /**
+     * The mapping table seeded by {@code DataInitializer}, padded to {@code size} rows with
+     * mappings whose names (main and alternate) never appear in the generated headers.
+     */
+    static List<ColumnToObjectMapping> mappings(int size) {
+        List<ColumnToObjectMapping> mappings = new ArrayList<>();
+        mappings.add(new ColumnToObjectMapping(1L, "$.user.id", "USER_ID", "UID,USR_ID"));
+        mappings.add(new ColumnToObjectMapping(2L, "$.user.name", "USER_NAME", "USERNAME,USR_NAME"));
+        mappings.add(new ColumnToObjectMapping(3L, "$.order.number", "ORDER_NO", "ORD_NUM,ORDER_ID"));
+        mappings.add(new ColumnToObjectMapping(4L, "$.order.total", "ORDER_TOTAL", "TOTAL,AMOUNT"));
+        mappings.add(new ColumnToObjectMapping(5L, "$.meta.timestamp", "EVENT_TIME", "TS,TIMESTAMP"));
+        mappings.add(new ColumnToObjectMapping(6L, "$.ce", "CE", ""));
+        mappings.add(new ColumnToObjectMapping(7L, "$.type", "CLIENT TYPE", ""));
+        mappings.add(new ColumnToObjectMapping(8L, "$.isClient", "IS CLIENT", ""));
+        mappings.add(new ColumnToObjectMapping(9L, "$.isVetted", "IS VETTED", ""));
+        mappings.add(new ColumnToObjectMapping(10L, "$.country", "COI", "TBD"));
+        for (long id = mappings.size() + 1; id <= size; id++) {
+            mappings.add(new ColumnToObjectMapping(id, "$.unused.field" + id, "UNUSED_" + id, "UNUSED_ALT_" + id));
+        }
+        return mappings;
+    }
+
+    private static void writeCsv(BufferedWriter out, int dataRows, int columns) throws IOException {
+        out.write(String.join(",", headers(columns)));
+        out.newLine();
+        for (int r = 1; r <= dataRows; r++) {
+            out.write(String.valueOf(1_000_000 + r));
+            out.write(',');
+            out.write(TYPES[r % TYPES.length]);
+            out.write(',');
+            out.write(String.valueOf(r % 3 != 0));
+            out.write(',');
+            if (r % 7 != 0) {
+                out.write(r % 2 == 0 ? "YES" : "NO");
+            }
+            out.write(',');
+            out.write(COUNTRIES[r % COUNTRIES.length]);
+            for (int c = CLIENT_HEADERS.size(); c < columns; c++) {
+                out.write(',');
+                // Quoted text with an embedded delimiter exercises the quoting path
+                out.write(c % 2 == 0 ? "\"value " + (r % 1000) + ", " + c + "\"" : String.valueOf(r * 0.25 + c));
+            }
+            out.newLine();
+        }
+    }
+
+    private static void write(Sheet sheet, int dataRows, int columns) {
+        List<String> headers = headers(columns);
+        Row header = sheet.createRow(0);
+        for (int c = 0; c < columns; c++) {
+            header.createCell(c).setCellValue(headers.get(c));
+        }
+
+        for (int r = 1; r <= dataRows; r++) {
+            Row row = sheet.createRow(r);
+            row.createCell(0).setCellValue(1_000_000 + r);
+            row.createCell(1).setCellValue(TYPES[r % TYPES.length]);
+            row.createCell(2).setCellValue(r % 3 != 0);
+            if (r % 7 != 0) {
+                // Every seventh row leaves IS VETTED blank, as real uploads do
+                row.createCell(3).setCellValue(r % 2 == 0 ? "YES" : "NO");
+            }
+            row.createCell(4).setCellValue(COUNTRIES[r % COUNTRIES.length]);
+            for (int c = CLIENT_HEADERS.size(); c < columns; c++) {
+                if (c % 2 == 0) {
+                    row.createCell(c).setCellValue("value " + (r % 1000) + "/" + c);
+                } else {
+                    row.createCell(c).setCellValue(r * 0.25 + c);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.servicetools.service;
+
+import com.example.servicetools.ServiceToolsApplication;
+import com.example.servicetools.dao.JobLogEntryRepository;
+import com.example.servicetools.dao.LogNotificationRepository;
+import com.example.servicetools.model.JobLogEntry;
+import com.example.servicetools.model.LogNotification;
+import org.h2.tools.Server;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.ServerSocket;
+import java.time.LocalDateTime;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code saveAll} of 10,000 new entities through the application's services, as
+ * {@code createMultipleJobLogEntries} and {@code createMultipleLogNotifications} do. Scores are rows
+ * per second. {@code jdbcBatchSize=1} sends one INSERT per row, which is what identity ids forced;
+ * {@code tcp} runs H2 as a server on localhost so every round trip crosses a socket, as with a real
+ * database. Run with {@code mvn -Pjmh verify -Djmh.args="EntitySaveAllBenchmark"}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EntitySaveAllBenchmark {
+
+    private static final int ROWS = 10_000;
+
+    @Param({"1", "50"})
+    public int jdbcBatchSize;
+
+    @Param({"embedded", "tcp"})
+    public String database;
+
+    private Server server;
+    private ConfigurableApplicationContext context;
+    private JobLogEntryService jobLogEntryService;
+    private LogNotificationService logNotificationService;
+    private List<JobLogEntry> jobLogEntries;
+    private List<LogNotification> logNotifications;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        String url = "jdbc:h2:mem:bench";
+        if ("tcp".equals(database)) {
+            int port;
+            try (ServerSocket socket = new ServerSocket(0)) {
+                port = socket.getLocalPort();
+            }
+            server = Server.createTcpServer("-tcpPort", String.valueOf(port), "-ifNotExists").start();
+            url = "jdbc:h2:tcp://localhost:" + port + "/mem:bench";
+        }
+        context = new SpringApplicationBuilder(ServiceToolsApplication.class)
+            .web(WebApplicationType.NONE)
+            .run("--spring.datasource.url=" + url,
+                 "--spring.jpa.show-sql=false",
+                 "--spring.jpa.properties.hibernate.jdbc.batch_size=" + jdbcBatchSize,
+                 "--logging.level.root=WARN");
+        jobLogEntryService = context.getBean(JobLogEntryService.class);
+        logNotificationService = context.getBean(LogNotificationService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        if (server != null) {
+            server.stop();
+        }
+    }
+
+    /** Fresh, unsaved entities for every call; saved ones would be merged instead of inserted. */
+    @Setup(Level.Invocation)
+    public void newRows() {
+        LocalDateTime now = LocalDateTime.now();
+        ZonedDateTime zonedNow = ZonedDateTime.now();
+        jobLogEntries = new ArrayList<>(ROWS);
+        logNotifications = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            JobLogEntry entry = new JobLogEntry();
+            entry.setJobInstanceId(1L);
+            entry.setJobName("EntitySaveAllBenchmark");
+            entry.setRecordId((long) i);
+            entry.setType("ROW");
+            entry.setStatus("ERROR");
+            entry.setEventTs(now);
+            entry.setDescription("Row " + i + " could not be mapped");
+            jobLogEntries.add(entry);
+            logNotifications.add(new LogNotification(null, (long) i, "SYNC", zonedNow, "benchmark", zonedNow,
+                zonedNow, true, null));
+        }
+    }
+
+    /** Keeps the tables from growing across iterations, so index maintenance stays comparable. */
+    @TearDown(Level.Iteration)
+    public void clearTables() {
+        context.getBean(JobLogEntryRepository.class).deleteAllInBatch();
+        context.getBean(LogNotificationRepository.class).deleteAllInBatch();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public List<JobLogEntry> saveAllJobLogEntries() {
+        return jobLogEntryService.createMultipleJobLogEntries(jobLogEntries);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public List<LogNotification> saveAllLogNotifications() {
+        return logNotificationService.createMultipleLogNotifications(logNotifications);
+    }
+}
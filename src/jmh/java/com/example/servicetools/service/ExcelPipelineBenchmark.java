@@ -0,0 +1,129 @@
+package com.example.servicetools.service;
+
+import com.example.servicetools.dto.SimpleClient;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Whole-file stages of an upload: opening the workbook, streaming its rows, and the complete
+ * parse-and-map pipeline as {@link ExcelUploadService} runs it.
+ * <p>
+ * Each invocation processes the whole file; the {@link RowCounter} reports rows per second next
+ * to the per-file score. Run with {@code mvn -Pjmh verify}, e.g.
+ * {@code -Djmh.args="ExcelPipelineBenchmark -p rows=100000 -prof gc"}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+@State(Scope.Benchmark)
+public class ExcelPipelineBenchmark {
+
+    @Param({"xlsx", "xls", "csv"})
+    public String format;
+
+    @Param({"1000", "100000", "1000000"})
+    public int rows;
+
+    @Param({"5", "25"})
+    public int columns;
+
+    private Path file;
+    private String filename;
+    private ExcelSheetReader sheetReader;
+    private ExcelUploadService uploadService;
+    private ForkJoinPool mappingPool;
+    private ColumnMappingSnapshot mappings;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        file = BenchmarkWorkbooks.workbook(format, rows, columns);
+        filename = file.getFileName().toString();
+        sheetReader = new ExcelSheetReader();
+        mappingPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        // The registry is only consulted for the current mappings, which are passed explicitly here
+        uploadService = new ExcelUploadService(null, sheetReader, mappingPool, 2000,
+            System.getProperty("java.io.tmpdir"), Long.MAX_VALUE, Long.MAX_VALUE);
+        mappings = ColumnMappingSnapshot.of(1, BenchmarkWorkbooks.mappings(10));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        mappingPool.shutdown();
+    }
+
+    /** Rows handled per second, reported as a secondary score next to each benchmark. */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class RowCounter {
+
+        public long rows;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            rows = 0;
+        }
+    }
+
+    /** Opens the package or workbook and loads what the row reader needs before the first row. */
+    @Benchmark
+    public Object openWorkbook() throws Exception {
+        if ("csv".equals(format)) {
+            // Delimited text has nothing to load up front
+            return Files.size(file);
+        }
+        if ("xls".equals(format)) {
+            try (InputStream in = Files.newInputStream(file); HSSFWorkbook workbook = new HSSFWorkbook(in)) {
+                return workbook.getSheetAt(0).getLastRowNum();
+            }
+        }
+        try (OPCPackage pkg = OPCPackage.open(file.toFile(), PackageAccess.READ)) {
+            XSSFReader reader = new XSSFReader(pkg);
+            ReadOnlySharedStringsTable sharedStrings = new ReadOnlySharedStringsTable(pkg, false);
+            return sharedStrings.getCount() + reader.getStylesTable().getNumCellStyles();
+        }
+    }
+
+    /** Streams every row and cell value without mapping them. */
+    @Benchmark
+    public void readRows(RowCounter counter, Blackhole blackhole) throws Exception {
+        sheetReader.read(file, filename, (rowNum, values) -> {
+            blackhole.consume(values);
+            counter.rows++;
+        });
+    }
+
+    /** Reads, maps and binds every row to {@link SimpleClient}, as an upload does. */
+    @Benchmark
+    public void parseAndMap(RowCounter counter, Blackhole blackhole) throws Exception {
+        uploadService.parseExcel(file, filename, mappings, client -> {
+            blackhole.consume(client);
+            counter.rows++;
+        }, (rowNum, error) -> blackhole.consume(error));
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.servicetools.service;
+
+import com.example.servicetools.dto.SimpleClient;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-row stages of an upload, measured on rows already read into memory: resolving the header
+ * row against the mapping table, building the JSON object for a row, and binding it to the DTO.
+ * Scores are per row (or per header row for {@link #resolveHeaders()}).
+ * Run with {@code mvn -Pjmh verify -Djmh.args="RowMappingBenchmark -prof gc"}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RowMappingBenchmark {
+
+    private static final int SAMPLE_ROWS = 10_000;
+
+    @Param({"5", "25"})
+    public int columns;
+
+    /** Rows in the mapping table; only the seeded ones match the generated headers. */
+    @Param({"10", "1000"})
+    public int mappings;
+
+    private final RowBinder<SimpleClient> binder = RowBinder.forType(SimpleClient.class);
+    private ColumnMappingSnapshot snapshot;
+    private List<String> headers;
+    private ColumnMappingPlan plan;
+    private List<Object[]> rows;
+    private List<ObjectNode> nodes;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        snapshot = ColumnMappingSnapshot.of(1, BenchmarkWorkbooks.mappings(mappings));
+        headers = BenchmarkWorkbooks.headers(columns);
+        plan = ColumnMappingPlan.compile(headers, snapshot, binder);
+
+        Path file = BenchmarkWorkbooks.workbook("xlsx", SAMPLE_ROWS, columns);
+        rows = new ArrayList<>(SAMPLE_ROWS);
+        new ExcelSheetReader().read(file, file.getFileName().toString(), (rowNum, values) -> {
+            if (rowNum > 0) rows.add(values);
+        });
+
+        nodes = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            nodes.add(plan.apply(row));
+        }
+        binder.bind(nodes.get(0));
+    }
+
+    /** Compiles a plan for the header row; uploads pay this once per new header layout. */
+    @Benchmark
+    public ColumnMappingPlan resolveHeaders() {
+        return ColumnMappingPlan.compile(headers, snapshot, binder);
+    }
+
+    /** Converts cell values and builds the JSON object for each row. */
+    @Benchmark
+    @OperationsPerInvocation(SAMPLE_ROWS)
+    public void mapRows(Blackhole blackhole) {
+        for (Object[] row : rows) {
+            blackhole.consume(plan.apply(row));
+        }
+    }
+
+    /** Binds each row's JSON object to {@link SimpleClient}. */
+    @Benchmark
+    @OperationsPerInvocation(SAMPLE_ROWS)
+    public void bindRows(Blackhole blackhole) throws IOException {
+        for (ObjectNode node : nodes) {
+            blackhole.consume(binder.bind(node));
+        }
+    }
+}
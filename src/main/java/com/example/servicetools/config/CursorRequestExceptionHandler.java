@@ -0,0 +1,25 @@
+package com.example.servicetools.config;
+
+import com.example.servicetools.controller.JobInstanceController;
+import com.example.servicetools.controller.JobLogEntryController;
+import com.example.servicetools.controller.WebController;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+
+/**
+ * Answers 400 when a keyset (cursor) listing is asked for an unknown sort attribute, or given a cursor
+ * that is malformed or was issued for another sort. Ordered ahead of {@link GlobalExceptionHandler},
+ * which would otherwise report these as 500.
+ */
+@ControllerAdvice(assignableTypes = {WebController.class, JobInstanceController.class, JobLogEntryController.class})
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class CursorRequestExceptionHandler {
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Void> handleInvalidCursorRequest(IllegalArgumentException ex) {
+        return ResponseEntity.badRequest().build();
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.servicetools.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ForkJoinPool;
+
+@Configuration
+public class ExcelUploadConfig {
+
+    /**
+     * Bounded pool that maps parsed rows to DTOs. Shared by all uploads, so concurrent
+     * uploads compete for the same workers instead of each adding threads.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ForkJoinPool excelMappingPool(@Value("${excel.upload.mapping.parallelism:0}") int parallelism) {
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        return new ForkJoinPool(threads);
+    }
+
+    /**
+     * Workers for asynchronous upload jobs. The queue is bounded; submissions beyond it are
+     * rejected rather than piling up spooled files.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor excelIngestionExecutor(@Value("${excel.upload.jobs.workers:2}") int workers,
+                                                         @Value("${excel.upload.jobs.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("excel-ingest-");
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        return executor;
+    }
+
+    /**
+     * Workers that read the sheets of batch uploads. Every sheet of every file in a batch is a
+     * task here, so the number of sheets parsed at once stays bounded however large the batch is.
+     * The queue is bounded too; a batch that finds it full is turned away as busy (429).
+     */
+    @Bean
+    public ThreadPoolTaskExecutor excelBatchExecutor(@Value("${excel.upload.batch.parallelism:0}") int parallelism,
+                                                     @Value("${excel.upload.batch.queue-capacity:2000}") int queueCapacity) {
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("excel-batch-");
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        return executor;
+    }
+}
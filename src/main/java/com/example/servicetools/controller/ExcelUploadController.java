@@ -1,34 +1,484 @@
 package com.example.servicetools.controller;
 
+import com.example.servicetools.dto.BatchUploadRecord;
 import com.example.servicetools.dto.SimpleClient;
+import com.example.servicetools.dto.UploadSessionStatus;
+import com.example.servicetools.dto.UploadValidationReport;
+import com.example.servicetools.model.JobInstance;
+import com.example.servicetools.service.ClientBatchWriter;
+import com.example.servicetools.service.ColumnMappingSnapshot;
+import com.example.servicetools.service.ExcelBatchUploadService;
+import com.example.servicetools.service.ExcelIngestionJobService;
+import com.example.servicetools.service.ExcelUploadAdmission;
 import com.example.servicetools.service.ExcelUploadService;
+import com.example.servicetools.service.ExcelUploadValidationService;
+import com.example.servicetools.service.ResumableUploadService;
+import com.example.servicetools.service.UploadRejectedException;
+import com.example.servicetools.service.UploadResultCache;
+import com.example.servicetools.service.UploadSessionException;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.ZipException;
 
 @RestController
 @RequestMapping("/api/excel")
 public class ExcelUploadController {
 
+    private static final Logger log = LoggerFactory.getLogger(ExcelUploadController.class);
+
+    private static final int FLUSH_EVERY_ROWS = 1000;
+
+    // Version of the column mapping snapshot the upload was resolved against
+    public static final String MAPPING_VERSION_HEADER = "X-Mapping-Version";
+
+    // Byte offset of a resumable upload chunk, and the offset a session has reached in responses
+    public static final String UPLOAD_OFFSET_HEADER = "Upload-Offset";
+
+    // HIT when the response was served from the upload result cache, MISS otherwise
+    public static final String RESULT_CACHE_HEADER = "X-Result-Cache";
+
     @Autowired
     private ExcelUploadService excelUploadService;
 
+    @Autowired
+    private ExcelIngestionJobService excelIngestionJobService;
+
+    @Autowired
+    private ExcelUploadAdmission excelUploadAdmission;
+
+    @Autowired
+    private ExcelBatchUploadService excelBatchUploadService;
+
+    @Autowired
+    private UploadResultCache uploadResultCache;
+
+    @Autowired
+    private ExcelUploadValidationService excelUploadValidationService;
+
+    @Autowired
+    private ResumableUploadService resumableUploadService;
+
+    @Autowired
+    private ClientBatchWriter clientBatchWriter;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Formula cells are mapped from their cached result, not their formula text
     @PostMapping(value = "/upload", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-    public ResponseEntity<List<SimpleClient>> upload(@RequestPart("file") MultipartFile file) {
+    public ResponseEntity<?> upload(@RequestPart("file") MultipartFile file,
+                                    @RequestParam(defaultValue = "false") boolean persist) {
+        Path spooled = null;
         try {
-            List<SimpleClient> rows = excelUploadService.parseExcel(file);
-            return ResponseEntity.ok(rows);
+            ColumnMappingSnapshot mappings = excelUploadService.currentMappings();
+            if (file == null || file.isEmpty()) {
+                return ResponseEntity.ok()
+                    .header(MAPPING_VERSION_HEADER, String.valueOf(mappings.getVersion()))
+                    .body(Collections.emptyList());
+            }
+            ExcelUploadService.SpooledUpload upload = excelUploadService.spoolHashed(file);
+            spooled = upload.path();
+            String filename = file.getOriginalFilename();
+            String cacheKey = UploadResultCache.key(upload.sha256(), filename, mappings.getVersion(), "json");
+            // A cached response would skip storing the rows, so persisting uploads always parse
+            InputStream cached = persist ? null : uploadResultCache.open(cacheKey);
+            if (cached != null) {
+                return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .header(MAPPING_VERSION_HEADER, String.valueOf(mappings.getVersion()))
+                    .header(RESULT_CACHE_HEADER, "HIT")
+                    .body(new InputStreamResource(cached));
+            }
+
+            // Every mapped row is kept for the response, so the admission estimate includes them
+            try (ExcelUploadAdmission.Permit permit = excelUploadAdmission.admit(spooled, filename, true)) {
+                List<SimpleClient> rows = excelUploadService.parseExcel(spooled, filename, mappings);
+                if (persist) {
+                    clientBatchWriter.write(rows, null);
+                }
+                uploadResultCache.store(cacheKey, out -> objectMapper.writeValue(out, rows));
+                return ResponseEntity.ok()
+                    .header(MAPPING_VERSION_HEADER, String.valueOf(mappings.getVersion()))
+                    .header(RESULT_CACHE_HEADER, "MISS")
+                    .body(rows);
+            }
+        } catch (UploadRejectedException e) {
+            return rejected(e);
         } catch (Exception e) {
-            System.out.println(e);
-            e.printStackTrace();
-            System.out.println(e.getMessage());
+            log.error("Upload of {} failed", file.getOriginalFilename(), e);
             return ResponseEntity.badRequest().build();
+        } finally {
+            deleteSpooled(spooled);
         }
     }
-}
 
+    // Streams one SimpleClient per line as rows are mapped (Accept: application/x-ndjson)
+    @PostMapping(value = "/upload", consumes = MediaType.MULTIPART_FORM_DATA_VALUE,
+                 produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> uploadStream(@RequestPart("file") MultipartFile file) {
+        if (file == null || file.isEmpty()) {
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(out -> { });
+        }
+        String filename = file.getOriginalFilename();
+        ColumnMappingSnapshot mappings = excelUploadService.currentMappings();
+        Path spooled = null;
+        String cacheKey;
+        ExcelUploadAdmission.Permit permit;
+        try {
+            // The multipart part is only guaranteed to exist for the request thread, so copy it first
+            ExcelUploadService.SpooledUpload upload = excelUploadService.spoolHashed(file);
+            spooled = upload.path();
+            cacheKey = UploadResultCache.key(upload.sha256(), filename, mappings.getVersion(), "ndjson");
+            InputStream cached = uploadResultCache.open(cacheKey);
+            if (cached != null) {
+                deleteSpooled(spooled);
+                return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_NDJSON)
+                    .header(MAPPING_VERSION_HEADER, String.valueOf(mappings.getVersion()))
+                    .header(RESULT_CACHE_HEADER, "HIT")
+                    .body(out -> {
+                        try (cached) {
+                            cached.transferTo(out);
+                        }
+                    });
+            }
+            // Admit before the response is committed, while the status can still be 413/429
+            permit = excelUploadAdmission.admit(spooled, filename, false);
+        } catch (UploadRejectedException e) {
+            deleteSpooled(spooled);
+            return rejected(e);
+        } catch (IOException | InterruptedException e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            log.warn("Streaming upload of {} failed before the response started", filename, e);
+            deleteSpooled(spooled);
+            return ResponseEntity.badRequest().build();
+        }
+
+        Path spooledFile = spooled;
+        StreamingResponseBody body = ndjsonBody(
+            sink -> excelUploadService.parseExcel(spooledFile, filename, mappings, sink::accept,
+                ExcelUploadService.LOG_ROW_ERRORS),
+            cacheKey,
+            () -> {
+                permit.close();
+                Files.deleteIfExists(spooledFile);
+            });
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .header(MAPPING_VERSION_HEADER, String.valueOf(mappings.getVersion()))
+            .header(RESULT_CACHE_HEADER, "MISS")
+            .body(body);
+    }
+
+    // Same as the Accept header variant, for clients that cannot set headers (?stream=true)
+    @PostMapping(value = "/upload", consumes = MediaType.MULTIPART_FORM_DATA_VALUE, params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> uploadStreamByFlag(@RequestPart("file") MultipartFile file) {
+        return uploadStream(file);
+    }
+
+    // Maps every sheet of every file in parallel; parts may be workbooks, CSV/TSV files or zips of them.
+    // Results are tagged with file, sheet and row; unreadable files, sheets and rows come back as errors.
+    @PostMapping(value = "/upload/batch", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<List<BatchUploadRecord>> uploadBatch(@RequestPart("files") List<MultipartFile> files) {
+        List<ExcelBatchUploadService.BatchFile> spooled = Collections.emptyList();
+        try {
+            ColumnMappingSnapshot mappings = excelUploadService.currentMappings();
+            spooled = excelBatchUploadService.spool(files);
+            List<BatchUploadRecord> records = excelBatchUploadService.process(spooled, mappings);
+            return ResponseEntity.ok()
+                .header(MAPPING_VERSION_HEADER, String.valueOf(mappings.getVersion()))
+                .body(records);
+        } catch (UploadRejectedException e) {
+            return rejected(e);
+        } catch (ZipException e) {
+            // Unreadable files inside the batch come back as error records; only a broken zip part fails it
+            log.warn("Batch upload has an unreadable zip part", e);
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Batch upload of {} files failed", files.size(), e);
+            return ResponseEntity.internalServerError().build();
+        } finally {
+            excelBatchUploadService.delete(spooled);
+        }
+    }
+
+    // Streams batch results as they are produced, one record per line (Accept: application/x-ndjson)
+    @PostMapping(value = "/upload/batch", consumes = MediaType.MULTIPART_FORM_DATA_VALUE,
+                 produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> uploadBatchStream(@RequestPart("files") List<MultipartFile> files) {
+        List<ExcelBatchUploadService.BatchFile> spooled;
+        try {
+            spooled = excelBatchUploadService.spool(files);
+        } catch (UploadRejectedException e) {
+            return rejected(e);
+        } catch (ZipException e) {
+            log.warn("Batch upload has an unreadable zip part", e);
+            return ResponseEntity.badRequest().build();
+        } catch (IOException e) {
+            log.error("Spooling a batch of {} files failed", files.size(), e);
+            return ResponseEntity.internalServerError().build();
+        }
+
+        ColumnMappingSnapshot mappings = excelUploadService.currentMappings();
+        StreamingResponseBody body = ndjsonBody(
+            sink -> excelBatchUploadService.process(spooled, mappings, sink::accept),
+            null,
+            () -> excelBatchUploadService.delete(spooled));
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .header(MAPPING_VERSION_HEADER, String.valueOf(mappings.getVersion()))
+            .body(body);
+    }
+
+    @PostMapping(value = "/upload/batch", consumes = MediaType.MULTIPART_FORM_DATA_VALUE, params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> uploadBatchStreamByFlag(@RequestPart("files") List<MultipartFile> files) {
+        return uploadBatchStream(files);
+    }
 
+    // Queues the upload as a background job; track it via /api/job-instances/{id} and
+    // /api/job-log-entries/job-instance/{id}
+    // (?persist=true also stores the mapped rows in T_CLIENT)
+    @PostMapping(value = "/upload/async", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<JobInstance> uploadAsync(@RequestPart("file") MultipartFile file,
+                                                   @RequestParam(defaultValue = "false") boolean persist) {
+        if (file == null || file.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            JobInstance job = excelIngestionJobService.submit(file, persist);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+        } catch (TaskRejectedException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        } catch (IOException e) {
+            log.warn("Could not queue upload {}", file.getOriginalFilename(), e);
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // Resumable upload: POST /uploads starts a session, PUT /uploads/{id} with Upload-Offset appends a chunk,
+    // HEAD or GET /uploads/{id} reports the offset to resume from, POST /uploads/{id}/complete queues the job
+    @PostMapping("/uploads")
+    public ResponseEntity<UploadSessionStatus> initiateUpload(@RequestParam String filename,
+                                                              @RequestParam(required = false) Long size) {
+        try {
+            UploadSessionStatus session = resumableUploadService.initiate(filename, size);
+            URI location = ServletUriComponentsBuilder.fromCurrentRequest()
+                .replaceQuery(null).path("/{id}").buildAndExpand(session.getId()).toUri();
+            return ResponseEntity.created(location)
+                .header(UPLOAD_OFFSET_HEADER, String.valueOf(session.getOffset()))
+                .body(session);
+        } catch (UploadRejectedException e) {
+            return rejected(e);
+        } catch (IllegalArgumentException e) {
+            log.debug("Upload session not started: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (IOException e) {
+            log.error("Starting an upload session for {} failed", filename, e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    @RequestMapping(value = "/uploads/{id}", method = {RequestMethod.GET, RequestMethod.HEAD})
+    public ResponseEntity<UploadSessionStatus> uploadStatus(@PathVariable String id) {
+        try {
+            UploadSessionStatus session = resumableUploadService.status(id);
+            return ResponseEntity.ok()
+                .header(UPLOAD_OFFSET_HEADER, String.valueOf(session.getOffset()))
+                .cacheControl(CacheControl.noStore())
+                .body(session);
+        } catch (UploadSessionException e) {
+            return sessionError(e);
+        }
+    }
+
+    @PutMapping(value = "/uploads/{id}", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<UploadSessionStatus> uploadChunk(@PathVariable String id,
+                                                           @RequestHeader(UPLOAD_OFFSET_HEADER) long offset,
+                                                           HttpServletRequest request) {
+        try {
+            UploadSessionStatus session = resumableUploadService.append(id, offset, request.getInputStream());
+            return ResponseEntity.ok()
+                .header(UPLOAD_OFFSET_HEADER, String.valueOf(session.getOffset()))
+                .body(session);
+        } catch (UploadSessionException e) {
+            return sessionError(e);
+        } catch (UploadRejectedException e) {
+            return rejected(e);
+        } catch (IOException e) {
+            // Usually the client went away mid-chunk; the bytes written so far are kept
+            log.debug("Upload chunk for session {} ended early", id, e);
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PostMapping("/uploads/{id}/complete")
+    public ResponseEntity<JobInstance> completeUpload(@PathVariable String id,
+                                                      @RequestParam(defaultValue = "false") boolean persist) {
+        try {
+            JobInstance job = resumableUploadService.complete(id, persist);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+        } catch (UploadSessionException e) {
+            return sessionError(e);
+        } catch (TaskRejectedException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        } catch (IOException e) {
+            log.error("Completing upload session {} failed", id, e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    @DeleteMapping("/uploads/{id}")
+    public ResponseEntity<Void> abortUpload(@PathVariable String id) {
+        try {
+            resumableUploadService.abort(id);
+            return ResponseEntity.noContent().build();
+        } catch (UploadSessionException e) {
+            return sessionError(e);
+        }
+    }
+
+    // Dry run: checks the headers against the mappings and maps a sample of rows without returning them.
+    // sampling=head maps the first sampleRows rows; sampling=random samples across the sheet.
+    @PostMapping(value = "/validate", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<UploadValidationReport> validate(@RequestPart("file") MultipartFile file,
+                                                           @RequestParam(defaultValue = "1000") int sampleRows,
+                                                           @RequestParam(defaultValue = "head") String sampling,
+                                                           @RequestParam(defaultValue = "0") int sheet) {
+        if (file == null || file.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        Path spooled = null;
+        try {
+            ExcelUploadValidationService.Sampling mode = ExcelUploadValidationService.sampling(sampling);
+            ColumnMappingSnapshot mappings = excelUploadService.currentMappings();
+            spooled = excelUploadService.spool(file);
+            String filename = file.getOriginalFilename();
+            // Only the sampled rows are kept, so the upload is admitted as streaming
+            try (ExcelUploadAdmission.Permit permit = excelUploadAdmission.admit(spooled, filename, false)) {
+                UploadValidationReport report =
+                    excelUploadValidationService.validate(spooled, filename, mappings, sheet, sampleRows, mode);
+                return ResponseEntity.ok()
+                    .header(MAPPING_VERSION_HEADER, String.valueOf(mappings.getVersion()))
+                    .body(report);
+            }
+        } catch (UploadRejectedException e) {
+            return rejected(e);
+        } catch (Exception e) {
+            log.warn("Validating {} failed", file.getOriginalFilename(), e);
+            return ResponseEntity.badRequest().build();
+        } finally {
+            deleteSpooled(spooled);
+        }
+    }
+
+    /** Produces the values of an NDJSON response in output order. */
+    @FunctionalInterface
+    private interface NdjsonProducer {
+        void produce(Consumer<Object> sink) throws Exception;
+    }
+
+    // Writes each produced value as one line, flushing after the first and then every FLUSH_EVERY_ROWS values.
+    // With a cache key, the same bytes are also written to the result cache and kept if the response completes.
+    private StreamingResponseBody ndjsonBody(NdjsonProducer producer, String cacheKey, Closeable cleanup) {
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        return out -> {
+            UploadResultCache.PendingEntry cacheEntry =
+                cacheKey != null && uploadResultCache.isEnabled() ? uploadResultCache.begin(cacheKey) : null;
+            OutputStream target = cacheEntry != null ? cacheEntry.tee(out) : out;
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(target)) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                generator.setRootValueSeparator(null);
+                int[] written = new int[1];
+                producer.produce(value -> {
+                    try {
+                        writer.writeValue(generator, value);
+                        generator.writeRaw('\n');
+                        if (++written[0] == 1 || written[0] % FLUSH_EVERY_ROWS == 0) {
+                            generator.flush();
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generator.flush();
+                if (cacheEntry != null) {
+                    cacheEntry.commit();
+                }
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            } catch (IOException | RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IOException(e);
+            } finally {
+                if (cacheEntry != null) {
+                    cacheEntry.close();
+                }
+                cleanup.close();
+            }
+        };
+    }
+
+    // 413 when the upload can never fit the limits, 429 with Retry-After when capacity is exhausted
+    private static <T> ResponseEntity<T> rejected(UploadRejectedException e) {
+        log.info("Upload rejected: {}", e.getMessage());
+        if (e.getReason() == UploadRejectedException.Reason.BUSY) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .build();
+        }
+        return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build();
+    }
+
+    // 404 for unknown or expired sessions, 409 with the offset to resume from otherwise
+    private static <T> ResponseEntity<T> sessionError(UploadSessionException e) {
+        log.debug("Upload session request refused: {}", e.getMessage());
+        if (e.getReason() == UploadSessionException.Reason.NOT_FOUND) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+            .header(UPLOAD_OFFSET_HEADER, String.valueOf(e.getOffset()))
+            .build();
+    }
+
+    private static void deleteSpooled(Path spooled) {
+        if (spooled == null) return;
+        try {
+            Files.deleteIfExists(spooled);
+        } catch (IOException e) {
+            log.warn("Could not delete spooled upload {}", spooled, e);
+        }
+    }
+}
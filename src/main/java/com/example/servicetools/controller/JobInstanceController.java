@@ -1,5 +1,6 @@
 package com.example.servicetools.controller;
 
+import com.example.servicetools.dto.CursorSlice;
 import com.example.servicetools.model.JobInstance;
 import com.example.servicetools.service.JobInstanceService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -58,6 +59,18 @@ public class JobInstanceController {
         return ResponseEntity.ok(jobInstances);
     }
 
+    // Get all job instances with keyset (cursor) pagination; no total count
+    @GetMapping("/cursor")
+    public CursorSlice<JobInstance> getAllJobInstancesByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "created") String sortBy,
+            @RequestParam(defaultValue = "desc") String sortDirection) {
+
+        return jobInstanceService.scrollAllJobInstances(
+            cursor, size, sortBy, sortDirection);
+    }
+
     // Get job instance by ID
     @GetMapping("/{id}")
     public ResponseEntity<JobInstance> getJobInstanceById(@PathVariable Long id) {
@@ -87,6 +100,19 @@ public class JobInstanceController {
         return ResponseEntity.ok(jobInstances);
     }
 
+    // Get job instances by name with keyset (cursor) pagination; no total count
+    @GetMapping("/name/{name}/cursor")
+    public CursorSlice<JobInstance> getJobInstancesByNameByCursor(
+            @PathVariable String name,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "created") String sortBy,
+            @RequestParam(defaultValue = "desc") String sortDirection) {
+
+        return jobInstanceService.scrollJobInstancesByName(
+            name, cursor, size, sortBy, sortDirection);
+    }
+
     // Get job instances by status
     @GetMapping("/status/{status}")
     public ResponseEntity<List<JobInstance>> getJobInstancesByStatus(@PathVariable String status) {
@@ -108,6 +134,19 @@ public class JobInstanceController {
         return ResponseEntity.ok(jobInstances);
     }
 
+    // Get job instances by status with keyset (cursor) pagination; no total count
+    @GetMapping("/status/{status}/cursor")
+    public CursorSlice<JobInstance> getJobInstancesByStatusByCursor(
+            @PathVariable String status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "created") String sortBy,
+            @RequestParam(defaultValue = "desc") String sortDirection) {
+
+        return jobInstanceService.scrollJobInstancesByStatus(
+            status, cursor, size, sortBy, sortDirection);
+    }
+
     // Get by created time range
     @GetMapping("/created-range")
     public ResponseEntity<List<JobInstance>> getByCreatedRange(
@@ -136,6 +175,23 @@ public class JobInstanceController {
         return ResponseEntity.ok(jobInstances);
     }
 
+    // Get by created time range with keyset (cursor) pagination; no total count
+    @GetMapping("/created-range/cursor")
+    public CursorSlice<JobInstance> getByCreatedRangeByCursor(
+            @RequestParam String start,
+            @RequestParam String end,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "created") String sortBy,
+            @RequestParam(defaultValue = "desc") String sortDirection) {
+
+        LocalDateTime startLdt = parseLocalDateTime(start);
+        LocalDateTime endLdt = parseLocalDateTime(end);
+
+        return jobInstanceService.scrollByCreatedRange(
+            startLdt, endLdt, cursor, size, sortBy, sortDirection);
+    }
+
     // Get by updated time range
     @GetMapping("/updated-range")
     public ResponseEntity<List<JobInstance>> getByUpdatedRange(
@@ -164,6 +220,23 @@ public class JobInstanceController {
         return ResponseEntity.ok(jobInstances);
     }
 
+    // Get by updated time range with keyset (cursor) pagination; no total count
+    @GetMapping("/updated-range/cursor")
+    public CursorSlice<JobInstance> getByUpdatedRangeByCursor(
+            @RequestParam String start,
+            @RequestParam String end,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "updated") String sortBy,
+            @RequestParam(defaultValue = "desc") String sortDirection) {
+
+        LocalDateTime startLdt = parseLocalDateTime(start);
+        LocalDateTime endLdt = parseLocalDateTime(end);
+
+        return jobInstanceService.scrollByUpdatedRange(
+            startLdt, endLdt, cursor, size, sortBy, sortDirection);
+    }
+
     private LocalDateTime parseLocalDateTime(String value) {
         if (value == null || value.isEmpty()) {
             return null;
@@ -193,6 +266,19 @@ public class JobInstanceController {
         return ResponseEntity.ok(jobInstances);
     }
 
+    // Get recent job instances with keyset (cursor) pagination; no total count
+    @GetMapping("/recent/cursor")
+    public CursorSlice<JobInstance> getRecentJobInstancesByCursor(
+            @RequestParam LocalDateTime since,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "created") String sortBy,
+            @RequestParam(defaultValue = "desc") String sortDirection) {
+
+        return jobInstanceService.scrollRecentSince(
+            since, cursor, size, sortBy, sortDirection);
+    }
+
     // Update job instance
     @PutMapping("/{id}")
     public ResponseEntity<JobInstance> updateJobInstance(@PathVariable Long id, @RequestBody JobInstance request) {
@@ -278,4 +364,30 @@ public class JobInstanceController {
             name, status, startLdt, endLdt, page, size, sortBy, sortDirection);
         return ResponseEntity.ok(jobInstances);
     }
+
+    // Search with multiple parameters with keyset (cursor) pagination; no total count
+    @GetMapping("/search/cursor")
+    public CursorSlice<JobInstance> searchJobInstancesByCursor(
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String start,
+            @RequestParam(required = false) String end,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "created") String sortBy,
+            @RequestParam(defaultValue = "desc") String sortDirection) {
+
+        LocalDateTime startLdt = null;
+        LocalDateTime endLdt = null;
+
+        if (start != null && !start.trim().isEmpty()) {
+            startLdt = parseLocalDateTime(start);
+        }
+        if (end != null && !end.trim().isEmpty()) {
+            endLdt = parseLocalDateTime(end);
+        }
+
+        return jobInstanceService.scrollByMultipleParams(
+            name, status, startLdt, endLdt, cursor, size, sortBy, sortDirection);
+    }
 }
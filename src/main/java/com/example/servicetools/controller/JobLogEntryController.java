@@ -1,25 +1,40 @@
 package com.example.servicetools.controller;
 
+import com.example.servicetools.dto.BulkIngestResult;
+import com.example.servicetools.dto.CursorSlice;
+import com.example.servicetools.dto.JobLogEntrySummary;
 import com.example.servicetools.model.JobLogEntry;
+import com.example.servicetools.service.JobLogEntryBulkService;
 import com.example.servicetools.service.JobLogEntryService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/job-log-entries")
 public class JobLogEntryController {
 
+    private static final Logger log = LoggerFactory.getLogger(JobLogEntryController.class);
+
     @Autowired
     private JobLogEntryService jobLogEntryService;
 
+    @Autowired
+    private JobLogEntryBulkService jobLogEntryBulkService;
+
     // Create a new job log entry
     @PostMapping
     public ResponseEntity<JobLogEntry> createJobLogEntry(@RequestBody JobLogEntry request) {
@@ -30,33 +45,66 @@ public class JobLogEntryController {
             }
             
             JobLogEntry saved = jobLogEntryService.createJobLogEntry(request);
-            return ResponseEntity.status(HttpStatus.CREATED).body(saved);
+            if (!jobLogEntryService.isAsyncWriteMode()) {
+                return ResponseEntity.status(HttpStatus.CREATED).body(saved);
+            }
+            // Async mode: queued but not yet committed, or dropped by the overflow policy
+            return saved != null
+                ? ResponseEntity.status(HttpStatus.ACCEPTED).body(saved)
+                : ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).build();
+        } catch (RejectedExecutionException e) {
+            // The appender is shutting down with a full buffer
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
         }
     }
 
+    // Bulk create from an NDJSON body (one entry per line), written in chunked JDBC batches;
+    // responds with per-chunk accept counts and the line numbers of rejected lines
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_PLAIN_VALUE})
+    public ResponseEntity<BulkIngestResult> bulkCreateJobLogEntries(InputStream body) {
+        try {
+            return ResponseEntity.ok(jobLogEntryBulkService.ingest(body));
+        } catch (IOException e) {
+            log.warn("Bulk job log entry ingest failed", e);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+    }
+
     // Get all job log entries
     @GetMapping
-    public ResponseEntity<List<JobLogEntry>> getAllJobLogEntries() {
-        List<JobLogEntry> jobLogEntries = jobLogEntryService.getAllJobLogEntries();
+    public ResponseEntity<List<JobLogEntrySummary>> getAllJobLogEntries() {
+        List<JobLogEntrySummary> jobLogEntries = jobLogEntryService.getAllJobLogEntries();
         return ResponseEntity.ok(jobLogEntries);
     }
 
     // Get all job log entries with pagination
     @GetMapping("/paginated")
-    public ResponseEntity<Page<JobLogEntry>> getAllJobLogEntriesPaginated(
+    public ResponseEntity<Page<JobLogEntrySummary>> getAllJobLogEntriesPaginated(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "eventTs") String sortBy,
             @RequestParam(defaultValue = "desc") String sortDirection) {
         
-        Page<JobLogEntry> jobLogEntries = jobLogEntryService.getAllJobLogEntries(
+        Page<JobLogEntrySummary> jobLogEntries = jobLogEntryService.getAllJobLogEntries(
             page, size, sortBy, sortDirection);
         return ResponseEntity.ok(jobLogEntries);
     }
 
-    // Get job log entry by ID
+    // Get all job log entries with keyset (cursor) pagination; no total count
+    @GetMapping("/cursor")
+    public CursorSlice<JobLogEntrySummary> getAllJobLogEntriesByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "eventTs") String sortBy,
+            @RequestParam(defaultValue = "desc") String sortDirection) {
+
+        return jobLogEntryService.scrollAllJobLogEntries(
+            cursor, size, sortBy, sortDirection);
+    }
+
+    // Get job log entry by ID, with the payload and stacktrace the listings leave out
     @GetMapping("/{id}")
     public ResponseEntity<JobLogEntry> getJobLogEntryById(@PathVariable Long id) {
         Optional<JobLogEntry> jobLogEntry = jobLogEntryService.getJobLogEntryById(id);
@@ -66,123 +114,188 @@ public class JobLogEntryController {
 
     // Get job log entries by job instance ID
     @GetMapping("/job-instance/{jobInstanceId}")
-    public ResponseEntity<List<JobLogEntry>> getJobLogEntriesByJobInstanceId(@PathVariable Long jobInstanceId) {
-        List<JobLogEntry> jobLogEntries = jobLogEntryService.getJobLogEntriesByJobInstanceId(jobInstanceId);
+    public ResponseEntity<List<JobLogEntrySummary>> getJobLogEntriesByJobInstanceId(@PathVariable Long jobInstanceId) {
+        List<JobLogEntrySummary> jobLogEntries = jobLogEntryService.getJobLogEntriesByJobInstanceId(jobInstanceId);
         return ResponseEntity.ok(jobLogEntries);
     }
 
     // Get job log entries by job instance ID with pagination
     @GetMapping("/job-instance/{jobInstanceId}/paginated")
-    public ResponseEntity<Page<JobLogEntry>> getJobLogEntriesByJobInstanceIdPaginated(
+    public ResponseEntity<Page<JobLogEntrySummary>> getJobLogEntriesByJobInstanceIdPaginated(
             @PathVariable Long jobInstanceId,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "eventTs") String sortBy,
             @RequestParam(defaultValue = "desc") String sortDirection) {
         
-        Page<JobLogEntry> jobLogEntries = jobLogEntryService.getJobLogEntriesByJobInstanceId(
+        Page<JobLogEntrySummary> jobLogEntries = jobLogEntryService.getJobLogEntriesByJobInstanceId(
             jobInstanceId, page, size, sortBy, sortDirection);
         return ResponseEntity.ok(jobLogEntries);
     }
 
+    // Get job log entries by job instance ID with keyset (cursor) pagination; no total count
+    @GetMapping("/job-instance/{jobInstanceId}/cursor")
+    public CursorSlice<JobLogEntrySummary> getJobLogEntriesByJobInstanceIdByCursor(
+            @PathVariable Long jobInstanceId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "eventTs") String sortBy,
+            @RequestParam(defaultValue = "desc") String sortDirection) {
+
+        return jobLogEntryService.scrollJobLogEntriesByJobInstanceId(
+            jobInstanceId, cursor, size, sortBy, sortDirection);
+    }
+
     // Get job log entries by job name
     @GetMapping("/job-name/{jobName}")
-    public ResponseEntity<List<JobLogEntry>> getJobLogEntriesByJobName(@PathVariable String jobName) {
-        List<JobLogEntry> jobLogEntries = jobLogEntryService.getJobLogEntriesByJobName(jobName);
+    public ResponseEntity<List<JobLogEntrySummary>> getJobLogEntriesByJobName(@PathVariable String jobName) {
+        List<JobLogEntrySummary> jobLogEntries = jobLogEntryService.getJobLogEntriesByJobName(jobName);
         return ResponseEntity.ok(jobLogEntries);
     }
 
     // Get job log entries by job name with pagination
     @GetMapping("/job-name/{jobName}/paginated")
-    public ResponseEntity<Page<JobLogEntry>> getJobLogEntriesByJobNamePaginated(
+    public ResponseEntity<Page<JobLogEntrySummary>> getJobLogEntriesByJobNamePaginated(
             @PathVariable String jobName,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "eventTs") String sortBy,
             @RequestParam(defaultValue = "desc") String sortDirection) {
         
-        Page<JobLogEntry> jobLogEntries = jobLogEntryService.getJobLogEntriesByJobName(
+        Page<JobLogEntrySummary> jobLogEntries = jobLogEntryService.getJobLogEntriesByJobName(
             jobName, page, size, sortBy, sortDirection);
         return ResponseEntity.ok(jobLogEntries);
     }
 
+    // Get job log entries by job name with keyset (cursor) pagination; no total count
+    @GetMapping("/job-name/{jobName}/cursor")
+    public CursorSlice<JobLogEntrySummary> getJobLogEntriesByJobNameByCursor(
+            @PathVariable String jobName,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "eventTs") String sortBy,
+            @RequestParam(defaultValue = "desc") String sortDirection) {
+
+        return jobLogEntryService.scrollJobLogEntriesByJobName(
+            jobName, cursor, size, sortBy, sortDirection);
+    }
+
     // Get job log entries by record ID
     @GetMapping("/record/{recordId}")
-    public ResponseEntity<List<JobLogEntry>> getJobLogEntriesByRecordId(@PathVariable Long recordId) {
-        List<JobLogEntry> jobLogEntries = jobLogEntryService.getJobLogEntriesByRecordId(recordId);
+    public ResponseEntity<List<JobLogEntrySummary>> getJobLogEntriesByRecordId(@PathVariable Long recordId) {
+        List<JobLogEntrySummary> jobLogEntries = jobLogEntryService.getJobLogEntriesByRecordId(recordId);
         return ResponseEntity.ok(jobLogEntries);
     }
 
     // Get job log entries by record ID with pagination
     @GetMapping("/record/{recordId}/paginated")
-    public ResponseEntity<Page<JobLogEntry>> getJobLogEntriesByRecordIdPaginated(
+    public ResponseEntity<Page<JobLogEntrySummary>> getJobLogEntriesByRecordIdPaginated(
             @PathVariable Long recordId,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "eventTs") String sortBy,
             @RequestParam(defaultValue = "desc") String sortDirection) {
         
-        Page<JobLogEntry> jobLogEntries = jobLogEntryService.getJobLogEntriesByRecordId(
+        Page<JobLogEntrySummary> jobLogEntries = jobLogEntryService.getJobLogEntriesByRecordId(
             recordId, page, size, sortBy, sortDirection);
         return ResponseEntity.ok(jobLogEntries);
     }
 
+    // Get job log entries by record ID with keyset (cursor) pagination; no total count
+    @GetMapping("/record/{recordId}/cursor")
+    public CursorSlice<JobLogEntrySummary> getJobLogEntriesByRecordIdByCursor(
+            @PathVariable Long recordId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "eventTs") String sortBy,
+            @RequestParam(defaultValue = "desc") String sortDirection) {
+
+        return jobLogEntryService.scrollJobLogEntriesByRecordId(
+            recordId, cursor, size, sortBy, sortDirection);
+    }
+
     // Get job log entries by type
     @GetMapping("/type/{type}")
-    public ResponseEntity<List<JobLogEntry>> getJobLogEntriesByType(@PathVariable String type) {
-        List<JobLogEntry> jobLogEntries = jobLogEntryService.getJobLogEntriesByType(type);
+    public ResponseEntity<List<JobLogEntrySummary>> getJobLogEntriesByType(@PathVariable String type) {
+        List<JobLogEntrySummary> jobLogEntries = jobLogEntryService.getJobLogEntriesByType(type);
         return ResponseEntity.ok(jobLogEntries);
     }
 
     // Get job log entries by type with pagination
     @GetMapping("/type/{type}/paginated")
-    public ResponseEntity<Page<JobLogEntry>> getJobLogEntriesByTypePaginated(
+    public ResponseEntity<Page<JobLogEntrySummary>> getJobLogEntriesByTypePaginated(
             @PathVariable String type,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "eventTs") String sortBy,
             @RequestParam(defaultValue = "desc") String sortDirection) {
         
-        Page<JobLogEntry> jobLogEntries = jobLogEntryService.getJobLogEntriesByType(
+        Page<JobLogEntrySummary> jobLogEntries = jobLogEntryService.getJobLogEntriesByType(
             type, page, size, sortBy, sortDirection);
         return ResponseEntity.ok(jobLogEntries);
     }
 
+    // Get job log entries by type with keyset (cursor) pagination; no total count
+    @GetMapping("/type/{type}/cursor")
+    public CursorSlice<JobLogEntrySummary> getJobLogEntriesByTypeByCursor(
+            @PathVariable String type,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "eventTs") String sortBy,
+            @RequestParam(defaultValue = "desc") String sortDirection) {
+
+        return jobLogEntryService.scrollJobLogEntriesByType(
+            type, cursor, size, sortBy, sortDirection);
+    }
+
     // Get job log entries by status
     @GetMapping("/status/{status}")
-    public ResponseEntity<List<JobLogEntry>> getJobLogEntriesByStatus(@PathVariable String status) {
-        List<JobLogEntry> jobLogEntries = jobLogEntryService.getJobLogEntriesByStatus(status);
+    public ResponseEntity<List<JobLogEntrySummary>> getJobLogEntriesByStatus(@PathVariable String status) {
+        List<JobLogEntrySummary> jobLogEntries = jobLogEntryService.getJobLogEntriesByStatus(status);
         return ResponseEntity.ok(jobLogEntries);
     }
 
     // Get job log entries by status with pagination
     @GetMapping("/status/{status}/paginated")
-    public ResponseEntity<Page<JobLogEntry>> getJobLogEntriesByStatusPaginated(
+    public ResponseEntity<Page<JobLogEntrySummary>> getJobLogEntriesByStatusPaginated(
             @PathVariable String status,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "eventTs") String sortBy,
             @RequestParam(defaultValue = "desc") String sortDirection) {
         
-        Page<JobLogEntry> jobLogEntries = jobLogEntryService.getJobLogEntriesByStatus(
+        Page<JobLogEntrySummary> jobLogEntries = jobLogEntryService.getJobLogEntriesByStatus(
             status, page, size, sortBy, sortDirection);
         return ResponseEntity.ok(jobLogEntries);
     }
 
+    // Get job log entries by status with keyset (cursor) pagination; no total count
+    @GetMapping("/status/{status}/cursor")
+    public CursorSlice<JobLogEntrySummary> getJobLogEntriesByStatusByCursor(
+            @PathVariable String status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "eventTs") String sortBy,
+            @RequestParam(defaultValue = "desc") String sortDirection) {
+
+        return jobLogEntryService.scrollJobLogEntriesByStatus(
+            status, cursor, size, sortBy, sortDirection);
+    }
+
     // Get by event time range
     @GetMapping("/event-range")
-    public ResponseEntity<List<JobLogEntry>> getByEventTsRange(
+    public ResponseEntity<List<JobLogEntrySummary>> getByEventTsRange(
             @RequestParam String start,
             @RequestParam String end) {
         LocalDateTime startLdt = parseLocalDateTime(start);
         LocalDateTime endLdt = parseLocalDateTime(end);
-        List<JobLogEntry> jobLogEntries = jobLogEntryService.getByEventTsRange(startLdt, endLdt);
+        List<JobLogEntrySummary> jobLogEntries = jobLogEntryService.getByEventTsRange(startLdt, endLdt);
         return ResponseEntity.ok(jobLogEntries);
     }
 
     // Get by event time range with pagination
     @GetMapping("/event-range/paginated")
-    public ResponseEntity<Page<JobLogEntry>> getByEventTsRangePaginated(
+    public ResponseEntity<Page<JobLogEntrySummary>> getByEventTsRangePaginated(
             @RequestParam String start,
             @RequestParam String end,
             @RequestParam(defaultValue = "0") int page,
@@ -192,11 +305,28 @@ public class JobLogEntryController {
 
         LocalDateTime startLdt = parseLocalDateTime(start);
         LocalDateTime endLdt = parseLocalDateTime(end);
-        Page<JobLogEntry> jobLogEntries = jobLogEntryService.getByEventTsRange(
+        Page<JobLogEntrySummary> jobLogEntries = jobLogEntryService.getByEventTsRange(
             startLdt, endLdt, page, size, sortBy, sortDirection);
         return ResponseEntity.ok(jobLogEntries);
     }
 
+    // Get by event time range with keyset (cursor) pagination; no total count
+    @GetMapping("/event-range/cursor")
+    public CursorSlice<JobLogEntrySummary> getByEventTsRangeByCursor(
+            @RequestParam String start,
+            @RequestParam String end,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "eventTs") String sortBy,
+            @RequestParam(defaultValue = "desc") String sortDirection) {
+
+        LocalDateTime startLdt = parseLocalDateTime(start);
+        LocalDateTime endLdt = parseLocalDateTime(end);
+
+        return jobLogEntryService.scrollByEventTsRange(
+            startLdt, endLdt, cursor, size, sortBy, sortDirection);
+    }
+
     private LocalDateTime parseLocalDateTime(String value) {
         if (value == null || value.isEmpty()) {
             return null;
@@ -207,25 +337,38 @@ public class JobLogEntryController {
 
     // Get recent job log entries since a given time
     @GetMapping("/recent")
-    public ResponseEntity<List<JobLogEntry>> getRecentJobLogEntries(@RequestParam LocalDateTime since) {
-        List<JobLogEntry> jobLogEntries = jobLogEntryService.getRecentSince(since);
+    public ResponseEntity<List<JobLogEntrySummary>> getRecentJobLogEntries(@RequestParam LocalDateTime since) {
+        List<JobLogEntrySummary> jobLogEntries = jobLogEntryService.getRecentSince(since);
         return ResponseEntity.ok(jobLogEntries);
     }
 
     // Get recent job log entries with pagination
     @GetMapping("/recent/paginated")
-    public ResponseEntity<Page<JobLogEntry>> getRecentJobLogEntriesPaginated(
+    public ResponseEntity<Page<JobLogEntrySummary>> getRecentJobLogEntriesPaginated(
             @RequestParam LocalDateTime since,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "eventTs") String sortBy,
             @RequestParam(defaultValue = "desc") String sortDirection) {
         
-        Page<JobLogEntry> jobLogEntries = jobLogEntryService.getRecentSince(
+        Page<JobLogEntrySummary> jobLogEntries = jobLogEntryService.getRecentSince(
             since, page, size, sortBy, sortDirection);
         return ResponseEntity.ok(jobLogEntries);
     }
 
+    // Get recent job log entries with keyset (cursor) pagination; no total count
+    @GetMapping("/recent/cursor")
+    public CursorSlice<JobLogEntrySummary> getRecentJobLogEntriesByCursor(
+            @RequestParam LocalDateTime since,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "eventTs") String sortBy,
+            @RequestParam(defaultValue = "desc") String sortDirection) {
+
+        return jobLogEntryService.scrollRecentSince(
+            since, cursor, size, sortBy, sortDirection);
+    }
+
     // Update job log entry
     @PutMapping("/{id}")
     public ResponseEntity<JobLogEntry> updateJobLogEntry(@PathVariable Long id, @RequestBody JobLogEntry request) {
@@ -264,7 +407,7 @@ public class JobLogEntryController {
 
     // Search with multiple parameters (non-paginated)
     @GetMapping("/search")
-    public ResponseEntity<List<JobLogEntry>> searchJobLogEntries(
+    public ResponseEntity<List<JobLogEntrySummary>> searchJobLogEntries(
             @RequestParam(required = false) Long jobInstanceId,
             @RequestParam(required = false) String jobName,
             @RequestParam(required = false) Long recordId,
@@ -283,14 +426,14 @@ public class JobLogEntryController {
             endLdt = parseLocalDateTime(end);
         }
         
-        List<JobLogEntry> jobLogEntries = jobLogEntryService.searchByMultipleParams(
+        List<JobLogEntrySummary> jobLogEntries = jobLogEntryService.searchByMultipleParams(
             jobInstanceId, jobName, recordId, type, status, startLdt, endLdt);
         return ResponseEntity.ok(jobLogEntries);
     }
 
     // Search with multiple parameters (paginated)
     @GetMapping("/search/paginated")
-    public ResponseEntity<Page<JobLogEntry>> searchJobLogEntriesPaginated(
+    public ResponseEntity<Page<JobLogEntrySummary>> searchJobLogEntriesPaginated(
             @RequestParam(required = false) Long jobInstanceId,
             @RequestParam(required = false) String jobName,
             @RequestParam(required = false) Long recordId,
@@ -313,8 +456,37 @@ public class JobLogEntryController {
             endLdt = parseLocalDateTime(end);
         }
         
-        Page<JobLogEntry> jobLogEntries = jobLogEntryService.searchByMultipleParams(
+        Page<JobLogEntrySummary> jobLogEntries = jobLogEntryService.searchByMultipleParams(
             jobInstanceId, jobName, recordId, type, status, startLdt, endLdt, page, size, sortBy, sortDirection);
         return ResponseEntity.ok(jobLogEntries);
     }
+
+    // Search with multiple parameters with keyset (cursor) pagination; no total count
+    @GetMapping("/search/cursor")
+    public CursorSlice<JobLogEntrySummary> searchJobLogEntriesByCursor(
+            @RequestParam(required = false) Long jobInstanceId,
+            @RequestParam(required = false) String jobName,
+            @RequestParam(required = false) Long recordId,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String start,
+            @RequestParam(required = false) String end,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "eventTs") String sortBy,
+            @RequestParam(defaultValue = "desc") String sortDirection) {
+
+        LocalDateTime startLdt = null;
+        LocalDateTime endLdt = null;
+
+        if (start != null && !start.trim().isEmpty()) {
+            startLdt = parseLocalDateTime(start);
+        }
+        if (end != null && !end.trim().isEmpty()) {
+            endLdt = parseLocalDateTime(end);
+        }
+
+        return jobLogEntryService.scrollByMultipleParams(
+            jobInstanceId, jobName, recordId, type, status, startLdt, endLdt, cursor, size, sortBy, sortDirection);
+    }
 }
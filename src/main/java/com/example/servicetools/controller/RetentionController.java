@@ -0,0 +1,31 @@
+package com.example.servicetools.controller;
+
+import com.example.servicetools.dto.RetentionStatus;
+import com.example.servicetools.service.RetentionService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/retention")
+public class RetentionController {
+
+    @Autowired
+    private RetentionService retentionService;
+
+    // Progress of the running purge, or the outcome of the last one
+    @GetMapping
+    public ResponseEntity<RetentionStatus> getStatus() {
+        return ResponseEntity.ok(retentionService.getStatus());
+    }
+
+    // Start a purge now instead of waiting for the schedule
+    @PostMapping("/run")
+    public ResponseEntity<RetentionStatus> run() {
+        if (!retentionService.trigger()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(retentionService.getStatus());
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(retentionService.getStatus());
+    }
+}
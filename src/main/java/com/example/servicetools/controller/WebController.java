@@ -1,5 +1,7 @@
 package com.example.servicetools.controller;
 
+import com.example.servicetools.dto.CursorSlice;
+import com.example.servicetools.dto.LogNotificationSummary;
 import com.example.servicetools.model.LogNotification;
 import com.example.servicetools.service.LogNotificationService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -44,25 +46,37 @@ public class WebController {
 
     // Get all log notifications
     @GetMapping
-    public ResponseEntity<List<LogNotification>> getAllLogNotifications() {
-        List<LogNotification> notifications = logNotificationService.getAllLogNotifications();
+    public ResponseEntity<List<LogNotificationSummary>> getAllLogNotifications() {
+        List<LogNotificationSummary> notifications = logNotificationService.getAllLogNotifications();
         return ResponseEntity.ok(notifications);
     }
 
     // Get all log notifications with pagination
     @GetMapping("/paginated")
-    public ResponseEntity<Page<LogNotification>> getAllLogNotificationsPaginated(
+    public ResponseEntity<Page<LogNotificationSummary>> getAllLogNotificationsPaginated(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "receivedTime") String sortBy,
             @RequestParam(defaultValue = "desc") String sortDirection) {
         
-        Page<LogNotification> notifications = logNotificationService.getAllLogNotifications(
+        Page<LogNotificationSummary> notifications = logNotificationService.getAllLogNotifications(
             page, size, sortBy, sortDirection);
         return ResponseEntity.ok(notifications);
     }
 
-    // Get log notification by ID
+    // Get all log notifications with keyset (cursor) pagination; no total count
+    @GetMapping("/cursor")
+    public CursorSlice<LogNotificationSummary> getAllLogNotificationsByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "receivedTime") String sortBy,
+            @RequestParam(defaultValue = "desc") String sortDirection) {
+
+        return logNotificationService.scrollAllLogNotifications(
+            cursor, size, sortBy, sortDirection);
+    }
+
+    // Get log notification by ID, with the stack trace the listings leave out
     @GetMapping("/{id}")
     public ResponseEntity<LogNotification> getLogNotificationById(@PathVariable Long id) {
         Optional<LogNotification> notification = logNotificationService.getLogNotificationById(id);
@@ -72,80 +86,119 @@ public class WebController {
 
     // Get log notifications by source
     @GetMapping("/source/{source}")
-    public ResponseEntity<List<LogNotification>> getLogNotificationsBySource(@PathVariable String source) {
-        List<LogNotification> notifications = logNotificationService.getLogNotificationsBySource(source);
+    public ResponseEntity<List<LogNotificationSummary>> getLogNotificationsBySource(@PathVariable String source) {
+        List<LogNotificationSummary> notifications = logNotificationService.getLogNotificationsBySource(source);
         return ResponseEntity.ok(notifications);
     }
 
     // Get log notifications by source with pagination
     @GetMapping("/source/{source}/paginated")
-    public ResponseEntity<Page<LogNotification>> getLogNotificationsBySourcePaginated(
+    public ResponseEntity<Page<LogNotificationSummary>> getLogNotificationsBySourcePaginated(
             @PathVariable String source,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "receivedTime") String sortBy,
             @RequestParam(defaultValue = "desc") String sortDirection) {
         
-        Page<LogNotification> notifications = logNotificationService.getLogNotificationsBySource(
+        Page<LogNotificationSummary> notifications = logNotificationService.getLogNotificationsBySource(
             source, page, size, sortBy, sortDirection);
         return ResponseEntity.ok(notifications);
     }
 
+    // Get log notifications by source with keyset (cursor) pagination; no total count
+    @GetMapping("/source/{source}/cursor")
+    public CursorSlice<LogNotificationSummary> getLogNotificationsBySourceByCursor(
+            @PathVariable String source,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "receivedTime") String sortBy,
+            @RequestParam(defaultValue = "desc") String sortDirection) {
+
+        return logNotificationService.scrollLogNotificationsBySource(
+            source, cursor, size, sortBy, sortDirection);
+    }
+
     // Get log notifications by partyId (non-paginated)
     @GetMapping("/party/{partyId}")
-    public ResponseEntity<List<LogNotification>> getLogNotificationsByPartyId(@PathVariable Long partyId) {
-        List<LogNotification> notifications = logNotificationService.getLogNotificationsByPartyId(partyId);
+    public ResponseEntity<List<LogNotificationSummary>> getLogNotificationsByPartyId(@PathVariable Long partyId) {
+        List<LogNotificationSummary> notifications = logNotificationService.getLogNotificationsByPartyId(partyId);
         return ResponseEntity.ok(notifications);
     }
 
     @GetMapping("/party/{partyId}/paginated")
-    public ResponseEntity<Page<LogNotification>> getLogNotificationsByPartyIdPaginated(
+    public ResponseEntity<Page<LogNotificationSummary>> getLogNotificationsByPartyIdPaginated(
             @PathVariable Long partyId,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "receivedTime") String sortBy,
             @RequestParam(defaultValue = "desc") String sortDirection) {
         
-        Page<LogNotification> notifications = logNotificationService.getLogNotificationsByPartyId(
+        Page<LogNotificationSummary> notifications = logNotificationService.getLogNotificationsByPartyId(
             partyId, page, size, sortBy, sortDirection);
         return ResponseEntity.ok(notifications);
     }
 
+    // Get log notifications by partyId with keyset (cursor) pagination; no total count
+    @GetMapping("/party/{partyId}/cursor")
+    public CursorSlice<LogNotificationSummary> getLogNotificationsByPartyIdByCursor(
+            @PathVariable Long partyId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "receivedTime") String sortBy,
+            @RequestParam(defaultValue = "desc") String sortDirection) {
+
+        return logNotificationService.scrollLogNotificationsByPartyId(
+            partyId, cursor, size, sortBy, sortDirection);
+    }
+
     // Get log notifications by success flag
     @GetMapping("/success/{flag}")
-    public ResponseEntity<List<LogNotification>> getLogNotificationsBySuccess(@PathVariable Boolean flag) {
-        List<LogNotification> notifications = logNotificationService.getLogNotificationsBySuccess(flag);
+    public ResponseEntity<List<LogNotificationSummary>> getLogNotificationsBySuccess(@PathVariable Boolean flag) {
+        List<LogNotificationSummary> notifications = logNotificationService.getLogNotificationsBySuccess(flag);
         return ResponseEntity.ok(notifications);
     }
 
     // Get log notifications by success flag with pagination
     @GetMapping("/success/{flag}/paginated")
-    public ResponseEntity<Page<LogNotification>> getLogNotificationsBySuccessPaginated(
+    public ResponseEntity<Page<LogNotificationSummary>> getLogNotificationsBySuccessPaginated(
             @PathVariable Boolean flag,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "receivedTime") String sortBy,
             @RequestParam(defaultValue = "desc") String sortDirection) {
 
-        Page<LogNotification> notifications = logNotificationService.getLogNotificationsBySuccess(
+        Page<LogNotificationSummary> notifications = logNotificationService.getLogNotificationsBySuccess(
             flag, page, size, sortBy, sortDirection);
         return ResponseEntity.ok(notifications);
     }
 
+    // Get log notifications by success flag with keyset (cursor) pagination; no total count
+    @GetMapping("/success/{flag}/cursor")
+    public CursorSlice<LogNotificationSummary> getLogNotificationsBySuccessByCursor(
+            @PathVariable Boolean flag,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "receivedTime") String sortBy,
+            @RequestParam(defaultValue = "desc") String sortDirection) {
+
+        return logNotificationService.scrollLogNotificationsBySuccess(
+            flag, cursor, size, sortBy, sortDirection);
+    }
+
     // Get by received time range
     @GetMapping("/received-range")
-    public ResponseEntity<List<LogNotification>> getByReceivedRange(
+    public ResponseEntity<List<LogNotificationSummary>> getByReceivedRange(
             @RequestParam String start,
             @RequestParam String end) {
         ZonedDateTime startZdt = parseLocalDateTimeToZoned(start);
         ZonedDateTime endZdt = parseLocalDateTimeToZoned(end);
-        List<LogNotification> notifications = logNotificationService.getByReceivedRange(startZdt, endZdt);
+        List<LogNotificationSummary> notifications = logNotificationService.getByReceivedRange(startZdt, endZdt);
         return ResponseEntity.ok(notifications);
     }
 
     // Get by received time range with pagination
     @GetMapping("/received-range/paginated")
-    public ResponseEntity<Page<LogNotification>> getByReceivedRangePaginated(
+    public ResponseEntity<Page<LogNotificationSummary>> getByReceivedRangePaginated(
             @RequestParam String start,
             @RequestParam String end,
             @RequestParam(defaultValue = "0") int page,
@@ -155,11 +208,28 @@ public class WebController {
 
         ZonedDateTime startZdt = parseLocalDateTimeToZoned(start);
         ZonedDateTime endZdt = parseLocalDateTimeToZoned(end);
-        Page<LogNotification> notifications = logNotificationService.getByReceivedRange(
+        Page<LogNotificationSummary> notifications = logNotificationService.getByReceivedRange(
             startZdt, endZdt, page, size, sortBy, sortDirection);
         return ResponseEntity.ok(notifications);
     }
 
+    // Get by received time range with keyset (cursor) pagination; no total count
+    @GetMapping("/received-range/cursor")
+    public CursorSlice<LogNotificationSummary> getByReceivedRangeByCursor(
+            @RequestParam String start,
+            @RequestParam String end,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "receivedTime") String sortBy,
+            @RequestParam(defaultValue = "desc") String sortDirection) {
+
+        ZonedDateTime startZdt = parseLocalDateTimeToZoned(start);
+        ZonedDateTime endZdt = parseLocalDateTimeToZoned(end);
+
+        return logNotificationService.scrollByReceivedRange(
+            startZdt, endZdt, cursor, size, sortBy, sortDirection);
+    }
+
     private ZonedDateTime parseLocalDateTimeToZoned(String value) {
         if (value == null || value.isEmpty()) {
             return null;
@@ -171,25 +241,38 @@ public class WebController {
 
     // Get recent log notifications since a given time
     @GetMapping("/recent")
-    public ResponseEntity<List<LogNotification>> getRecentLogNotifications(@RequestParam ZonedDateTime since) {
-        List<LogNotification> notifications = logNotificationService.getRecentSince(since);
+    public ResponseEntity<List<LogNotificationSummary>> getRecentLogNotifications(@RequestParam ZonedDateTime since) {
+        List<LogNotificationSummary> notifications = logNotificationService.getRecentSince(since);
         return ResponseEntity.ok(notifications);
     }
 
     // Get recent log notifications with pagination
     @GetMapping("/recent/paginated")
-    public ResponseEntity<Page<LogNotification>> getRecentLogNotificationsPaginated(
+    public ResponseEntity<Page<LogNotificationSummary>> getRecentLogNotificationsPaginated(
             @RequestParam ZonedDateTime since,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "receivedTime") String sortBy,
             @RequestParam(defaultValue = "desc") String sortDirection) {
         
-        Page<LogNotification> notifications = logNotificationService.getRecentSince(
+        Page<LogNotificationSummary> notifications = logNotificationService.getRecentSince(
             since, page, size, sortBy, sortDirection);
         return ResponseEntity.ok(notifications);
     }
 
+    // Get recent log notifications with keyset (cursor) pagination; no total count
+    @GetMapping("/recent/cursor")
+    public CursorSlice<LogNotificationSummary> getRecentLogNotificationsByCursor(
+            @RequestParam ZonedDateTime since,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "receivedTime") String sortBy,
+            @RequestParam(defaultValue = "desc") String sortDirection) {
+
+        return logNotificationService.scrollRecentSince(
+            since, cursor, size, sortBy, sortDirection);
+    }
+
     // Update log notification
     @PutMapping("/{id}")
     public ResponseEntity<LogNotification> updateLogNotification(@PathVariable Long id, @RequestBody LogNotification request) {
@@ -228,7 +311,7 @@ public class WebController {
 
     // Search with multiple parameters (non-paginated)
     @GetMapping("/search")
-    public ResponseEntity<List<LogNotification>> searchLogNotifications(
+    public ResponseEntity<List<LogNotificationSummary>> searchLogNotifications(
             @RequestParam(required = false) Long partyId,
             @RequestParam(required = false) Boolean success,
             @RequestParam(required = false) String source,
@@ -246,14 +329,14 @@ public class WebController {
             endZdt = parseLocalDateTimeToZoned(end);
         }
         
-        List<LogNotification> notifications = logNotificationService.searchByMultipleParams(
+        List<LogNotificationSummary> notifications = logNotificationService.searchByMultipleParams(
             partyId, success, source, cMode, startZdt, endZdt);
         return ResponseEntity.ok(notifications);
     }
 
     // Search with multiple parameters (paginated)
     @GetMapping("/search/paginated")
-    public ResponseEntity<Page<LogNotification>> searchLogNotificationsPaginated(
+    public ResponseEntity<Page<LogNotificationSummary>> searchLogNotificationsPaginated(
             @RequestParam(required = false) Long partyId,
             @RequestParam(required = false) Boolean success,
             @RequestParam(required = false) String source,
@@ -275,10 +358,38 @@ public class WebController {
             endZdt = parseLocalDateTimeToZoned(end);
         }
         
-        Page<LogNotification> notifications = logNotificationService.searchByMultipleParams(
+        Page<LogNotificationSummary> notifications = logNotificationService.searchByMultipleParams(
             partyId, success, source, cMode, startZdt, endZdt, page, size, sortBy, sortDirection);
         return ResponseEntity.ok(notifications);
     }
 
+    // Search with multiple parameters with keyset (cursor) pagination; no total count
+    @GetMapping("/search/cursor")
+    public CursorSlice<LogNotificationSummary> searchLogNotificationsByCursor(
+            @RequestParam(required = false) Long partyId,
+            @RequestParam(required = false) Boolean success,
+            @RequestParam(required = false) String source,
+            @RequestParam(required = false) String cMode,
+            @RequestParam(required = false) String start,
+            @RequestParam(required = false) String end,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "receivedTime") String sortBy,
+            @RequestParam(defaultValue = "desc") String sortDirection) {
+
+        ZonedDateTime startZdt = null;
+        ZonedDateTime endZdt = null;
+
+        if (start != null && !start.trim().isEmpty()) {
+            startZdt = parseLocalDateTimeToZoned(start);
+        }
+        if (end != null && !end.trim().isEmpty()) {
+            endZdt = parseLocalDateTimeToZoned(end);
+        }
+
+        return logNotificationService.scrollByMultipleParams(
+            partyId, success, source, cMode, startZdt, endZdt, cursor, size, sortBy, sortDirection);
+    }
+
 }
 
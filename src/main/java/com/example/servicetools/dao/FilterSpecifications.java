@@ -0,0 +1,35 @@
+package com.example.servicetools.dao;
+
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Optional filters as {@link Specification}s. Each returns {@code null} when its value is
+ * {@code null}, which {@link Specification#allOf} and {@link Specification#where} treat as no
+ * restriction. Searches combine them, so only the filters a caller supplies reach the SQL and the
+ * optimizer can pick an index for them.
+ */
+public final class FilterSpecifications {
+
+    private FilterSpecifications() {
+    }
+
+    public static <T> Specification<T> equalTo(String attribute, Object value) {
+        if (value == null) return null;
+        return (root, query, cb) -> cb.equal(root.get(attribute), value);
+    }
+
+    public static <T, Y extends Comparable<? super Y>> Specification<T> atLeast(String attribute, Y value) {
+        if (value == null) return null;
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get(attribute), value);
+    }
+
+    public static <T, Y extends Comparable<? super Y>> Specification<T> atMost(String attribute, Y value) {
+        if (value == null) return null;
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.get(attribute), value);
+    }
+
+    /** Inclusive on both ends, like the derived {@code ...Between} queries; either end may be open. */
+    public static <T, Y extends Comparable<? super Y>> Specification<T> between(String attribute, Y start, Y end) {
+        return Specification.allOf(atLeast(attribute, start), atMost(attribute, end));
+    }
+}
@@ -4,15 +4,18 @@ import com.example.servicetools.model.JobInstance;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface JobInstanceRepository extends JpaRepository<JobInstance, Long> {
+public interface JobInstanceRepository extends JpaRepository<JobInstance, Long>, JpaSpecificationExecutor<JobInstance> {
 
     // By name
     List<JobInstance> findByName(String name);
@@ -36,28 +39,18 @@ public interface JobInstanceRepository extends JpaRepository<JobInstance, Long>
     @Query("SELECT j FROM JobInstance j WHERE j.created >= :since ORDER BY j.created DESC")
     Page<JobInstance> findRecentSince(@Param("since") LocalDateTime since, Pageable pageable);
 
-    // Delete old by created time
-    void deleteByCreatedBefore(LocalDateTime cutoffTime);
-
-    // Search with multiple parameters
-    @Query("SELECT j FROM JobInstance j WHERE " +
-           "(:name IS NULL OR j.name = :name) AND " +
-           "(:status IS NULL OR j.status = :status) AND " +
-           "(:start IS NULL OR j.created >= :start) AND " +
-           "(:end IS NULL OR j.created <= :end)")
-    List<JobInstance> findByMultipleParams(@Param("name") String name,
-                                          @Param("status") String status,
-                                          @Param("start") LocalDateTime start,
-                                          @Param("end") LocalDateTime end);
-
-    @Query("SELECT j FROM JobInstance j WHERE " +
-           "(:name IS NULL OR j.name = :name) AND " +
-           "(:status IS NULL OR j.status = :status) AND " +
-           "(:start IS NULL OR j.created >= :start) AND " +
-           "(:end IS NULL OR j.created <= :end)")
-    Page<JobInstance> findByMultipleParams(@Param("name") String name,
-                                          @Param("status") String status,
-                                          @Param("start") LocalDateTime start,
-                                          @Param("end") LocalDateTime end,
-                                          Pageable pageable);
+    // For ChunkedDeleter
+    @Query("SELECT j.id FROM JobInstance j")
+    List<Long> findIds(Pageable chunk);
+
+    @Query("SELECT j.id FROM JobInstance j WHERE j.created < :cutoff")
+    List<Long> findIdsByCreatedBefore(@Param("cutoff") LocalDateTime cutoff, Pageable chunk);
+
+    @Query("SELECT j.id FROM JobInstance j WHERE j.created < :cutoff AND j.status IN :statuses")
+    List<Long> findIdsByCreatedBeforeAndStatusIn(@Param("cutoff") LocalDateTime cutoff,
+                                                 @Param("statuses") Collection<String> statuses, Pageable chunk);
+
+    @Modifying
+    @Query("DELETE FROM JobInstance j WHERE j.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,16 @@
+package com.example.servicetools.dao;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+
+/**
+ * The select list of a query that reads an {@code R} view of each {@code T} row instead of the whole
+ * entity, usually {@code cb.construct(R.class, root.get(...), ...)}. Only the columns it names are
+ * read from the database, so large text columns left out of it are never fetched for listings.
+ */
+@FunctionalInterface
+public interface Projection<T, R> {
+
+    Selection<R> toSelection(Root<T> root, CriteriaBuilder cb);
+}
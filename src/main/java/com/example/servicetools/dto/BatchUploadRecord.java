@@ -0,0 +1,22 @@
+package com.example.servicetools.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One result of a batch upload: a mapped client, or an error for a row, a sheet or a whole file.
+ * {@code row} is the 1-based row number as shown in Excel (the record number for CSV files).
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchUploadRecord {
+    private String file;
+    private String sheet;
+    private Integer row;
+    private SimpleClient client;
+    private String error;
+}
@@ -0,0 +1,46 @@
+package com.example.servicetools.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of an NDJSON bulk ingest. Line numbers are 1-based lines of the request body; blank lines
+ * are skipped and not counted as rejected. {@code rejectedLines} lists at most the first rejections
+ * (see {@code rejectedLinesTruncated}); {@code rejected} always has the full count.
+ */
+@Data
+public class BulkIngestResult {
+    private long lines;
+    private long accepted;
+    private long rejected;
+    private List<Chunk> chunks = new ArrayList<>();
+    private List<RejectedLine> rejectedLines = new ArrayList<>();
+    private boolean rejectedLinesTruncated;
+    private long elapsedMillis;
+
+    /** One JDBC batch, written in its own transaction; {@code error} is set if it was rolled back. */
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Chunk {
+        private int chunk;
+        private long firstLine;
+        private long lastLine;
+        private int accepted;
+        private String error;
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class RejectedLine {
+        private long line;
+        private String error;
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.servicetools.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One slice of a keyset-paginated listing. There is no total count: {@code hasNext} says whether
+ * more rows follow, and {@code nextCursor} is passed back as {@code cursor} to fetch them. The cursor
+ * is opaque to clients and only valid with the sort it was issued for.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorSlice<T> {
+    private List<T> content;
+    private int size;
+    private boolean hasNext;
+    private String nextCursor;
+}
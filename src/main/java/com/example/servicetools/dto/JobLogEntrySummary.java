@@ -0,0 +1,28 @@
+package com.example.servicetools.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A job log entry as listed by the list, search and paginated endpoints: every column except
+ * {@code PAYLOAD} and {@code STACKTRACE}, which only say whether they are set. The texts themselves
+ * are fetched per entry from {@code GET /api/job-log-entries/{id}}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class JobLogEntrySummary {
+    private Long id;
+    private Long jobInstanceId;
+    private String jobName;
+    private Long recordId;
+    private String type;
+    private String status;
+    private LocalDateTime eventTs;
+    private String description;
+    private boolean hasPayload;
+    private boolean hasStacktrace;
+}
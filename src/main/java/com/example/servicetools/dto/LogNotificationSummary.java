@@ -0,0 +1,27 @@
+package com.example.servicetools.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.ZonedDateTime;
+
+/**
+ * A log notification as listed by the list, search and paginated endpoints: every column except
+ * {@code STACK_TRACE}, which only says whether it is set. The stack trace itself is fetched per
+ * notification from {@code GET /api/log-notifications/{id}}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LogNotificationSummary {
+    private Long id;
+    private Long partyId;
+    private String cMode;
+    private ZonedDateTime lastUpdateTime;
+    private String source;
+    private ZonedDateTime receivedTime;
+    private ZonedDateTime completedTime;
+    private Boolean succesfullyProcessed;
+    private boolean hasStackTrace;
+}
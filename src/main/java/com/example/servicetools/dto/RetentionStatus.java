@@ -0,0 +1,40 @@
+package com.example.servicetools.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Progress of the current retention purge, or the outcome of the last one. {@code deleted} counts
+ * grow while a table is being purged; a table whose retention is 0 days is reported as skipped.
+ */
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class RetentionStatus {
+    private boolean running;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private List<Table> tables = new ArrayList<>();
+    private long orphanedBlobsDeleted;
+
+    public enum State {PENDING, RUNNING, DONE, SKIPPED, FAILED}
+
+    /** One table; {@code error} is set if it failed, with the rows deleted before the failure kept. */
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Table {
+        private String table;
+        private int days;
+        private LocalDateTime cutoff;
+        private long deleted;
+        private State state;
+        private String error;
+    }
+}
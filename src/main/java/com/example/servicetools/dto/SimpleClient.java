@@ -4,7 +4,7 @@ import lombok.Data;
 
 @Data
 public class SimpleClient {
-    private long ce;
+    private Long ce;  // null when the row has no CE
     private String type;
     private String isClient;  //todo change to boolean
     private String isVetted;  //todo change to boolean
@@ -0,0 +1,21 @@
+package com.example.servicetools.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * State of a resumable upload session. {@code offset} is the number of bytes received so far and
+ * the offset the next chunk must start at; {@code size} is the declared total, if one was given.
+ */
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class UploadSessionStatus {
+    private String id;
+    private String filename;
+    private Long size;
+    private long offset;
+    private LocalDateTime created;
+    private LocalDateTime expires;
+}
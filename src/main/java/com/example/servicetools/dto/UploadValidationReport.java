@@ -0,0 +1,65 @@
+package com.example.servicetools.dto;
+
+import com.example.servicetools.model.ColumnToObjectMapping;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Result of a dry run: how a file's headers resolve against the current column mappings and how
+ * a sample of its rows maps, with estimates for processing the whole file. Row numbers are
+ * 1-based as shown in Excel. Estimates are {@code null} when the row count cannot be determined.
+ */
+@Data
+@NoArgsConstructor
+public class UploadValidationReport {
+
+    private String file;
+    private String sheet;
+    private long mappingVersion;
+    private String sampling;
+
+    private List<ColumnReport> columns;
+    private List<String> unmappedHeaders;
+    private List<ColumnToObjectMapping> unusedMappings;
+
+    // Rows read, and the last of them; a random sample is drawn from these only, so unless the sheet was
+    // fully scanned it says nothing about the rows after lastScannedRow
+    private long scannedRows;
+    private int lastScannedRow;
+    private boolean sheetFullyScanned;
+    private int sampledRows;
+    private int mappedRows;
+    private int failedRows;
+    private Map<String, Integer> failuresByField;
+    private List<RowFailure> failures;
+
+    private Long estimatedTotalRows;
+    private Long estimatedDurationMillis;
+    private long estimatedMemoryBytes;
+    private long estimatedStreamingMemoryBytes;
+    private long elapsedMillis;
+
+    /** A header and what it resolves to; {@code targetType} is null when the DTO has no such property. */
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class ColumnReport {
+        private int column;
+        private String header;
+        private String jsonPath;
+        private String targetType;
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class RowFailure {
+        private int row;
+        private String field;
+        private String message;
+    }
+}
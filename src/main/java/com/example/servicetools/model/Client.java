@@ -0,0 +1,43 @@
+package com.example.servicetools.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * A client stored from an upload. {@code ce} is the client's own key, so uploading a row again
+ * updates the stored client instead of adding a duplicate. Written by {@code ClientBatchWriter}.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "T_CLIENT")
+public class Client {
+
+    @Id
+    @Column(name = "CE")
+    private Long ce;
+
+    @Column(name = "TYPE")
+    private String type;
+
+    @Column(name = "IS_CLIENT")
+    private String isClient;
+
+    @Column(name = "IS_VETTED")
+    private String isVetted;
+
+    @Column(name = "COUNTRY")
+    private String country;
+
+    @Column(name = "JOB_INSTANCE_ID")
+    private Long jobInstanceId;
+
+    @Column(name = "UPDATED_TS")
+    private LocalDateTime updated;
+}
@@ -4,6 +4,7 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -18,7 +19,8 @@ import jakarta.persistence.Column;
 public class ColumnToObjectMapping {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "column_to_object_mapping_seq")
+    @SequenceGenerator(name = "column_to_object_mapping_seq", sequenceName = "T_COLUMN_TO_OBJECT_MAPPING_SEQ", allocationSize = 50)
     private Long id;
 
     @Column(name = "JSON_PATH")
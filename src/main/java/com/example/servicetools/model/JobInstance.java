@@ -7,6 +7,8 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.Getter;
 import lombok.Setter;
@@ -15,11 +17,17 @@ import lombok.Setter;
 @Getter
 @Setter
 @Entity
-@Table(name = "TJOB_INSTANCE")
+// CREATED_TS matches the default newest-first sort of the listings, id as tiebreaker, so cursor slices
+// read it in order; NAME serves the name filter with the same order
+@Table(name = "TJOB_INSTANCE", indexes = {
+    @Index(name = "IX_TJOB_INSTANCE_CREATED_TS", columnList = "CREATED_TS DESC, ID DESC"),
+    @Index(name = "IX_TJOB_INSTANCE_NAME_CREATED_TS", columnList = "NAME, CREATED_TS DESC, ID DESC")
+})
 public class JobInstance {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "job_instance_seq")
+    @SequenceGenerator(name = "job_instance_seq", sequenceName = "TJOB_INSTANCE_SEQ", allocationSize = 50)
     private Long id;
 
     @Column(name = "NAME")
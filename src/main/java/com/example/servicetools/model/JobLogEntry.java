@@ -1,11 +1,15 @@
 package com.example.servicetools.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
 import lombok.Getter;
 import lombok.Setter;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import java.time.LocalDateTime;
@@ -13,11 +17,24 @@ import java.time.LocalDateTime;
 @Getter
 @Setter 
 @Entity
-@Table(name = "TJOB_LOGENTRY")
+// EVENT_TS matches the default newest-first sort of the listings, id as tiebreaker, so cursor slices
+// read it in order; JOB_INSTANCE_ID serves the usual search filter with the same order. The hash
+// indexes let the text blob sweep check a blob's references one by one. Every index here is maintained
+// on each insert, so more are only worth adding for lookups that are actually used
+@Table(name = "TJOB_LOGENTRY", indexes = {
+    @Index(name = "IX_TJOB_LOGENTRY_EVENT_TS", columnList = "EVENT_TS DESC, ID DESC"),
+    @Index(name = "IX_TJOB_LOGENTRY_JOB_INSTANCE_EVENT_TS", columnList = "JOB_INSTANCE_ID, EVENT_TS DESC, ID DESC"),
+    @Index(name = "IX_TJOB_LOGENTRY_PAYLOAD_HASH", columnList = "PAYLOAD_HASH"),
+    @Index(name = "IX_TJOB_LOGENTRY_STACKTRACE_HASH", columnList = "STACKTRACE_HASH")
+})
 public class JobLogEntry {
 
+    public static final int MAX_DESCRIPTION_LENGTH = 255;
+    public static final int MAX_TEXT_LENGTH = 65536;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "job_log_entry_seq")
+    @SequenceGenerator(name = "job_log_entry_seq", sequenceName = "TJOB_LOGENTRY_SEQ", allocationSize = 50)
     private Long id;
 
     @Column(name = "JOB_INSTANCE_ID")
@@ -41,10 +58,20 @@ public class JobLogEntry {
     @Column(name = "DESCRIPTION")
     private String description;
     
-    @Column(name = "PAYLOAD")
+    // Payload and stack trace are kept once each in T_TEXT_BLOB (see TextBlobStore); the row holds
+    // their hashes, and the texts are only set when the services load or save them
+    @JsonIgnore
+    @Column(name = "PAYLOAD_HASH", length = TextBlob.HASH_LENGTH)
+    private String payloadHash;
+
+    @JsonIgnore
+    @Column(name = "STACKTRACE_HASH", length = TextBlob.HASH_LENGTH)
+    private String stacktraceHash;
+
+    @Transient
     private String payload;
-    
-    @Column(name = "STACKTRACE")
+
+    @Transient
     private String stacktrace;
 
 }
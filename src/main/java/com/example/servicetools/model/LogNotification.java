@@ -1,12 +1,15 @@
 package com.example.servicetools.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
-import lombok.AllArgsConstructor;
+import jakarta.persistence.Transient;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
@@ -14,13 +17,21 @@ import java.time.ZonedDateTime;
 
 @Data
 @NoArgsConstructor
-@AllArgsConstructor
 @Entity
-@Table(name = "log_notifications")
+// RECEIVED_TIME matches the default newest-first sort of the listings, id as tiebreaker, so cursor slices
+// read it in order; the composite ones serve the selective search filters with the same order, and
+// STACK_TRACE_HASH the reference checks of the text blob sweep
+@Table(name = "log_notifications", indexes = {
+    @Index(name = "IX_LOG_NOTIFICATIONS_RECEIVED_TIME", columnList = "RECEIVED_TIME DESC, ID DESC"),
+    @Index(name = "IX_LOG_NOTIFICATIONS_PARTY_RECEIVED_TIME", columnList = "PARTY_ID, RECEIVED_TIME DESC, ID DESC"),
+    @Index(name = "IX_LOG_NOTIFICATIONS_SOURCE_RECEIVED_TIME", columnList = "SOURCE, RECEIVED_TIME DESC, ID DESC"),
+    @Index(name = "IX_LOG_NOTIFICATIONS_STACK_TRACE_HASH", columnList = "STACK_TRACE_HASH")
+})
 public class LogNotification {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "log_notification_seq")
+    @SequenceGenerator(name = "log_notification_seq", sequenceName = "LOG_NOTIFICATIONS_SEQ", allocationSize = 50)
     private Long id;
 
     @Column(name = "PARTY_ID")
@@ -44,7 +55,26 @@ public class LogNotification {
     @Column(name = "IS_SUCCESSFUL")
     private Boolean succesfullyProcessed;
 
-    @Column(name = "STACK_TRACE")
+    // Kept once in T_TEXT_BLOB (see TextBlobStore); the row holds its hash, and the text is only set
+    // when LogNotificationService loads or saves it
+    @JsonIgnore
+    @Column(name = "STACK_TRACE_HASH", length = TextBlob.HASH_LENGTH)
+    private String stackTraceHash;
+
+    @Transient
     private String stackTrace;
 
+    public LogNotification(Long id, Long partyId, String cMode, ZonedDateTime lastUpdateTime, String source,
+                           ZonedDateTime receivedTime, ZonedDateTime completedTime, Boolean succesfullyProcessed,
+                           String stackTrace) {
+        this.id = id;
+        this.partyId = partyId;
+        this.cMode = cMode;
+        this.lastUpdateTime = lastUpdateTime;
+        this.source = source;
+        this.receivedTime = receivedTime;
+        this.completedTime = completedTime;
+        this.succesfullyProcessed = succesfullyProcessed;
+        this.stackTrace = stackTrace;
+    }
 }
@@ -0,0 +1,39 @@
+package com.example.servicetools.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * One distinct text (a payload or stack trace), stored once however many rows refer to it. Rows keep
+ * {@code hash}, the SHA-256 of the text's UTF-8 bytes in hex; {@code deflated} is those bytes
+ * deflate-compressed. Written and read by {@code TextBlobStore}.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "T_TEXT_BLOB")
+public class TextBlob {
+
+    public static final int HASH_LENGTH = 64;
+    public static final int MAX_DEFLATED_LENGTH = 1_000_000;
+
+    @Id
+    @Column(name = "HASH", length = HASH_LENGTH)
+    private String hash;
+
+    // VARBINARY rather than a LOB: H2 keeps LOBs in a separate store, which made ingest markedly slower
+    @Column(name = "DEFLATED", length = MAX_DEFLATED_LENGTH)
+    private byte[] deflated;
+
+    @Column(name = "TEXT_LENGTH")
+    private Integer textLength;
+
+    @Column(name = "CREATED_TS")
+    private LocalDateTime created;
+}
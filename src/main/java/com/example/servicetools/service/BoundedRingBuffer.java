@@ -0,0 +1,86 @@
+package com.example.servicetools.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded multi-producer, multi-consumer queue over a ring of slots, without locks.
+ * <p>
+ * Each slot carries a sequence number telling whose turn it is: a producer may fill slot
+ * {@code i} once its sequence equals the producer's ticket, a consumer may empty it once the
+ * sequence is one past the ticket. Producers and consumers claim tickets with a CAS on their own
+ * counter, so they only contend with each other when the ring is full or empty.
+ * The capacity is rounded up to a power of two.
+ */
+final class BoundedRingBuffer<E> {
+
+    private final int mask;
+    private final AtomicReferenceArray<E> slots;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+
+    BoundedRingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.mask = size - 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /** @return {@code false} when the buffer is full */
+    boolean offer(E element) {
+        long ticket = tail.get();
+        while (true) {
+            int slot = (int) ticket & mask;
+            long diff = sequences.get(slot) - ticket;
+            if (diff == 0) {
+                if (tail.compareAndSet(ticket, ticket + 1)) {
+                    slots.lazySet(slot, element);
+                    sequences.set(slot, ticket + 1);
+                    return true;
+                }
+                ticket = tail.get();
+            } else if (diff < 0) {
+                return false;
+            } else {
+                ticket = tail.get();
+            }
+        }
+    }
+
+    /** @return the oldest element, or {@code null} when the buffer is empty */
+    E poll() {
+        long ticket = head.get();
+        while (true) {
+            int slot = (int) ticket & mask;
+            long diff = sequences.get(slot) - (ticket + 1);
+            if (diff == 0) {
+                if (head.compareAndSet(ticket, ticket + 1)) {
+                    E element = slots.get(slot);
+                    slots.lazySet(slot, null);
+                    sequences.set(slot, ticket + mask + 1);
+                    return element;
+                }
+                ticket = head.get();
+            } else if (diff < 0) {
+                return null;
+            } else {
+                ticket = head.get();
+            }
+        }
+    }
+
+    /** Approximate while producers or consumers are active. */
+    int size() {
+        long size = tail.get() - head.get();
+        return (int) Math.max(0, Math.min(size, mask + 1L));
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+}
@@ -0,0 +1,191 @@
+package com.example.servicetools.service;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.apache.poi.ss.usermodel.DateUtil;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+
+/**
+ * Writes a cell value into a JSON field according to the Java type of the target property.
+ * <p>
+ * Numeric and boolean cells are used as read, numbers are only formatted when the target is
+ * text, and text is parsed with validating parsers that never throw on the happy path. A value
+ * that does not fit the target type is written as text so that binding reports the row, as before.
+ * Blank cells leave the field unset.
+ */
+enum CellConverter {
+
+    LONG {
+        @Override
+        void write(ObjectNode target, String field, Object value) {
+            if (value instanceof NumericCell number && number.isIntegral()) {
+                target.put(field, (long) number.value());
+            } else if (value instanceof String text && isLong(text)) {
+                target.put(field, Long.parseLong(text));
+            } else {
+                UNTYPED.write(target, field, value);
+            }
+        }
+    },
+
+    DECIMAL {
+        @Override
+        void write(ObjectNode target, String field, Object value) {
+            if (value instanceof NumericCell number) {
+                target.put(field, number.value());
+            } else if (value instanceof String text && isDecimal(text)) {
+                target.put(field, new BigDecimal(text));
+            } else {
+                UNTYPED.write(target, field, value);
+            }
+        }
+    },
+
+    BOOLEAN {
+        @Override
+        void write(ObjectNode target, String field, Object value) {
+            if (value instanceof Boolean flag) {
+                target.put(field, flag);
+            } else if (value instanceof String text && isBoolean(text)) {
+                target.put(field, Boolean.parseBoolean(text));
+            } else {
+                UNTYPED.write(target, field, value);
+            }
+        }
+    },
+
+    TEXT {
+        @Override
+        void write(ObjectNode target, String field, Object value) {
+            target.put(field, value instanceof String text ? text : String.valueOf(value));
+        }
+    },
+
+    DATE_TIME {
+        @Override
+        void write(ObjectNode target, String field, Object value) {
+            if (value instanceof Date date) {
+                target.put(field, LocalDateTime.ofInstant(date.toInstant(), ZoneId.systemDefault()).toString());
+            } else if (value instanceof NumericCell number && DateUtil.isValidExcelDate(number.value())) {
+                target.put(field, DateUtil.getLocalDateTime(number.value(), number.date1904()).toString());
+            } else {
+                TEXT.write(target, field, value);
+            }
+        }
+    },
+
+    DATE {
+        @Override
+        void write(ObjectNode target, String field, Object value) {
+            if (value instanceof Date date) {
+                target.put(field, LocalDate.ofInstant(date.toInstant(), ZoneId.systemDefault()).toString());
+            } else if (value instanceof NumericCell number && DateUtil.isValidExcelDate(number.value())) {
+                target.put(field, DateUtil.getLocalDateTime(number.value(), number.date1904()).toLocalDate().toString());
+            } else {
+                TEXT.write(target, field, value);
+            }
+        }
+    },
+
+    LEGACY_DATE {
+        @Override
+        void write(ObjectNode target, String field, Object value) {
+            if (value instanceof Date date) {
+                target.put(field, date.getTime());
+            } else {
+                DATE_TIME.write(target, field, value);
+            }
+        }
+    },
+
+    /** Target type unknown (e.g. the path is not a property of the DTO): infer boolean / long / text. */
+    UNTYPED {
+        @Override
+        void write(ObjectNode target, String field, Object value) {
+            if (value instanceof Boolean flag) {
+                target.put(field, flag);
+                return;
+            }
+            String text = value instanceof String s ? s : String.valueOf(value);
+            if (isBoolean(text)) {
+                target.put(field, Boolean.parseBoolean(text));
+            } else if (isLong(text)) {
+                target.put(field, Long.parseLong(text));
+            } else {
+                target.put(field, text);
+            }
+        }
+    };
+
+    private static final String MAX_LONG = "9223372036854775807";
+    private static final String MIN_LONG_DIGITS = "9223372036854775808";
+
+    /** Writes {@code value} into {@code target.field}; {@code null} (blank cell) leaves the field unset. */
+    final void set(ObjectNode target, String field, Object value) {
+        if (value != null) {
+            write(target, field, value);
+        }
+    }
+
+    abstract void write(ObjectNode target, String field, Object value);
+
+    static CellConverter forType(Class<?> type) {
+        if (type == null) return UNTYPED;
+        if (type == long.class || type == Long.class || type == int.class || type == Integer.class
+            || type == short.class || type == Short.class || type == BigInteger.class) return LONG;
+        if (type == double.class || type == Double.class || type == float.class || type == Float.class
+            || type == BigDecimal.class) return DECIMAL;
+        if (type == boolean.class || type == Boolean.class) return BOOLEAN;
+        if (type == String.class) return TEXT;
+        if (type == LocalDateTime.class) return DATE_TIME;
+        if (type == LocalDate.class) return DATE;
+        if (type == Date.class) return LEGACY_DATE;
+        return UNTYPED;
+    }
+
+    static boolean isBoolean(String text) {
+        return "true".equalsIgnoreCase(text) || "false".equalsIgnoreCase(text);
+    }
+
+    /** Accepts exactly what {@link Long#parseLong(String)} accepts, without throwing. */
+    static boolean isLong(String text) {
+        int length = text.length();
+        int start = length > 0 && (text.charAt(0) == '-' || text.charAt(0) == '+') ? 1 : 0;
+        int digits = length - start;
+        if (digits == 0 || digits > MAX_LONG.length()) return false;
+        for (int i = start; i < length; i++) {
+            char ch = text.charAt(i);
+            if (ch < '0' || ch > '9') return false;
+        }
+        if (digits < MAX_LONG.length()) return true;
+        String limit = text.charAt(0) == '-' ? MIN_LONG_DIGITS : MAX_LONG;
+        return text.substring(start).compareTo(limit) <= 0;
+    }
+
+    /** Accepts plain decimal notation: optional sign, digits, optional fraction and exponent. */
+    static boolean isDecimal(String text) {
+        int i = 0;
+        int length = text.length();
+        if (i < length && (text.charAt(i) == '-' || text.charAt(i) == '+')) i++;
+        int digits = 0;
+        while (i < length && Character.isDigit(text.charAt(i))) { i++; digits++; }
+        if (i < length && text.charAt(i) == '.') {
+            i++;
+            while (i < length && Character.isDigit(text.charAt(i))) { i++; digits++; }
+        }
+        if (digits == 0) return false;
+        if (i < length && (text.charAt(i) == 'e' || text.charAt(i) == 'E')) {
+            i++;
+            if (i < length && (text.charAt(i) == '-' || text.charAt(i) == '+')) i++;
+            int exponentDigits = 0;
+            while (i < length && Character.isDigit(text.charAt(i))) { i++; exponentDigits++; }
+            if (exponentDigits == 0) return false;
+        }
+        return i == length;
+    }
+}
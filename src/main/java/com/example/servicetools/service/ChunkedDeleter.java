@@ -0,0 +1,96 @@
+package com.example.servicetools.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.LongConsumer;
+import java.util.function.ToIntFunction;
+
+/**
+ * Deletes rows a chunk at a time, each chunk in its own short transaction: the ids of up to
+ * {@code retention.chunk-size} matching rows are selected, then removed with one bulk {@code DELETE}.
+ * No entity is loaded, and locks are only held for one chunk, so the table stays available to
+ * readers and writers while a large purge runs. Chunks committed before a failure stay deleted.
+ * <p>
+ * Callers must not run inside a transaction of their own, or every chunk would join it; service methods
+ * that purge are {@code @Transactional(propagation = NOT_SUPPORTED)} for that reason.
+ */
+@Component
+public class ChunkedDeleter {
+
+    private static final Logger log = LoggerFactory.getLogger(ChunkedDeleter.class);
+
+    // A purge longer than this logs its progress at INFO, once per interval
+    private static final long PROGRESS_LOG_NANOS = 10_000_000_000L;
+
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final long pauseMillis;
+
+    public ChunkedDeleter(PlatformTransactionManager transactionManager,
+                          @Value("${retention.chunk-size:1000}") int chunkSize,
+                          @Value("${retention.chunk-pause-ms:0}") long pauseMillis) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = Math.max(1, chunkSize);
+        this.pauseMillis = Math.max(0, pauseMillis);
+    }
+
+    /**
+     * Deletes until {@code ids} finds no more rows.
+     *
+     * @param table    name used in log messages
+     * @param ids      the ids of at most one chunk of the rows still to delete
+     * @param delete   deletes the given ids, returning the number of rows deleted
+     * @param progress told the running total after every chunk
+     * @return the number of rows deleted
+     */
+    public long delete(String table, Function<Pageable, List<Long>> ids, ToIntFunction<List<Long>> delete,
+                       LongConsumer progress) {
+        Pageable chunk = PageRequest.of(0, chunkSize);
+        long started = System.nanoTime();
+        long lastLogged = started;
+        long deleted = 0;
+        int chunks = 0;
+        while (true) {
+            Integer count = transactionTemplate.execute(status -> {
+                List<Long> next = ids.apply(chunk);
+                return next.isEmpty() ? 0 : delete.applyAsInt(next);
+            });
+            if (count == null || count == 0) break;
+            deleted += count;
+            chunks++;
+            progress.accept(deleted);
+
+            long now = System.nanoTime();
+            if (now - lastLogged >= PROGRESS_LOG_NANOS) {
+                log.info("Deleting from {}: {} rows in {} chunks so far", table, deleted, chunks);
+                lastLogged = now;
+            }
+            if (pauseMillis > 0) {
+                try {
+                    Thread.sleep(pauseMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    log.warn("Deleting from {} interrupted after {} rows", table, deleted);
+                    break;
+                }
+            }
+        }
+        log.debug("Deleted {} rows from {} in {} chunks, {} ms", deleted, table, chunks,
+            (System.nanoTime() - started) / 1_000_000);
+        return deleted;
+    }
+
+    /** As {@link #delete(String, Function, ToIntFunction, LongConsumer)}, without progress reports. */
+    public long delete(String table, Function<Pageable, List<Long>> ids, ToIntFunction<List<Long>> delete) {
+        return delete(table, ids, delete, deleted -> { });
+    }
+}
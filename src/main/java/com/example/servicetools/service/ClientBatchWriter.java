@@ -0,0 +1,145 @@
+package com.example.servicetools.service;
+
+import com.example.servicetools.dto.SimpleClient;
+import com.example.servicetools.model.Client;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Stores mapped upload rows as {@link Client} records.
+ * <p>
+ * Rows are written with JDBC batches of {@code excel.upload.persist.batch-size} {@code MERGE}
+ * statements keyed on {@code CE}, one transaction per batch, rather than one JPA {@code save()} and
+ * flush per entity. A failed batch rolls back alone; batches already committed stay stored. Rows
+ * without a CE have no key to merge on and are skipped.
+ */
+@Service
+public class ClientBatchWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(ClientBatchWriter.class);
+
+    private static final String MERGE_SQL =
+        "MERGE INTO T_CLIENT (CE, TYPE, IS_CLIENT, IS_VETTED, COUNTRY, JOB_INSTANCE_ID, UPDATED_TS) " +
+        "KEY (CE) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final int[] MERGE_TYPES = {
+        Types.BIGINT, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.BIGINT, Types.TIMESTAMP
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    public ClientBatchWriter(JdbcTemplate jdbcTemplate,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${excel.upload.persist.batch-size:1000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * Writes {@code clients} in batches.
+     *
+     * @param jobInstanceId job the rows came from, or {@code null} for direct uploads
+     * @return the number of rows written, leaving out those skipped for lacking a CE
+     */
+    public long write(List<SimpleClient> clients, Long jobInstanceId) {
+        try (Batch batch = open(jobInstanceId)) {
+            clients.forEach(batch);
+            batch.flush();
+            return batch.getWritten();
+        }
+    }
+
+    /**
+     * Opens a sink that buffers rows and writes each full batch as it fills. Call
+     * {@link Batch#flush()} after the last row; closing the sink without flushing drops the partial batch.
+     */
+    public Batch open(Long jobInstanceId) {
+        return new Batch(jobInstanceId);
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    private void writeBatch(List<SimpleClient> clients, Long jobInstanceId) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> args = new ArrayList<>(clients.size());
+        for (SimpleClient client : clients) {
+            args.add(new Object[] {
+                client.getCe(), client.getType(), client.getIsClient(), client.getIsVetted(), client.getCountry(),
+                jobInstanceId, now
+            });
+        }
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(MERGE_SQL, args, MERGE_TYPES));
+    }
+
+    /** Buffers rows for {@link ClientBatchWriter}; not thread-safe. */
+    public final class Batch implements Consumer<SimpleClient>, AutoCloseable {
+
+        private final Long jobInstanceId;
+        private List<SimpleClient> pending = new ArrayList<>(batchSize);
+        private long written;
+        private long skipped;
+        private long writeNanos;
+
+        private Batch(Long jobInstanceId) {
+            this.jobInstanceId = jobInstanceId;
+        }
+
+        @Override
+        public void accept(SimpleClient client) {
+            if (client.getCe() == null) {
+                skipped++;
+                return;
+            }
+            pending.add(client);
+            if (pending.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        public void flush() {
+            if (pending.isEmpty()) return;
+            long started = System.nanoTime();
+            writeBatch(pending, jobInstanceId);
+            writeNanos += System.nanoTime() - started;
+            written += pending.size();
+            pending = new ArrayList<>(batchSize);
+        }
+
+        public long getWritten() {
+            return written;
+        }
+
+        /** Rows left out because they have no CE. */
+        public long getSkipped() {
+            return skipped;
+        }
+
+        @Override
+        public void close() {
+            if (written > 0) {
+                log.debug("Stored {} clients in {} ms", written, writeNanos / 1_000_000);
+            }
+            if (skipped > 0) {
+                log.warn("Skipped {} clients without a CE", skipped);
+            }
+            pending.clear();
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.servicetools.service;
+
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A header row resolved once against the column mappings.
+ * <p>
+ * JSON paths are split when the plan is compiled; every nested object a path needs is
+ * numbered as a container, and each mapped column keeps the index of its container plus the
+ * name of its leaf field. Applying the plan to a row only indexes into these arrays.
+ * Each column also gets a {@link CellConverter} chosen from the type of the DTO property it binds
+ * to, so cell values are converted by target type rather than guessed from their text.
+ */
+public final class ColumnMappingPlan {
+
+    private static final JsonNodeFactory NODES = JsonNodeFactory.instance;
+
+    /** Parent container index of each container; container 0 is the root object. */
+    private final int[] containerParents;
+    private final String[] containerNames;
+
+    /** Per column position: container index, leaf field and converter, or {@code null} when unmapped. */
+    private final int[] columnContainers;
+    private final String[] columnFields;
+    private final CellConverter[] columnConverters;
+
+    private final int mappedColumns;
+
+    private ColumnMappingPlan(int[] containerParents, String[] containerNames,
+                              int[] columnContainers, String[] columnFields, CellConverter[] columnConverters,
+                              int mappedColumns) {
+        this.containerParents = containerParents;
+        this.containerNames = containerNames;
+        this.columnContainers = columnContainers;
+        this.columnFields = columnFields;
+        this.columnConverters = columnConverters;
+        this.mappedColumns = mappedColumns;
+    }
+
+    /**
+     * @param headers  header cell text by column position
+     * @param mappings column mappings to resolve the headers against
+     * @param binder   binder for the target DTO, used to pick each column's converter
+     */
+    public static ColumnMappingPlan compile(List<String> headers, ColumnMappingSnapshot mappings,
+                                            RowBinder<?> binder) {
+        int width = headers.size();
+        int[] columnContainers = new int[width];
+        String[] columnFields = new String[width];
+        CellConverter[] columnConverters = new CellConverter[width];
+
+        // Container paths ("" is the root) in creation order, so a parent always precedes its children
+        Map<String, Integer> containers = new LinkedHashMap<>();
+        List<Integer> parents = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        containers.put("", 0);
+        parents.add(-1);
+        names.add(null);
+
+        int mappedColumns = 0;
+        for (int c = 0; c < width; c++) {
+            String header = headers.get(c);
+            if (header == null || header.isBlank()) continue;
+            String[] parts = mappings.pathFor(header);
+            if (parts == null) continue;
+
+            int container = 0;
+            StringBuilder containerPath = new StringBuilder();
+            for (int i = 0; i < parts.length - 1; i++) {
+                if (i > 0) containerPath.append('.');
+                containerPath.append(parts[i]);
+                Integer existing = containers.get(containerPath.toString());
+                if (existing == null) {
+                    existing = containers.size();
+                    containers.put(containerPath.toString(), existing);
+                    parents.add(container);
+                    names.add(parts[i]);
+                }
+                container = existing;
+            }
+
+            columnContainers[c] = container;
+            columnFields[c] = parts[parts.length - 1];
+            columnConverters[c] = CellConverter.forType(binder.propertyType(parts));
+            mappedColumns++;
+        }
+
+        return new ColumnMappingPlan(
+            parents.stream().mapToInt(Integer::intValue).toArray(),
+            names.toArray(new String[0]),
+            columnContainers, columnFields, columnConverters, mappedColumns);
+    }
+
+    /** Builds the JSON object for one data row. */
+    public ObjectNode apply(Object[] values) {
+        ObjectNode[] nodes = new ObjectNode[containerParents.length];
+        nodes[0] = NODES.objectNode();
+        for (int i = 1; i < nodes.length; i++) {
+            nodes[i] = nodes[containerParents[i]].putObject(containerNames[i]);
+        }
+
+        int width = Math.min(values.length, columnConverters.length);
+        for (int c = 0; c < columnConverters.length; c++) {
+            CellConverter converter = columnConverters[c];
+            if (converter != null) {
+                converter.set(nodes[columnContainers[c]], columnFields[c], c < width ? values[c] : null);
+            }
+        }
+        return nodes[0];
+    }
+
+    public int getMappedColumns() {
+        return mappedColumns;
+    }
+
+    static String[] splitPath(String path) {
+        // Remove "$." prefix
+        String trimmed = path.startsWith("$.") ? path.substring(2) : path;
+        List<String> parts = new ArrayList<>();
+        int start = 0;
+        for (int i = 0; i <= trimmed.length(); i++) {
+            if (i == trimmed.length() || trimmed.charAt(i) == '.') {
+                parts.add(trimmed.substring(start, i));
+                start = i + 1;
+            }
+        }
+        // String.split drops trailing empty segments; keep the same paths resolving the same way
+        int size = parts.size();
+        while (size > 1 && parts.get(size - 1).isEmpty()) size--;
+        return parts.subList(0, size).toArray(new String[0]);
+    }
+}
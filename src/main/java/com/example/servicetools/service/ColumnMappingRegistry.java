@@ -0,0 +1,57 @@
+package com.example.servicetools.service;
+
+import com.example.servicetools.dao.ColumnToObjectMappingRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds the current {@link ColumnMappingSnapshot} for the upload hot path, so uploads do not
+ * query the mapping table. The snapshot is rebuilt and swapped atomically after every committed
+ * change made through {@link ColumnToObjectMappingService}; readers keep whichever snapshot they
+ * started with.
+ */
+@Component
+public class ColumnMappingRegistry {
+
+    /** Published by {@link ColumnToObjectMappingService} whenever the mapping table is modified. */
+    public record MappingsChangedEvent() {
+    }
+
+    private final ColumnToObjectMappingRepository repository;
+    private final AtomicReference<ColumnMappingSnapshot> current = new AtomicReference<>();
+    private final AtomicLong versions = new AtomicLong();
+
+    public ColumnMappingRegistry(ColumnToObjectMappingRepository repository) {
+        this.repository = repository;
+    }
+
+    public ColumnMappingSnapshot current() {
+        ColumnMappingSnapshot snapshot = current.get();
+        if (snapshot == null) {
+            synchronized (this) {
+                snapshot = current.get();
+                if (snapshot == null) {
+                    snapshot = refresh();
+                }
+            }
+        }
+        return snapshot;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onMappingsChanged(MappingsChangedEvent event) {
+        refresh();
+    }
+
+    private synchronized ColumnMappingSnapshot refresh() {
+        ColumnMappingSnapshot snapshot = ColumnMappingSnapshot.of(versions.incrementAndGet(), repository.findAll());
+        current.set(snapshot);
+        return snapshot;
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.servicetools.service;
+
+import com.example.servicetools.model.ColumnToObjectMapping;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Immutable copy of the column mapping table, compiled for header lookup.
+ * <p>
+ * Main and alternate column names are indexed after normalisation (case, whitespace and
+ * punctuation are ignored), each resolving straight to its pre-split JSON path. Plans compiled
+ * for a header row are cached by the row's signature, so repeated uploads with the same layout
+ * skip header resolution. A new snapshot with a higher version, and an empty plan cache,
+ * replaces this one whenever the table changes.
+ */
+public final class ColumnMappingSnapshot {
+
+    private static final int MAX_CACHED_PLANS = 256;
+
+    private final long version;
+    private final Map<String, String[]> pathsByColumn;
+    private final Map<String, ColumnToObjectMapping> mappingsByColumn;
+    private final List<ColumnToObjectMapping> mappings;
+    private final Map<String, ColumnMappingPlan> plansBySignature = new ConcurrentHashMap<>();
+
+    private ColumnMappingSnapshot(long version, Map<String, String[]> pathsByColumn,
+                                  Map<String, ColumnToObjectMapping> mappingsByColumn, List<ColumnToObjectMapping> mappings) {
+        this.version = version;
+        this.pathsByColumn = pathsByColumn;
+        this.mappingsByColumn = mappingsByColumn;
+        this.mappings = mappings;
+    }
+
+    public static ColumnMappingSnapshot of(long version, List<ColumnToObjectMapping> mappings) {
+        List<ColumnToObjectMapping> ordered = mappings.stream()
+            .filter(m -> m.getJsonPath() != null)
+            .sorted(Comparator.comparing(ColumnToObjectMapping::getId, Comparator.nullsLast(Comparator.naturalOrder())))
+            .toList();
+
+        // Main names always win over alternates; within each kind the oldest mapping wins
+        Map<String, String[]> pathsByColumn = new HashMap<>();
+        Map<String, ColumnToObjectMapping> mappingsByColumn = new HashMap<>();
+        for (ColumnToObjectMapping m : ordered) {
+            index(pathsByColumn, mappingsByColumn, m.getMainColumnName(), m);
+        }
+        for (ColumnToObjectMapping m : ordered) {
+            if (m.getAlternateColumnNames() == null) continue;
+            for (String alternate : m.getAlternateColumnNames().split(",")) {
+                index(pathsByColumn, mappingsByColumn, alternate, m);
+            }
+        }
+        return new ColumnMappingSnapshot(version, Collections.unmodifiableMap(pathsByColumn),
+            Collections.unmodifiableMap(mappingsByColumn), List.copyOf(mappings));
+    }
+
+    private static void index(Map<String, String[]> pathsByColumn, Map<String, ColumnToObjectMapping> mappingsByColumn,
+                              String columnName, ColumnToObjectMapping mapping) {
+        String key = normalize(columnName);
+        if (!key.isEmpty() && mappingsByColumn.putIfAbsent(key, mapping) == null) {
+            pathsByColumn.put(key, ColumnMappingPlan.splitPath(mapping.getJsonPath()));
+        }
+    }
+
+    /** Lower-cases a column name and drops everything but letters and digits. */
+    static String normalize(String columnName) {
+        if (columnName == null) return "";
+        StringBuilder key = new StringBuilder(columnName.length());
+        for (int i = 0; i < columnName.length(); i++) {
+            char ch = columnName.charAt(i);
+            if (Character.isLetterOrDigit(ch)) {
+                key.append(Character.toLowerCase(ch));
+            }
+        }
+        return key.toString();
+    }
+
+    /** @return the pre-split JSON path for a header, or {@code null} when the column is not mapped */
+    public String[] pathFor(String header) {
+        return pathsByColumn.get(normalize(header));
+    }
+
+    /** @return the mapping a header resolves through, or {@code null} when the column is not mapped */
+    public ColumnToObjectMapping mappingFor(String header) {
+        return mappingsByColumn.get(normalize(header));
+    }
+
+    /**
+     * Returns the compiled plan for a header row bound to {@code binder}'s type, resolving it only
+     * the first time a layout is seen for that type.
+     */
+    public ColumnMappingPlan planFor(List<String> headers, RowBinder<?> binder) {
+        String signature = binder.getType().getName() + '\u0000' + String.join("\u0000", headers);
+        ColumnMappingPlan plan = plansBySignature.get(signature);
+        if (plan == null) {
+            plan = ColumnMappingPlan.compile(headers, this, binder);
+            if (plansBySignature.size() >= MAX_CACHED_PLANS) {
+                plansBySignature.clear();
+            }
+            plansBySignature.putIfAbsent(signature, plan);
+        }
+        return plan;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /** The mappings this snapshot was built from, in table order. */
+    public List<ColumnToObjectMapping> getMappings() {
+        return mappings;
+    }
+
+    public int getMappingCount() {
+        return mappings.size();
+    }
+}
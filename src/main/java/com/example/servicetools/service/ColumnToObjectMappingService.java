@@ -3,6 +3,7 @@ package com.example.servicetools.service;
 import com.example.servicetools.dao.ColumnToObjectMappingRepository;
 import com.example.servicetools.model.ColumnToObjectMapping;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -20,17 +21,24 @@ public class ColumnToObjectMappingService {
     @Autowired
     private ColumnToObjectMappingRepository repository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     // Create
     public ColumnToObjectMapping create(String jsonPath, String mainColumnName, String alternateColumnNames) {
         ColumnToObjectMapping entity = new ColumnToObjectMapping();
         entity.setJsonPath(jsonPath);
         entity.setMainColumnName(mainColumnName);
         entity.setAlternateColumnNames(alternateColumnNames);
-        return repository.save(entity);
+        ColumnToObjectMapping saved = repository.save(entity);
+        mappingsChanged();
+        return saved;
     }
 
     public ColumnToObjectMapping save(ColumnToObjectMapping entity) {
-        return repository.save(entity);
+        ColumnToObjectMapping saved = repository.save(entity);
+        mappingsChanged();
+        return saved;
     }
 
     // Read
@@ -79,7 +87,9 @@ public class ColumnToObjectMappingService {
             entity.setJsonPath(updated.getJsonPath());
             entity.setMainColumnName(updated.getMainColumnName());
             entity.setAlternateColumnNames(updated.getAlternateColumnNames());
-            return repository.save(entity);
+            ColumnToObjectMapping saved = repository.save(entity);
+            mappingsChanged();
+            return saved;
         }
         throw new RuntimeException("ColumnToObjectMapping not found with id: " + id);
     }
@@ -88,6 +98,7 @@ public class ColumnToObjectMappingService {
     public void delete(Long id) {
         if (repository.existsById(id)) {
             repository.deleteById(id);
+            mappingsChanged();
         } else {
             throw new RuntimeException("ColumnToObjectMapping not found with id: " + id);
         }
@@ -95,10 +106,14 @@ public class ColumnToObjectMappingService {
 
     public void deleteAll() {
         repository.deleteAll();
+        mappingsChanged();
     }
 
     public long count() { return repository.count(); }
     public boolean exists(Long id) { return repository.existsById(id); }
-}
-
 
+    // The upload snapshot is rebuilt once this transaction commits
+    private void mappingsChanged() {
+        eventPublisher.publishEvent(new ColumnMappingRegistry.MappingsChangedEvent());
+    }
+}
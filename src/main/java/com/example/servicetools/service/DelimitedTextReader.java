@@ -0,0 +1,133 @@
+package com.example.servicetools.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Reads a CSV or TSV file record by record, following RFC 4180: fields may be quoted, quotes inside
+ * a quoted field are doubled, and quoted fields may contain delimiters and line breaks. CRLF, LF and
+ * CR line endings are accepted and a leading UTF-8 byte order mark is skipped.
+ * <p>
+ * Input is decoded as UTF-8 (malformed bytes are replaced) through a single reusable char buffer,
+ * so only the current record is held in memory. Values are delivered as text; an empty unquoted
+ * field is {@code null}, like a blank cell, while {@code ""} is an empty string. Blank lines are
+ * skipped but still counted, so row numbers match the record position in the file.
+ */
+final class DelimitedTextReader {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final char QUOTE = '"';
+    private static final char BOM = '\uFEFF';
+
+    private final char delimiter;
+    private final ExcelRowListener listener;
+
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position;
+    private int limit;
+
+    private final StringBuilder field = new StringBuilder(64);
+    private Object[] rowValues = new Object[16];
+    private int width;
+
+    DelimitedTextReader(char delimiter, ExcelRowListener listener) {
+        this.delimiter = delimiter;
+        this.listener = listener;
+    }
+
+    void read(Path file) throws Exception {
+        CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+             Reader reader = Channels.newReader(channel, decoder, BUFFER_SIZE)) {
+            if (fill(reader) && buffer[0] == BOM) {
+                position = 1;
+            }
+            parse(reader);
+        }
+    }
+
+    private void parse(Reader reader) throws Exception {
+        int rowNum = 0;
+        boolean quoted = false;      // inside a quoted field
+        boolean wasQuoted = false;   // current field started with a quote
+        boolean recordStarted = false;
+
+        while (position < limit || fill(reader)) {
+            char ch = buffer[position++];
+            if (quoted) {
+                if (ch == QUOTE) {
+                    if (position < limit || fill(reader)) {
+                        if (buffer[position] == QUOTE) {
+                            field.append(QUOTE);
+                            position++;
+                            continue;
+                        }
+                    }
+                    quoted = false;
+                } else {
+                    field.append(ch);
+                }
+            } else if (ch == delimiter) {
+                endField(wasQuoted);
+                wasQuoted = false;
+                recordStarted = true;
+            } else if (ch == '\n' || ch == '\r') {
+                if (ch == '\r' && (position < limit || fill(reader)) && buffer[position] == '\n') {
+                    position++;
+                }
+                if (recordStarted || wasQuoted || field.length() > 0) {
+                    endField(wasQuoted);
+                    endRecord(rowNum);
+                }
+                rowNum++;
+                wasQuoted = false;
+                recordStarted = false;
+            } else if (ch == QUOTE && field.length() == 0 && !wasQuoted) {
+                quoted = true;
+                wasQuoted = true;
+            } else {
+                // Stray quotes in unquoted fields, and text after a closing quote, are kept as-is
+                field.append(ch);
+            }
+        }
+
+        if (recordStarted || wasQuoted || field.length() > 0) {
+            endField(wasQuoted);
+            endRecord(rowNum);
+        }
+    }
+
+    private void endField(boolean wasQuoted) {
+        if (width == rowValues.length) {
+            rowValues = Arrays.copyOf(rowValues, width * 2);
+        }
+        rowValues[width++] = field.length() == 0 && !wasQuoted ? null : field.toString();
+        field.setLength(0);
+    }
+
+    private void endRecord(int rowNum) throws Exception {
+        listener.onRow(rowNum, Arrays.copyOf(rowValues, width));
+        Arrays.fill(rowValues, 0, width, null);
+        width = 0;
+    }
+
+    private boolean fill(Reader reader) throws IOException {
+        int read;
+        do {
+            read = reader.read(buffer, 0, buffer.length);
+        } while (read == 0);
+        position = 0;
+        limit = Math.max(read, 0);
+        return read > 0;
+    }
+}
@@ -0,0 +1,387 @@
+package com.example.servicetools.service;
+
+import com.example.servicetools.dto.BatchUploadRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Processes many uploads in one request: several multipart files, zips of workbooks, or both.
+ * <p>
+ * Every sheet of every file is parsed as its own task on the batch executor, so sheets of the same
+ * and of different workbooks run in parallel while the executor bounds how many run at once. The
+ * request thread admits the batch against the memory budget (as a whole when rows are collected,
+ * file by file when they are streamed) and then waits for all sheets to finish. Results are tagged
+ * with file, sheet and row.
+ */
+@Service
+public class ExcelBatchUploadService {
+
+    private static final Logger log = LoggerFactory.getLogger(ExcelBatchUploadService.class);
+
+    private static final long MB = 1024 * 1024;
+    private static final List<String> SUPPORTED_EXTENSIONS = List.of(".xlsx", ".xlsm", ".xls", ".csv", ".tsv", ".tab");
+
+    /** A spooled file of a batch; {@code name} is the upload name, or {@code zip/entry} for zip entries. */
+    public record BatchFile(Path path, String name) {
+    }
+
+    private final ExcelUploadService excelUploadService;
+    private final ExcelSheetReader excelSheetReader;
+    private final ExcelUploadAdmission admission;
+    private final ThreadPoolTaskExecutor executor;
+    private final Path spoolDir;
+    private final int maxFiles;
+    private final long maxExtractedBytes;
+
+    public ExcelBatchUploadService(ExcelUploadService excelUploadService,
+                                   ExcelSheetReader excelSheetReader,
+                                   ExcelUploadAdmission admission,
+                                   @Qualifier("excelBatchExecutor") ThreadPoolTaskExecutor executor,
+                                   @Value("${excel.upload.spool-dir:${java.io.tmpdir}}") String spoolDir,
+                                   @Value("${excel.upload.batch.max-files:500}") int maxFiles,
+                                   @Value("${excel.upload.batch.max-extracted-mb:4096}") long maxExtractedMb) {
+        this.excelUploadService = excelUploadService;
+        this.excelSheetReader = excelSheetReader;
+        this.admission = admission;
+        this.executor = executor;
+        this.spoolDir = Path.of(spoolDir);
+        this.maxFiles = maxFiles;
+        this.maxExtractedBytes = maxExtractedMb * MB;
+    }
+
+    /**
+     * Spools every part, expanding {@code .zip} parts into their supported entries. Folders, hidden
+     * files, Excel lock files and unsupported entries inside zips are skipped. The caller owns the
+     * returned files and must {@link #delete(List) delete} them.
+     *
+     * @throws UploadRejectedException if the batch has too many files or zips extract beyond the limit
+     */
+    public List<BatchFile> spool(List<MultipartFile> parts) throws IOException {
+        List<BatchFile> files = new ArrayList<>();
+        long[] extracted = new long[1];
+        try {
+            for (MultipartFile part : parts) {
+                if (part == null || part.isEmpty()) continue;
+                String name = part.getOriginalFilename() == null ? "" : part.getOriginalFilename();
+                Path spooled = excelUploadService.spool(part);
+                if (name.toLowerCase(Locale.ROOT).endsWith(".zip")) {
+                    try {
+                        expand(spooled, name, files, extracted);
+                    } finally {
+                        Files.deleteIfExists(spooled);
+                    }
+                } else {
+                    files.add(new BatchFile(spooled, name));
+                    checkFileCount(files);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            delete(files);
+            throw e;
+        }
+        return files;
+    }
+
+    public void delete(List<BatchFile> files) {
+        for (BatchFile file : files) {
+            try {
+                Files.deleteIfExists(file.path());
+            } catch (IOException e) {
+                log.warn("Could not delete spooled batch file {}", file.path(), e);
+            }
+        }
+    }
+
+    /**
+     * Processes the batch and returns all results ordered by file, sheet and row. Row failures and
+     * files or sheets that cannot be read are returned as records with an {@code error}.
+     * <p>
+     * Every row is held until the batch returns, so the whole batch is admitted at once, against the
+     * sum of its files' estimates, and keeps that budget until the results are merged.
+     *
+     * @throws UploadRejectedException if the batch does not fit the budget, or the budget or the batch
+     *                                  workers stay busy
+     */
+    public List<BatchUploadRecord> process(List<BatchFile> files, ColumnMappingSnapshot mappings) throws Exception {
+        // One list per file/sheet (file-level errors sort before the file's sheets), merged in order at the end
+        Map<Long, List<BatchUploadRecord>> bySheet = new ConcurrentSkipListMap<>();
+        SinkFactory sinks = (fileIndex, sheetIndex) -> {
+            List<BatchUploadRecord> records = new ArrayList<>();
+            bySheet.put(((long) fileIndex << 32) | (sheetIndex + 1), records);
+            return records::add;
+        };
+
+        // Files whose estimate fails are reported like unreadable files and left out of the total.
+        // Each estimate includes a working set, but only as many sheets as there are workers run at once.
+        Map<Integer, Exception> unadmitted = new HashMap<>();
+        long estimate = 0;
+        for (int i = 0; i < files.size(); i++) {
+            try {
+                estimate += admission.estimate(files.get(i).path(), files.get(i).name(), true)
+                    - admission.getWorkingSetBytes();
+            } catch (UploadRejectedException | IOException e) {
+                unadmitted.put(i, e);
+            }
+        }
+        estimate += admission.getWorkingSetBytes() * Math.min(files.size(), executor.getMaxPoolSize());
+        try (ExcelUploadAdmission.Permit permit = admission.admit(estimate, "batch of " + files.size() + " files")) {
+            new BatchRun(files, mappings, true, sinks, (fileIndex, file) -> {
+                Exception rejected = unadmitted.get(fileIndex);
+                if (rejected instanceof IOException e) throw e;
+                if (rejected != null) throw (UploadRejectedException) rejected;
+                return null;
+            }).run();
+
+            List<BatchUploadRecord> results = new ArrayList<>();
+            bySheet.values().forEach(results::addAll);
+            return results;
+        }
+    }
+
+    /**
+     * Processes the batch, handing results to {@code sink} as they are produced. Results of
+     * different sheets interleave; each sheet's rows arrive in row order. {@code sink} is called
+     * from the batch workers but never concurrently. If it throws, the batch stops and the
+     * exception is rethrown here.
+     * <p>
+     * Nothing is kept once it has been handed on, so each file is admitted on its own when its turn
+     * comes and releases its budget when its sheets are done. Files that the batch workers have no
+     * room for are reported as records with an {@code error}.
+     */
+    public void process(List<BatchFile> files, ColumnMappingSnapshot mappings,
+                        Consumer<BatchUploadRecord> sink) throws Exception {
+        Object lock = new Object();
+        Consumer<BatchUploadRecord> serialized = record -> {
+            synchronized (lock) {
+                sink.accept(record);
+            }
+        };
+        new BatchRun(files, mappings, false, (fileIndex, sheetIndex) -> serialized,
+            // Admission waits on this thread only, never on a worker, so budget held by running sheets is always released
+            (fileIndex, file) -> admission.admitWaiting(file.path(), file.name(), false)).run();
+    }
+
+    @FunctionalInterface
+    private interface SinkFactory {
+        Consumer<BatchUploadRecord> sinkFor(int fileIndex, int sheetIndex);
+    }
+
+    @FunctionalInterface
+    private interface FileAdmitter {
+        /** @return the file's own budget, or {@code null} if it is covered by the batch's */
+        ExcelUploadAdmission.Permit admit(int fileIndex, BatchFile file) throws IOException, InterruptedException;
+    }
+
+    /** Raised inside sheet tasks when the caller's sink fails, to tell it apart from sheet errors. */
+    private static final class SinkFailedException extends RuntimeException {
+        SinkFailedException(RuntimeException cause) {
+            super(cause);
+        }
+    }
+
+    private final class BatchRun {
+
+        private final List<BatchFile> files;
+        private final ColumnMappingSnapshot mappings;
+        private final boolean collectsRows;
+        private final SinkFactory sinks;
+        private final FileAdmitter admitter;
+        private final AtomicReference<RuntimeException> sinkFailure = new AtomicReference<>();
+        // Set when the batch executor's queue is full and the caller can still be told to retry
+        private final AtomicReference<RejectedExecutionException> workersBusy = new AtomicReference<>();
+
+        BatchRun(List<BatchFile> files, ColumnMappingSnapshot mappings, boolean collectsRows, SinkFactory sinks,
+                 FileAdmitter admitter) {
+            this.files = files;
+            this.mappings = mappings;
+            this.collectsRows = collectsRows;
+            this.sinks = sinks;
+            this.admitter = admitter;
+        }
+
+        void run() throws Exception {
+            List<CompletableFuture<Void>> running = new ArrayList<>();
+            for (int i = 0; i < files.size() && sinkFailure.get() == null && workersBusy.get() == null; i++) {
+                BatchFile file = files.get(i);
+                Consumer<BatchUploadRecord> fileSink = guarded(sinks.sinkFor(i, -1));
+                ExcelUploadAdmission.Permit permit;
+                try {
+                    permit = admitter.admit(i, file);
+                } catch (UploadRejectedException | IOException e) {
+                    fileSink.accept(new BatchUploadRecord(file.name(), null, null, null, e.getMessage()));
+                    continue;
+                }
+                running.add(processFile(i, file, fileSink, permit));
+            }
+
+            try {
+                CompletableFuture.allOf(running.toArray(new CompletableFuture[0])).join();
+            } catch (CompletionException e) {
+                if (sinkFailure.get() == null && workersBusy.get() == null) throw e;
+            }
+            if (sinkFailure.get() != null) {
+                throw sinkFailure.get();
+            }
+            if (workersBusy.get() != null) {
+                throw new UploadRejectedException(UploadRejectedException.Reason.BUSY,
+                    "Batch workers busy, retry later", admission.getRetryAfterSeconds());
+            }
+        }
+
+        private CompletableFuture<Void> processFile(int fileIndex, BatchFile file, Consumer<BatchUploadRecord> fileSink,
+                                                    ExcelUploadAdmission.Permit permit) {
+            CompletableFuture<ExcelSheetReader.SheetSource> opened;
+            try {
+                opened = CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return excelSheetReader.open(file.path(), file.name());
+                    } catch (Exception e) {
+                        throw new CompletionException(e);
+                    }
+                }, executor);
+            } catch (RejectedExecutionException e) {
+                opened = CompletableFuture.failedFuture(e);
+            }
+            return opened
+                .thenCompose(source -> {
+                    List<String> sheetNames = source.getSheetNames();
+                    CompletableFuture<?>[] sheets = new CompletableFuture[sheetNames.size()];
+                    for (int s = 0; s < sheets.length; s++) {
+                        int sheetIndex = s;
+                        try {
+                            sheets[s] = CompletableFuture.runAsync(
+                                () -> processSheet(source, file, sheetIndex, sheetNames.get(sheetIndex),
+                                    guarded(sinks.sinkFor(fileIndex, sheetIndex))), executor);
+                        } catch (RejectedExecutionException e) {
+                            sheets[s] = CompletableFuture.failedFuture(e);
+                        }
+                    }
+                    return CompletableFuture.allOf(sheets).whenComplete((ignored, error) -> {
+                        try {
+                            source.close();
+                        } catch (IOException e) {
+                            log.warn("Could not close batch file {}", file.name(), e);
+                        }
+                    });
+                })
+                .handle((ignored, error) -> {
+                    if (permit != null) {
+                        permit.close();
+                    }
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                    if (cause instanceof SinkFailedException) {
+                        throw (SinkFailedException) cause;
+                    }
+                    if (cause instanceof RejectedExecutionException rejected && collectsRows) {
+                        // Nothing has been returned yet, so the whole batch is refused with 429
+                        workersBusy.compareAndSet(null, rejected);
+                        throw rejected;
+                    }
+                    if (cause instanceof RejectedExecutionException) {
+                        log.info("Batch file {} not read: batch workers busy", file.name());
+                        fileSink.accept(new BatchUploadRecord(file.name(), null, null, null, "Batch workers busy, retry later"));
+                    } else if (cause != null) {
+                        log.warn("Batch file {} could not be read", file.name(), cause);
+                        fileSink.accept(new BatchUploadRecord(file.name(), null, null, null, String.valueOf(cause.getMessage())));
+                    }
+                    return null;
+                });
+        }
+
+        private void processSheet(ExcelSheetReader.SheetSource source, BatchFile file, int sheetIndex, String sheetName,
+                                  Consumer<BatchUploadRecord> sink) {
+            try {
+                excelUploadService.parseSheet(source, sheetIndex, mappings,
+                    (rowNum, client) -> sink.accept(new BatchUploadRecord(file.name(), sheetName, rowNum + 1, client, null)),
+                    (rowNum, error) -> sink.accept(new BatchUploadRecord(file.name(), sheetName, rowNum + 1, null, error.getMessage())));
+            } catch (SinkFailedException e) {
+                throw e;
+            } catch (Exception e) {
+                log.warn("Sheet {} of batch file {} failed", sheetName, file.name(), e);
+                sink.accept(new BatchUploadRecord(file.name(), sheetName, null, null, String.valueOf(e.getMessage())));
+            }
+        }
+
+        /** Stops every task once the caller's sink has failed, and marks sink failures as such. */
+        private Consumer<BatchUploadRecord> guarded(Consumer<BatchUploadRecord> sink) {
+            return record -> {
+                RuntimeException failed = sinkFailure.get();
+                if (failed != null) throw new SinkFailedException(failed);
+                try {
+                    sink.accept(record);
+                } catch (RuntimeException e) {
+                    sinkFailure.compareAndSet(null, e);
+                    throw new SinkFailedException(e);
+                }
+            };
+        }
+    }
+
+    private void expand(Path zipPath, String zipName, List<BatchFile> files, long[] extracted) throws IOException {
+        try (ZipFile zip = new ZipFile(zipPath.toFile())) {
+            Enumeration<? extends ZipEntry> entries = zip.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry entry = entries.nextElement();
+                if (entry.isDirectory() || !isSupportedEntry(entry.getName())) continue;
+
+                Files.createDirectories(spoolDir);
+                Path spooled = Files.createTempFile(spoolDir, "excel-batch-", ".tmp");
+                files.add(new BatchFile(spooled, zipName + "/" + entry.getName()));
+                checkFileCount(files);
+                try (InputStream in = zip.getInputStream(entry); OutputStream out = Files.newOutputStream(spooled)) {
+                    // Entry sizes in the directory can lie, so the limit is enforced on the bytes actually inflated
+                    byte[] buffer = new byte[64 * 1024];
+                    int read;
+                    while ((read = in.read(buffer)) != -1) {
+                        extracted[0] += read;
+                        if (extracted[0] > maxExtractedBytes) {
+                            throw UploadRejectedException.tooLarge("Batch extracts to more than "
+                                + maxExtractedBytes / MB + " MB");
+                        }
+                        out.write(buffer, 0, read);
+                    }
+                }
+            }
+        }
+    }
+
+    private void checkFileCount(List<BatchFile> files) {
+        if (files.size() > maxFiles) {
+            throw UploadRejectedException.tooLarge("Batch has more than " + maxFiles + " files");
+        }
+    }
+
+    private static boolean isSupportedEntry(String entryName) {
+        String baseName = entryName.substring(entryName.lastIndexOf('/') + 1);
+        if (entryName.startsWith("__MACOSX/") || baseName.startsWith(".") || baseName.startsWith("~$")) {
+            return false;
+        }
+        String lower = baseName.toLowerCase(Locale.ROOT);
+        return SUPPORTED_EXTENSIONS.stream().anyMatch(lower::endsWith);
+    }
+}
@@ -0,0 +1,227 @@
+package com.example.servicetools.service;
+
+import com.example.servicetools.model.JobInstance;
+import com.example.servicetools.model.JobLogEntry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs Excel uploads in the background. Each upload becomes a {@link JobInstance}
+ * (QUEUED, RUNNING, COMPLETED or FAILED) whose progress and row failures are written as
+ * {@link JobLogEntry} records, so the job instance and job log entry APIs report on it.
+ * Jobs submitted with {@code persist} also store the mapped rows through {@link ClientBatchWriter}.
+ */
+@Service
+public class ExcelIngestionJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(ExcelIngestionJobService.class);
+
+    public static final String JOB_NAME = "ExcelIngestionJob";
+
+    public static final String STATUS_QUEUED = "QUEUED";
+    public static final String STATUS_RUNNING = "RUNNING";
+    public static final String STATUS_COMPLETED = "COMPLETED";
+    public static final String STATUS_FAILED = "FAILED";
+
+    private static final int FAILURE_BATCH_SIZE = 500;
+
+    private final ExcelUploadService excelUploadService;
+    private final ExcelUploadAdmission admission;
+    private final ClientBatchWriter clientBatchWriter;
+    private final JobInstanceService jobInstanceService;
+    private final JobLogEntryService jobLogEntryService;
+    private final TaskExecutor executor;
+    private final long progressEveryRows;
+
+    public ExcelIngestionJobService(ExcelUploadService excelUploadService,
+                                    ExcelUploadAdmission admission,
+                                    ClientBatchWriter clientBatchWriter,
+                                    JobInstanceService jobInstanceService,
+                                    JobLogEntryService jobLogEntryService,
+                                    @Qualifier("excelIngestionExecutor") TaskExecutor executor,
+                                    @Value("${excel.upload.jobs.progress-every-rows:10000}") long progressEveryRows) {
+        this.excelUploadService = excelUploadService;
+        this.admission = admission;
+        this.clientBatchWriter = clientBatchWriter;
+        this.jobInstanceService = jobInstanceService;
+        this.jobLogEntryService = jobLogEntryService;
+        this.executor = executor;
+        this.progressEveryRows = Math.max(1, progressEveryRows);
+    }
+
+    /**
+     * Spools the upload and queues it for processing.
+     *
+     * @return the QUEUED job; poll it through the job instance API
+     * @throws TaskRejectedException when the job queue is full (the job is recorded as FAILED)
+     */
+    public JobInstance submit(MultipartFile file, boolean persist) throws IOException {
+        Path spooled = excelUploadService.spool(file);
+        try {
+            return submit(spooled, file.getOriginalFilename(), persist);
+        } catch (IOException | RuntimeException e) {
+            // Not queued (full queue, or the job could not be recorded), so the file is still ours
+            try {
+                Files.deleteIfExists(spooled);
+            } catch (IOException deleteFailure) {
+                e.addSuppressed(deleteFailure);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Queues an already spooled file. Once queued, the job owns the file and deletes it when done; if
+     * this throws, the file is still the caller's.
+     *
+     * @param persist whether the mapped rows are stored as clients
+     * @throws TaskRejectedException when the job queue is full (the job is recorded as FAILED, as it is
+     *                               for any other failure once the job exists)
+     */
+    public JobInstance submit(Path spooled, String filename, boolean persist) throws IOException {
+        long size = Files.size(spooled);
+        LocalDateTime now = LocalDateTime.now();
+        JobInstance job = new JobInstance();
+        job.setName(JOB_NAME);
+        job.setStatus(STATUS_QUEUED);
+        job.setCreated(now);
+        job.setUpdated(now);
+        job = jobInstanceService.createJobInstance(job);
+
+        // Whatever fails from here on, the job must not stay QUEUED with nothing to run it
+        Long jobId = job.getId();
+        try {
+            logEntry(job, null, "START", "SUCCESS", "Queued " + filename + " (" + size + " bytes)", null);
+            executor.execute(() -> run(jobId, spooled, filename, persist));
+        } catch (RuntimeException e) {
+            try {
+                updateStatus(job, STATUS_FAILED);
+                logEntry(job, null, "END", "ERROR", e instanceof TaskRejectedException
+                    ? "Rejected: ingestion queue is full" : "Could not be queued: " + e.getMessage(), null);
+            } catch (RuntimeException statusFailure) {
+                e.addSuppressed(statusFailure);
+            }
+            throw e;
+        }
+        return job;
+    }
+
+    private void run(Long jobId, Path spooled, String filename, boolean persist) {
+        JobInstance job = null;
+        try {
+            job = jobInstanceService.getJobInstanceById(jobId)
+                .orElseThrow(() -> new IllegalStateException("JobInstance not found with id: " + jobId));
+            updateStatus(job, STATUS_RUNNING);
+            JobInstance runningJob = job;
+            ColumnMappingSnapshot mappings = excelUploadService.currentMappings();
+            logEntry(job, null, "PROCESS", "SUCCESS", "Using column mapping version " + mappings.getVersion(), null);
+
+            long[] mapped = new long[1];
+            long[] failed = new long[1];
+            long[] storedRows = {-1};
+            long[] skippedRows = {0};
+            List<JobLogEntry> failures = new ArrayList<>();
+
+            // Jobs are already queued, so they wait for memory budget instead of being turned away
+            try (ExcelUploadAdmission.Permit permit = admission.admitWaiting(spooled, filename, false);
+                 ClientBatchWriter.Batch stored = persist ? clientBatchWriter.open(jobId) : null) {
+                excelUploadService.parseExcel(spooled, filename, mappings,
+                    client -> {
+                        if (stored != null) {
+                            stored.accept(client);
+                        }
+                        if (++mapped[0] % progressEveryRows == 0) {
+                            logEntry(runningJob, null, "PROCESS", "SUCCESS", "Mapped " + mapped[0] + " rows", null);
+                        }
+                    },
+                    (rowNum, error) -> {
+                        failed[0]++;
+                        // recordId is the 1-based row number as shown in Excel
+                        failures.add(entry(runningJob, (long) rowNum + 1, "ROW", "ERROR",
+                            "Row " + (rowNum + 1) + " could not be mapped: " + error.getMessage(), stackTrace(error)));
+                        if (failures.size() >= FAILURE_BATCH_SIZE) {
+                            jobLogEntryService.createMultipleJobLogEntries(failures);
+                            failures.clear();
+                        }
+                    });
+                if (stored != null) {
+                    stored.flush();
+                    storedRows[0] = stored.getWritten();
+                    skippedRows[0] = stored.getSkipped();
+                }
+            }
+            if (!failures.isEmpty()) {
+                jobLogEntryService.createMultipleJobLogEntries(failures);
+            }
+
+            updateStatus(job, STATUS_COMPLETED);
+            logEntry(job, null, "END", failed[0] == 0 ? "SUCCESS" : "WARNING",
+                "Mapped " + mapped[0] + " rows, " + failed[0] + " rows failed"
+                    + (storedRows[0] >= 0 ? ", " + storedRows[0] + " rows stored" : "")
+                    + (skippedRows[0] > 0 ? ", " + skippedRows[0] + " rows without a CE not stored" : ""), null);
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            log.error("Excel ingestion job {} failed", jobId, e);
+            if (job != null) {
+                updateStatus(job, STATUS_FAILED);
+                logEntry(job, null, "END", "ERROR", "Failed: " + e.getMessage(), stackTrace(e));
+            }
+        } finally {
+            try {
+                Files.deleteIfExists(spooled);
+            } catch (IOException e) {
+                log.warn("Could not delete spooled upload {}", spooled, e);
+            }
+        }
+    }
+
+    private void updateStatus(JobInstance job, String status) {
+        job.setStatus(status);
+        job.setUpdated(LocalDateTime.now());
+        jobInstanceService.saveJobInstance(job);
+    }
+
+    private void logEntry(JobInstance job, Long recordId, String type, String status, String description, String stacktrace) {
+        jobLogEntryService.createJobLogEntry(entry(job, recordId, type, status, description, stacktrace));
+    }
+
+    private JobLogEntry entry(JobInstance job, Long recordId, String type, String status, String description, String stacktrace) {
+        JobLogEntry entry = new JobLogEntry();
+        entry.setJobInstanceId(job.getId());
+        entry.setJobName(job.getName());
+        entry.setRecordId(recordId);
+        entry.setType(type);
+        entry.setStatus(status);
+        entry.setEventTs(LocalDateTime.now());
+        entry.setDescription(truncate(description, JobLogEntry.MAX_DESCRIPTION_LENGTH));
+        entry.setStacktrace(truncate(stacktrace, JobLogEntry.MAX_TEXT_LENGTH));
+        return entry;
+    }
+
+    private static String truncate(String value, int maxLength) {
+        return value == null || value.length() <= maxLength ? value : value.substring(0, maxLength);
+    }
+
+    private static String stackTrace(Throwable error) {
+        StringWriter out = new StringWriter();
+        error.printStackTrace(new PrintWriter(out));
+        return out.toString();
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.servicetools.service;
+
+/**
+ * Receives the rows of a sheet one at a time, in sheet order, as they are read.
+ * The first row delivered is the header row.
+ */
+@FunctionalInterface
+public interface ExcelRowListener {
+
+    /**
+     * @param rowNum zero-based row number as stored in the sheet
+     * @param values cell values indexed by column; missing cells are {@code null}
+     */
+    void onRow(int rowNum, Object[] values) throws Exception;
+}
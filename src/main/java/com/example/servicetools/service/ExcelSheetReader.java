@@ -0,0 +1,329 @@
+package com.example.servicetools.service;
+
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.openxml4j.opc.PackagePartName;
+import org.apache.poi.openxml4j.opc.PackagingURIHelper;
+import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.StylesTable;
+import org.springframework.stereotype.Component;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Reads uploaded workbooks sheet by sheet, row by row.
+ * <p>
+ * {@code .xlsx} files are parsed with POI's event model straight from the OOXML package, so only
+ * the shared-strings table and the current row are held in memory regardless of the row count.
+ * {@code .xls} files are limited to 65,536 rows by the format and still go through {@link HSSFWorkbook}.
+ * {@code .csv} and {@code .tsv} files are parsed directly by {@link DelimitedTextReader}; their
+ * records are delivered the same way, so they share header resolution and mapping with workbooks.
+ * <p>
+ * Formula cells of either workbook format yield the result the file has cached for them, not the
+ * formula text.
+ */
+@Component
+public class ExcelSheetReader {
+
+    /** @return whether {@code filename} is read as delimited text rather than as a workbook */
+    public static boolean isDelimitedText(String filename) {
+        String name = filename == null ? "" : filename.toLowerCase(Locale.ROOT);
+        return name.endsWith(".csv") || name.endsWith(".tsv") || name.endsWith(".tab");
+    }
+
+    /** Reads the first sheet of {@code file}. */
+    public void read(Path file, String filename, ExcelRowListener listener) throws Exception {
+        try (SheetSource source = open(file, filename)) {
+            if (!source.getSheetNames().isEmpty()) {
+                source.readSheet(0, listener);
+            }
+        }
+    }
+
+    /**
+     * Opens {@code file} for reading any of its sheets. What every sheet shares (the shared-strings
+     * table, styles, the HSSF workbook) is loaded once here.
+     */
+    public SheetSource open(Path file, String filename) throws Exception {
+        String name = filename == null ? "" : filename.toLowerCase(Locale.ROOT);
+        if (name.endsWith(".xls")) {
+            return new XlsSource(file);
+        } else if (name.endsWith(".csv")) {
+            return new DelimitedSource(file, filename, ',');
+        } else if (name.endsWith(".tsv") || name.endsWith(".tab")) {
+            return new DelimitedSource(file, filename, '\t');
+        }
+        // .xlsx and anything unrecognised are treated as OOXML, as before
+        return new XlsxSource(file);
+    }
+
+    /** The sheets of one opened upload. */
+    public interface SheetSource extends AutoCloseable {
+
+        /** Sheet names in workbook order; delimited text has a single sheet named after the file. */
+        List<String> getSheetNames();
+
+        /**
+         * Streams the rows of one sheet to {@code listener}. Different sheets of an {@code .xlsx}
+         * source may be read concurrently; other sources read one sheet at a time.
+         */
+        void readSheet(int index, ExcelRowListener listener) throws Exception;
+
+        /**
+         * Number of rows (including the header) the sheet declares, without reading its rows,
+         * or {@code -1} when the format does not record it.
+         */
+        long getRowCountHint(int index) throws Exception;
+
+        @Override
+        void close() throws IOException;
+    }
+
+    private static final class XlsxSource implements SheetSource {
+
+        private final Path file;
+        private final OPCPackage pkg;
+        private final ReadOnlySharedStringsTable sharedStrings;
+        private final StylesTable styles;
+        private final boolean date1904;
+        private final List<String> sheetNames = new ArrayList<>();
+        private final List<PackagePartName> sheetParts = new ArrayList<>();
+        // The package opened here serves one sheet read at a time; concurrent reads open their own
+        private final AtomicBoolean packageInUse = new AtomicBoolean();
+
+        XlsxSource(Path file) throws Exception {
+            this.file = file;
+            this.pkg = OPCPackage.open(file.toFile(), PackageAccess.READ);
+            try {
+                XSSFReader reader = new XSSFReader(pkg);
+                this.sharedStrings = new ReadOnlySharedStringsTable(pkg, false);
+                this.styles = reader.getStylesTable();
+                this.date1904 = isDate1904(reader);
+
+                XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+                while (sheets.hasNext()) {
+                    sheets.next().close();
+                    sheetNames.add(sheets.getSheetName());
+                    sheetParts.add(sheets.getSheetPart().getPartName());
+                }
+            } catch (Exception e) {
+                pkg.revert();
+                throw e;
+            }
+        }
+
+        @Override
+        public List<String> getSheetNames() {
+            return sheetNames;
+        }
+
+        @Override
+        public void readSheet(int index, ExcelRowListener listener) throws Exception {
+            parse(index, new XlsxSheetHandler(sharedStrings, styles, date1904, listener));
+        }
+
+        @Override
+        public long getRowCountHint(int index) throws Exception {
+            // <dimension ref="A1:E300001"/> precedes <sheetData>; stop parsing at whichever comes first
+            long[] rows = {-1};
+            SAXException stop = new SAXException("dimension read");
+            try {
+                parse(index, new DefaultHandler() {
+                    @Override
+                    public void startElement(String uri, String localName, String qName, Attributes attributes)
+                            throws SAXException {
+                        if ("dimension".equals(localName)) {
+                            String ref = attributes.getValue("ref");
+                            int colon = ref == null ? -1 : ref.indexOf(':');
+                            if (colon > 0) {
+                                rows[0] = new CellReference(ref.substring(colon + 1)).getRow() + 1L;
+                            }
+                            throw stop;
+                        } else if ("sheetData".equals(localName)) {
+                            throw stop;
+                        }
+                    }
+                });
+            } catch (SAXException e) {
+                if (e != stop) throw e;
+            }
+            return rows[0];
+        }
+
+        private void parse(int index, DefaultHandler handler) throws Exception {
+            if (packageInUse.compareAndSet(false, true)) {
+                try {
+                    parse(pkg.getPart(sheetParts.get(index)), handler);
+                } finally {
+                    packageInUse.set(false);
+                }
+                return;
+            }
+            OPCPackage own = OPCPackage.open(file.toFile(), PackageAccess.READ);
+            try {
+                parse(own.getPart(sheetParts.get(index)), handler);
+            } finally {
+                own.revert();
+            }
+        }
+
+        private static void parse(PackagePart part, DefaultHandler handler) throws Exception {
+            try (InputStream sheet = part.getInputStream()) {
+                XMLReader parser = XMLHelper.newXMLReader();
+                parser.setContentHandler(handler);
+                try {
+                    parser.parse(new InputSource(sheet));
+                } catch (SAXException e) {
+                    // Unwrap failures raised by the listener so callers see the original exception
+                    if (e.getException() != null) throw e.getException();
+                    throw e;
+                }
+            }
+        }
+
+        @Override
+        public void close() {
+            // Opened read-only: revert releases the file without attempting to save
+            pkg.revert();
+        }
+
+        private static boolean isDate1904(XSSFReader reader) throws Exception {
+            boolean[] date1904 = new boolean[1];
+            try (InputStream workbook = reader.getWorkbookData()) {
+                XMLReader parser = XMLHelper.newXMLReader();
+                parser.setContentHandler(new DefaultHandler() {
+                    @Override
+                    public void startElement(String uri, String localName, String qName, Attributes attributes) {
+                        if ("workbookPr".equals(localName)) {
+                            String value = attributes.getValue("date1904");
+                            date1904[0] = "1".equals(value) || "true".equalsIgnoreCase(value);
+                        }
+                    }
+                });
+                parser.parse(new InputSource(workbook));
+            }
+            return date1904[0];
+        }
+    }
+
+    private static final class XlsSource implements SheetSource {
+
+        private final Workbook workbook;
+        private final boolean date1904;
+        private final List<String> sheetNames = new ArrayList<>();
+
+        XlsSource(Path file) throws IOException {
+            try (InputStream in = Files.newInputStream(file)) {
+                HSSFWorkbook hssf = new HSSFWorkbook(in);
+                this.workbook = hssf;
+                this.date1904 = hssf.getInternalWorkbook().isUsing1904DateWindowing();
+            }
+            for (int i = 0; i < workbook.getNumberOfSheets(); i++) {
+                sheetNames.add(workbook.getSheetName(i));
+            }
+        }
+
+        @Override
+        public List<String> getSheetNames() {
+            return sheetNames;
+        }
+
+        @Override
+        public synchronized void readSheet(int index, ExcelRowListener listener) throws Exception {
+            Sheet sheet = workbook.getSheetAt(index);
+            DataFormatter formatter = new DataFormatter();
+            for (Row row : sheet) {
+                int lastCell = Math.max(row.getLastCellNum(), 0);
+                Object[] values = new Object[lastCell];
+                for (int c = 0; c < lastCell; c++) {
+                    values[c] = getCellValue(row.getCell(c), formatter, date1904);
+                }
+                listener.onRow(row.getRowNum(), values);
+            }
+        }
+
+        @Override
+        public synchronized long getRowCountHint(int index) {
+            return workbook.getSheetAt(index).getLastRowNum() + 1L;
+        }
+
+        @Override
+        public void close() throws IOException {
+            workbook.close();
+        }
+
+        // A formula cell gives its cached result, as in .xlsx sheets, where the reader only sees that
+        private static Object getCellValue(Cell cell, DataFormatter formatter, boolean date1904) {
+            if (cell == null) return null;
+            CellType type = cell.getCellType() == CellType.FORMULA ? cell.getCachedFormulaResultType() : cell.getCellType();
+            return switch (type) {
+                case STRING -> cell.getStringCellValue();
+                case BOOLEAN -> cell.getBooleanCellValue();
+                case NUMERIC -> {
+                    if (DateUtil.isCellDateFormatted(cell)) {
+                        yield cell.getDateCellValue();
+                    }
+                    CellStyle style = cell.getCellStyle();
+                    yield new NumericCell(cell.getNumericCellValue(), style.getDataFormat(), style.getDataFormatString(),
+                        date1904);
+                }
+                case ERROR -> FormulaError.forInt(cell.getErrorCellValue()).getString();
+                case BLANK -> null;
+                default -> formatter.formatCellValue(cell);
+            };
+        }
+    }
+
+    private static final class DelimitedSource implements SheetSource {
+
+        private final Path file;
+        private final char delimiter;
+        private final List<String> sheetNames;
+
+        DelimitedSource(Path file, String filename, char delimiter) {
+            this.file = file;
+            this.delimiter = delimiter;
+            String name = filename == null ? "" : filename.substring(Math.max(filename.lastIndexOf('/'), filename.lastIndexOf('\\')) + 1);
+            int dot = name.lastIndexOf('.');
+            this.sheetNames = List.of(dot > 0 ? name.substring(0, dot) : name);
+        }
+
+        @Override
+        public List<String> getSheetNames() {
+            return sheetNames;
+        }
+
+        @Override
+        public synchronized void readSheet(int index, ExcelRowListener listener) throws Exception {
+            if (index != 0) throw new IndexOutOfBoundsException("Delimited text has a single sheet");
+            new DelimitedTextReader(delimiter, listener).read(file);
+        }
+
+        @Override
+        public long getRowCountHint(int index) {
+            return -1;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.example.servicetools.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Enumeration;
+import java.util.Locale;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
+
+/**
+ * Admits spooled uploads against a global heap budget before they are parsed.
+ * <p>
+ * The heap an upload needs is estimated from the file itself, without parsing it:
+ * <ul>
+ *   <li>{@code .xlsx}: from the zip central directory. The shared-strings part is held in memory as
+ *   Java strings for the whole parse, and when the caller collects every row (the JSON response) the
+ *   mapped rows grow with the uncompressed worksheet size.</li>
+ *   <li>{@code .xls}: {@code HSSFWorkbook} loads the whole file, at a multiple of its size.</li>
+ *   <li>{@code .csv}/{@code .tsv}: nothing beyond the current record, plus the collected rows.</li>
+ * </ul>
+ * A fixed working set for the row chunks in flight is added to every estimate. The estimate is then
+ * reserved from a fair, budget-sized semaphore until the returned {@link Permit} is closed. Uploads
+ * that would not fit even in an empty budget, or whose packages inflate beyond the configured size,
+ * are rejected outright. The rest wait up to the queue timeout and are then turned away as busy.
+ */
+@Component
+public class ExcelUploadAdmission {
+
+    private static final Logger log = LoggerFactory.getLogger(ExcelUploadAdmission.class);
+
+    private static final long MB = 1024 * 1024;
+
+    // UTF-8 XML text becomes UTF-16 strings plus object headers
+    private static final int SHARED_STRINGS_FACTOR = 3;
+    // HSSFWorkbook keeps the record stream and the cell model for the whole file
+    private static final int XLS_FACTOR = 8;
+    // Entries without a recorded size are assumed to inflate up to this ratio
+    private static final int UNKNOWN_INFLATE_RATIO = 20;
+
+    private final long budgetBytes;
+    private final Semaphore budgetKb;
+    private final long workingSetBytes;
+    private final long maxUncompressedBytes;
+    private final long queueTimeoutMillis;
+    private final long retryAfterSeconds;
+
+    public ExcelUploadAdmission(@Value("${excel.upload.admission.memory-budget-mb:0}") long budgetMb,
+                                @Value("${excel.upload.admission.working-set-mb:16}") long workingSetMb,
+                                @Value("${excel.upload.admission.max-uncompressed-mb:1024}") long maxUncompressedMb,
+                                @Value("${excel.upload.admission.queue-timeout-ms:10000}") long queueTimeoutMillis,
+                                @Value("${excel.upload.admission.retry-after-seconds:5}") long retryAfterSeconds) {
+        // 0 = 40% of the maximum heap, leaving the rest to the application and the request threads
+        this.budgetBytes = budgetMb > 0 ? budgetMb * MB : Runtime.getRuntime().maxMemory() / 5 * 2;
+        this.budgetKb = new Semaphore(toKb(budgetBytes), true);
+        this.workingSetBytes = workingSetMb * MB;
+        this.maxUncompressedBytes = maxUncompressedMb * MB;
+        this.queueTimeoutMillis = queueTimeoutMillis;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    /**
+     * Reserves budget for parsing {@code file}, waiting at most the configured queue timeout.
+     *
+     * @param collectsRows whether every mapped row is kept until the parse ends
+     * @throws UploadRejectedException if the upload is too large or the budget stays exhausted
+     */
+    public Permit admit(Path file, String filename, boolean collectsRows) throws IOException, InterruptedException {
+        return admit(estimate(file, filename, collectsRows), filename);
+    }
+
+    /**
+     * As {@link #admit(Path, String, boolean)}, for an estimate made by the caller, such as the sum of
+     * the files of a batch that are all held at once.
+     */
+    public Permit admit(long estimatedBytes, String description) throws InterruptedException {
+        int kb = reserveKb(estimatedBytes);
+        if (!budgetKb.tryAcquire(kb, queueTimeoutMillis, TimeUnit.MILLISECONDS)) {
+            log.info("Upload {} turned away: {} KB needed, {} KB of {} KB free",
+                description, kb, budgetKb.availablePermits(), toKb(budgetBytes));
+            throw new UploadRejectedException(UploadRejectedException.Reason.BUSY,
+                "Upload capacity exhausted, retry later", retryAfterSeconds);
+        }
+        log.debug("Upload {} admitted with {} KB", description, kb);
+        return new Permit(kb);
+    }
+
+    /** As {@link #admit}, but waits for budget as long as it takes; used by background jobs. */
+    public Permit admitWaiting(Path file, String filename, boolean collectsRows) throws IOException, InterruptedException {
+        int kb = reserveKb(estimate(file, filename, collectsRows));
+        budgetKb.acquire(kb);
+        log.debug("Upload {} admitted with {} KB", filename, kb);
+        return new Permit(kb);
+    }
+
+    /** @return the estimated heap, in bytes, needed to parse {@code file} */
+    public long estimate(Path file, String filename, boolean collectsRows) throws IOException {
+        String name = filename == null ? "" : filename.toLowerCase(Locale.ROOT);
+        if (name.endsWith(".xls")) {
+            return workingSetBytes + Files.size(file) * XLS_FACTOR;
+        }
+        if (ExcelSheetReader.isDelimitedText(filename)) {
+            // Only the current record is held; collected rows are roughly the size of the text
+            return workingSetBytes + (collectsRows ? Files.size(file) : 0);
+        }
+
+        long sharedStrings = 0;
+        long worksheets = 0;
+        long total = 0;
+        try (ZipFile zip = new ZipFile(file.toFile())) {
+            Enumeration<? extends ZipEntry> entries = zip.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry entry = entries.nextElement();
+                long size = entry.getSize() >= 0 ? entry.getSize() : entry.getCompressedSize() * UNKNOWN_INFLATE_RATIO;
+                total += size;
+                if (entry.getName().startsWith("xl/sharedStrings")) {
+                    sharedStrings += size;
+                } else if (entry.getName().startsWith("xl/worksheets/")) {
+                    worksheets += size;
+                }
+            }
+        } catch (ZipException e) {
+            // Not a zip: the reader rejects it on open without holding anything large
+            return workingSetBytes;
+        }
+        if (total > maxUncompressedBytes) {
+            throw UploadRejectedException.tooLarge("Workbook inflates to " + total / MB + " MB, the limit is "
+                + maxUncompressedBytes / MB + " MB");
+        }
+        return workingSetBytes + sharedStrings * SHARED_STRINGS_FACTOR + (collectsRows ? worksheets : 0);
+    }
+
+    public long getBudgetBytes() {
+        return budgetBytes;
+    }
+
+    public long getAvailableBytes() {
+        return budgetKb.availablePermits() * 1024L;
+    }
+
+    /** @return the fixed working set included in every estimate */
+    public long getWorkingSetBytes() {
+        return workingSetBytes;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    private int reserveKb(long needed) {
+        if (needed > budgetBytes) {
+            throw UploadRejectedException.tooLarge("Upload needs an estimated " + needed / MB
+                + " MB to process, the budget is " + budgetBytes / MB + " MB");
+        }
+        return toKb(needed);
+    }
+
+    private static int toKb(long bytes) {
+        return (int) Math.min(Integer.MAX_VALUE, Math.max(1, (bytes + 1023) / 1024));
+    }
+
+    /** Budget held by one admitted upload; closing it returns the budget. Idempotent. */
+    public final class Permit implements AutoCloseable {
+
+        private final int kb;
+        private boolean released;
+
+        private Permit(int kb) {
+            this.kb = kb;
+        }
+
+        @Override
+        public synchronized void close() {
+            if (!released) {
+                released = true;
+                budgetKb.release(kb);
+            }
+        }
+    }
+}
@@ -1,192 +1,291 @@
 package com.example.servicetools.service;
 
-import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
-import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.JsonMappingException;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.example.servicetools.dto.SimpleClient;
-import com.example.servicetools.model.ColumnToObjectMapping;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 
 @Service
 public class ExcelUploadService {
 
-    private final ColumnToObjectMappingService columnToObjectMappingService;
-
-    public ExcelUploadService(ColumnToObjectMappingService columnToObjectMappingService) {
-        this.columnToObjectMappingService = columnToObjectMappingService;
+    private static final Logger log = LoggerFactory.getLogger(ExcelUploadService.class);
+
+    private static final RowBinder<SimpleClient> SIMPLE_CLIENT_BINDER = RowBinder.forType(SimpleClient.class);
+
+    /** Logs a row that could not be mapped; the upload goes on without it. */
+    public static final RowErrorListener LOG_ROW_ERRORS =
+        (rowNum, error) -> log.warn("Skipping row {}, which could not be mapped", rowNum + 1, error);
+
+    private final ColumnMappingRegistry columnMappingRegistry;
+    private final ExcelSheetReader excelSheetReader;
+    private final ForkJoinPool mappingPool;
+    private final int chunkSize;
+    private final Path spoolDir;
+    private final long maxRows;
+    private final long maxCells;
+
+    public ExcelUploadService(ColumnMappingRegistry columnMappingRegistry,
+                              ExcelSheetReader excelSheetReader,
+                              @Qualifier("excelMappingPool") ForkJoinPool mappingPool,
+                              @Value("${excel.upload.mapping.chunk-size:2000}") int chunkSize,
+                              @Value("${excel.upload.spool-dir:${java.io.tmpdir}}") String spoolDir,
+                              @Value("${excel.upload.limits.max-rows:1048576}") long maxRows,
+                              @Value("${excel.upload.limits.max-cells:20000000}") long maxCells) {
+        this.columnMappingRegistry = columnMappingRegistry;
+        this.excelSheetReader = excelSheetReader;
+        this.mappingPool = mappingPool;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.spoolDir = Path.of(spoolDir);
+        this.maxRows = maxRows;
+        this.maxCells = maxCells;
     }
 
 
     public List<SimpleClient> parseExcel(MultipartFile file) throws Exception {
+        return parseExcel(file, currentMappings());
+    }
+
+    public List<SimpleClient> parseExcel(MultipartFile file, ColumnMappingSnapshot mappings) throws Exception {
         if (file == null || file.isEmpty()) {
             return Collections.emptyList();
         }
 
-        List<ColumnToObjectMapping> availableMapping = columnToObjectMappingService.findAll();
-        final Map<String, String> mapping = availableMapping.stream()
-            .collect(Collectors.toMap(ColumnToObjectMapping::getMainColumnName, ColumnToObjectMapping::getJsonPath));
-
-
-        String filename = Optional.ofNullable(file.getOriginalFilename()).orElse("").toLowerCase(Locale.ROOT);
-        try (InputStream in = file.getInputStream(); Workbook workbook = createWorkbook(filename, in)) {
-            Sheet sheet = workbook.getNumberOfSheets() > 0 ? workbook.getSheetAt(0) : null;
-            if (sheet == null) return Collections.emptyList();
-
-            Iterator<Row> rowIterator = sheet.iterator();
-            if (!rowIterator.hasNext()) return Collections.emptyList();
-
-            // Read header row
-            Row headerRow = rowIterator.next();
-            List<String> headers = new ArrayList<>();
-            for (int c = 0; c < headerRow.getLastCellNum(); c++) {
-                headers.add(getCellString(headerRow.getCell(c)));
-            }
-
-            List<Map<String, Object>> rows = new ArrayList<>();
-            DataFormatter formatter = new DataFormatter();
-
-            while (rowIterator.hasNext()) {
-                Row row = rowIterator.next();
-                Map<String, Object> obj = new LinkedHashMap<>();
-                for (int c = 0; c < headers.size(); c++) {
-                    String header = headers.get(c);
-                    if (header == null || header.isBlank()) continue;
-                    Cell cell = row.getCell(c);
-                    Object value = getCellValue(cell, formatter);
-                    obj.put(header, value);
-                }
-                rows.add(obj);
-            }
-
-            List<SimpleClient> simpleClients = new ArrayList<>();
-            rows.forEach(row -> {
-
-                SimpleClient simpleClient = new SimpleClient();
-
-                ObjectMapper mapper = new ObjectMapper();
-                ObjectNode root = mapper.createObjectNode();
+        Path spooled = spool(file);
+        try {
+            return parseExcel(spooled, file.getOriginalFilename(), mappings);
+        } finally {
+            Files.deleteIfExists(spooled);
+        }
+    }
 
+    /**
+     * Copies the upload to a file in the spool directory so the OOXML package can be read with random
+     * access instead of being inflated in memory. The caller owns the returned file and must delete it.
+     */
+    public Path spool(MultipartFile file) throws IOException {
+        Files.createDirectories(spoolDir);
+        Path spooled = Files.createTempFile(spoolDir, "excel-upload-", ".tmp");
+        try {
+            file.transferTo(spooled);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(spooled);
+            throw e;
+        }
+        return spooled;
+    }
 
-                // Configure JsonPath to create missing nodes automatically
-                //Configuration conf = Configuration.builder().options(EnumSet.of(Option.CREATE_MISSING_LEAF_NODES)).build();
+    /** A spooled upload and the hex SHA-256 of its bytes. */
+    public record SpooledUpload(Path path, String sha256) {
+    }
 
-                // Start with empty JSON
-                //DocumentContext context = JsonPath.using(conf).parse("{}");
+    /**
+     * As {@link #spool(MultipartFile)}, hashing the bytes with SHA-256 as they are copied so the
+     * content can be recognised again without a second pass over the file.
+     */
+    public SpooledUpload spoolHashed(MultipartFile file) throws IOException {
+        Files.createDirectories(spoolDir);
+        Path spooled = Files.createTempFile(spoolDir, "excel-upload-", ".tmp");
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        try (InputStream in = new DigestInputStream(file.getInputStream(), digest)) {
+            Files.copy(in, spooled, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(spooled);
+            throw e;
+        }
+        return new SpooledUpload(spooled, HexFormat.of().formatHex(digest.digest()));
+    }
 
-                row.forEach((key, value) -> {
-                    if (mapping.containsKey(key)) {
-                        System.out.println(key + " " + value + " " + mapping.get(key));
+    /** The mapping snapshot new uploads are resolved against; its version identifies the mappings used. */
+    public ColumnMappingSnapshot currentMappings() {
+        return columnMappingRegistry.current();
+    }
 
+    public List<SimpleClient> parseExcel(Path file, String filename) throws Exception {
+        return parseExcel(file, filename, currentMappings());
+    }
 
-                        setJsonPathValue(root, mapping.get(key), String.valueOf(value), mapper);
-                        //context.set(mapping.get(key), value);
-                        
-                    }
-                });
-                //  String resultJson = context.jsonString();
-                
-                //ObjectMapper mapper = new ObjectMapper();
+    public List<SimpleClient> parseExcel(Path file, String filename, ColumnMappingSnapshot mappings) throws Exception {
+        List<SimpleClient> simpleClients = new ArrayList<>();
+        parseExcel(file, filename, mappings, simpleClients::add, LOG_ROW_ERRORS);
+        return simpleClients;
+    }
 
-                try {
-                    String resultJson = mapper.writerWithDefaultPrettyPrinter().writeValueAsString(root);
-                    simpleClient = mapper.readValue(resultJson, SimpleClient.class);
-                    simpleClients.add(simpleClient);
-                } catch (JsonMappingException e) {
-                    // TODO Auto-generated catch block
-                    e.printStackTrace();
-                } catch (JsonProcessingException e) {
-                    // TODO Auto-generated catch block
-                    e.printStackTrace();
-                }
-                
-            });
+    /**
+     * Maps every data row of the first sheet and hands each {@link SimpleClient} to {@code sink}
+     * in row order, as soon as its chunk is mapped.
+     */
+    public void parseExcel(Path file, String filename, Consumer<SimpleClient> sink) throws Exception {
+        parseExcel(file, filename, currentMappings(), sink, LOG_ROW_ERRORS);
+    }
 
-            return simpleClients;
+    /**
+     * As {@link #parseExcel(Path, String, Consumer)}, resolving headers against the given mapping
+     * snapshot and reporting rows that fail to map to {@code errors}.
+     *
+     * @throws UploadRejectedException if the sheet has more rows or cells than the configured limits
+     */
+    public void parseExcel(Path file, String filename, ColumnMappingSnapshot mappings,
+                           Consumer<SimpleClient> sink, RowErrorListener errors) throws Exception {
+        try (ExcelSheetReader.SheetSource source = excelSheetReader.open(file, filename)) {
+            if (!source.getSheetNames().isEmpty()) {
+                parseSheet(source, 0, mappings, (rowNum, client) -> sink.accept(client), errors);
+            }
         }
     }
 
-    private Workbook createWorkbook(String filename, InputStream in) throws Exception {
-        if (filename.endsWith(".xlsx")) {
-            return new XSSFWorkbook(in);
-        } else if (filename.endsWith(".xls")) {
-            return new HSSFWorkbook(in);
+    /**
+     * Maps every data row of one sheet of an opened source, handing each row to {@code sink} with
+     * its row number, in row order. The first row of the sheet is its header row.
+     *
+     * @throws UploadRejectedException if the sheet has more rows or cells than the configured limits
+     */
+    public void parseSheet(ExcelSheetReader.SheetSource source, int sheetIndex, ColumnMappingSnapshot mappings,
+                           MappedRowListener sink, RowErrorListener errors) throws Exception {
+        // Rows are handed to the mapping pool in chunks as they are read, so the sheet itself is never held in memory
+        SheetMapper sheetMapper = new SheetMapper(mappings, sink, errors);
+        try {
+            source.readSheet(sheetIndex, sheetMapper);
+            sheetMapper.finish();
+        } finally {
+            sheetMapper.cancel();
         }
-        // Try to auto-detect; default to XSSFWorkbook
-        return new XSSFWorkbook(in);
     }
 
-    private String getCellString(Cell cell) {
-        if (cell == null) return "";
-        DataFormatter formatter = new DataFormatter();
-        return formatter.formatCellValue(cell);
-    }
+    /**
+     * Cuts the data rows of a sheet into fixed-size chunks and maps each chunk on the mapping pool.
+     * Completed chunks are drained in submission order, so the output keeps the sheet's row order.
+     * At most {@code 2 x parallelism} chunks are in flight; the reading thread waits for the oldest
+     * one before submitting more, which bounds the memory held by pending rows.
+     */
+    private class SheetMapper implements ExcelRowListener {
+
+        private final ColumnMappingSnapshot mappings;
+        private final MappedRowListener sink;
+        private final RowErrorListener errors;
+        private final Deque<Future<MappedChunk>> inFlight = new ArrayDeque<>();
+        private final int maxInFlight = Math.max(2, mappingPool.getParallelism() * 2);
+        private ColumnMappingPlan plan;
+        private List<Object[]> chunk = new ArrayList<>(chunkSize);
+        private int[] chunkRowNums = new int[chunkSize];
+        private long rows;
+        private long cells;
+
+        SheetMapper(ColumnMappingSnapshot mappings, MappedRowListener sink, RowErrorListener errors) {
+            this.mappings = mappings;
+            this.sink = sink;
+            this.errors = errors;
+        }
 
-    private Object getCellValue(Cell cell, DataFormatter formatter) {
-        if (cell == null) return null;
-        return switch (cell.getCellType()) {
-            case STRING -> cell.getStringCellValue();
-            case BOOLEAN -> cell.getBooleanCellValue();
-            case NUMERIC -> {
-                if (DateUtil.isCellDateFormatted(cell)) {
-                    yield cell.getDateCellValue();
+        @Override
+        public void onRow(int rowNum, Object[] values) throws Exception {
+            if (++rows > maxRows) {
+                throw UploadRejectedException.tooLarge("Sheet has more than " + maxRows + " rows");
+            }
+            cells += values.length;
+            if (cells > maxCells) {
+                throw UploadRejectedException.tooLarge("Sheet has more than " + maxCells + " cells");
+            }
+            if (plan == null) {
+                // Resolve the header row once; data rows then only index into the compiled plan
+                List<String> headers = new ArrayList<>(values.length);
+                for (Object value : values) {
+                    headers.add(value == null ? "" : String.valueOf(value));
                 }
-                
-                yield formatter.formatCellValue(cell);
-                //yield cell.getNumericCellValue();
+                plan = mappings.planFor(headers, SIMPLE_CLIENT_BINDER);
+                return;
             }
-            case FORMULA -> formatter.formatCellValue(cell);
-            case BLANK -> null;
-            default -> formatter.formatCellValue(cell);
-        };
-    }
 
+            chunkRowNums[chunk.size()] = rowNum;
+            chunk.add(values);
+            if (chunk.size() >= chunkSize) {
+                submitChunk();
+            }
+        }
+
+        void finish() throws Exception {
+            if (!chunk.isEmpty()) {
+                submitChunk();
+            }
+            while (!inFlight.isEmpty()) {
+                drainOldest();
+            }
+        }
 
-    private static void setJsonPathValue(ObjectNode root, String path, String value, ObjectMapper mapper) {
-        // Remove "$." prefix
-        if (path.startsWith("$.")) {
-            path = path.substring(2);
+        void cancel() {
+            inFlight.forEach(future -> future.cancel(true));
+            inFlight.clear();
         }
 
-        String[] parts = path.split("\\.");
-        ObjectNode current = root;
-
-        // Traverse or create nested nodes
-        for (int i = 0; i < parts.length - 1; i++) {
-            String part = parts[i];
-            JsonNode child = current.get(part);
-            if (child == null || !child.isObject()) {
-                ObjectNode newNode = mapper.createObjectNode();
-                current.set(part, newNode);
-                current = newNode;
-            } else {
-                current = (ObjectNode) child;
+        private void submitChunk() throws Exception {
+            if (inFlight.size() >= maxInFlight) {
+                drainOldest();
             }
+            List<Object[]> rows = chunk;
+            int[] rowNums = chunkRowNums;
+            ColumnMappingPlan chunkPlan = plan;
+            inFlight.addLast(mappingPool.submit(() -> mapChunk(chunkPlan, rows, rowNums)));
+            chunk = new ArrayList<>(chunkSize);
+            chunkRowNums = new int[chunkSize];
         }
 
-        String lastPart = parts[parts.length - 1];
-        // Try to detect type
-        if ("true".equalsIgnoreCase(value) || "false".equalsIgnoreCase(value)) {
-            current.put(lastPart, Boolean.parseBoolean(value));
-        } else {
+        private void drainOldest() throws Exception {
+            MappedChunk mapped;
             try {
-                long num = Long.parseLong(value);
-                current.put(lastPart, num);
-            } catch (NumberFormatException e) {
-                current.put(lastPart, value);
+                mapped = inFlight.removeFirst().get();
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof Exception cause) throw cause;
+                throw e;
+            }
+            List<SimpleClient> clients = mapped.clients();
+            for (int i = 0; i < clients.size(); i++) {
+                sink.onMappedRow(mapped.rowNums()[i], clients.get(i));
             }
+            mapped.failures().forEach(failure -> errors.onRowError(failure.rowNum(), failure.error()));
         }
     }
-}
 
+    /** Mapped rows with their sheet row numbers ({@code rowNums[i]} belongs to {@code clients.get(i)}). */
+    private record MappedChunk(List<SimpleClient> clients, int[] rowNums, List<RowFailure> failures) {
+    }
+
+    private record RowFailure(int rowNum, Exception error) {
+    }
 
+    private MappedChunk mapChunk(ColumnMappingPlan plan, List<Object[]> rows, int[] rowNums) {
+        List<SimpleClient> mapped = new ArrayList<>(rows.size());
+        int[] mappedRowNums = new int[rows.size()];
+        List<RowFailure> failures = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i++) {
+            try {
+                mapped.add(SIMPLE_CLIENT_BINDER.bind(plan.apply(rows.get(i))));
+                mappedRowNums[mapped.size() - 1] = rowNums[i];
+            } catch (IOException e) {
+                failures.add(new RowFailure(rowNums[i], e));
+            }
+        }
+        return new MappedChunk(mapped, mappedRowNums, failures);
+    }
+}
@@ -0,0 +1,279 @@
+package com.example.servicetools.service;
+
+import com.example.servicetools.dto.SimpleClient;
+import com.example.servicetools.dto.UploadValidationReport;
+import com.example.servicetools.model.ColumnToObjectMapping;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dry runs of an upload against the current column mappings.
+ * <p>
+ * Only the header and a sample of rows are mapped, so a check takes seconds however large the
+ * file is. {@link Sampling#HEAD} stops reading after the first rows. {@link Sampling#RANDOM} keeps a
+ * uniform reservoir sample of the rows it scans, and stops scanning when the time limit is reached;
+ * on large sheets the sample then covers only the part of the sheet that was scanned, up to the
+ * report's {@code lastScannedRow} (with {@code sheetFullyScanned} false). Full-run time is
+ * extrapolated from the measured per-row read and map cost, over the row count the sheet declares
+ * (or, for delimited text, one estimated from the file size); memory comes from the admission estimate.
+ */
+@Service
+public class ExcelUploadValidationService {
+
+    public enum Sampling { HEAD, RANDOM }
+
+    private static final RowBinder<SimpleClient> SIMPLE_CLIENT_BINDER = RowBinder.forType(SimpleClient.class);
+
+    private final ExcelSheetReader excelSheetReader;
+    private final ExcelUploadAdmission admission;
+    private final int mappingParallelism;
+    private final int maxSampleRows;
+    private final long maxScanNanos;
+    private final int maxReportedFailures;
+
+    public ExcelUploadValidationService(ExcelSheetReader excelSheetReader,
+                                        ExcelUploadAdmission admission,
+                                        @Qualifier("excelMappingPool") ForkJoinPool mappingPool,
+                                        @Value("${excel.upload.validation.max-sample-rows:10000}") int maxSampleRows,
+                                        @Value("${excel.upload.validation.max-scan-seconds:10}") long maxScanSeconds,
+                                        @Value("${excel.upload.validation.max-reported-failures:50}") int maxReportedFailures) {
+        this.excelSheetReader = excelSheetReader;
+        this.admission = admission;
+        this.mappingParallelism = mappingPool.getParallelism();
+        this.maxSampleRows = maxSampleRows;
+        this.maxScanNanos = TimeUnit.SECONDS.toNanos(maxScanSeconds);
+        this.maxReportedFailures = maxReportedFailures;
+    }
+
+    public static Sampling sampling(String value) {
+        return Sampling.valueOf(value.trim().toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * @param sheetIndex zero-based sheet to check
+     * @param sampleRows rows to map, capped by {@code excel.upload.validation.max-sample-rows}
+     * @throws IllegalArgumentException if the sheet does not exist
+     */
+    public UploadValidationReport validate(Path file, String filename, ColumnMappingSnapshot mappings,
+                                           int sheetIndex, int sampleRows, Sampling sampling) throws Exception {
+        long started = System.nanoTime();
+        int sampleSize = Math.max(1, Math.min(sampleRows, maxSampleRows));
+
+        UploadValidationReport report = new UploadValidationReport();
+        report.setFile(filename);
+        report.setMappingVersion(mappings.getVersion());
+        report.setSampling(sampling.name().toLowerCase(Locale.ROOT));
+
+        SampleCollector collector = new SampleCollector(sampleSize, sampling, started + maxScanNanos);
+        long rowCountHint;
+        long openNanos;
+        long readNanos;
+        long readEnded;
+        try (ExcelSheetReader.SheetSource source = excelSheetReader.open(file, filename)) {
+            if (sheetIndex < 0 || sheetIndex >= source.getSheetNames().size()) {
+                throw new IllegalArgumentException("Sheet " + sheetIndex + " does not exist; the file has "
+                    + source.getSheetNames().size() + " sheets");
+            }
+            report.setSheet(source.getSheetNames().get(sheetIndex));
+            rowCountHint = source.getRowCountHint(sheetIndex);
+            openNanos = System.nanoTime() - started;
+
+            long readStarted = System.nanoTime();
+            try {
+                source.readSheet(sheetIndex, collector);
+                report.setSheetFullyScanned(true);
+            } catch (StopReading e) {
+                report.setSheetFullyScanned(false);
+            }
+            readEnded = System.nanoTime();
+            readNanos = readEnded - readStarted;
+        }
+
+        List<String> headers = collector.headers == null ? List.of() : collector.headers;
+        describeColumns(report, headers, mappings);
+        double mapPerRow = mapSample(report, collector.sample, mappings.planFor(headers, SIMPLE_CLIENT_BINDER));
+
+        report.setScannedRows(collector.scanned);
+        report.setLastScannedRow(collector.scanned == 0 ? 0 : collector.lastRowNum + 1);
+        Long totalRows = report.isSheetFullyScanned() ? Long.valueOf(collector.scanned)
+            : rowCountHint > 0 ? Long.valueOf(rowCountHint - 1)
+            : ExcelSheetReader.isDelimitedText(filename) ? estimateTextRows(file, collector) : null;
+        report.setEstimatedTotalRows(totalRows);
+        if (totalRows != null) {
+            double readPerRow = collector.scanned > collector.timedFromRow
+                ? (double) (readEnded - collector.timedFrom) / (collector.scanned - collector.timedFromRow)
+                : (double) readNanos / Math.max(1, collector.scanned + 1);
+            double total = openNanos + totalRows * (readPerRow + mapPerRow / Math.max(1, mappingParallelism));
+            report.setEstimatedDurationMillis(TimeUnit.NANOSECONDS.toMillis((long) total));
+        }
+        report.setEstimatedMemoryBytes(admission.estimate(file, filename, true));
+        report.setEstimatedStreamingMemoryBytes(admission.estimate(file, filename, false));
+        report.setElapsedMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        return report;
+    }
+
+    private void describeColumns(UploadValidationReport report, List<String> headers, ColumnMappingSnapshot mappings) {
+        List<UploadValidationReport.ColumnReport> columns = new ArrayList<>();
+        List<String> unmapped = new ArrayList<>();
+        // By identity: two mappings may share a JSON path, and only the one a header resolves through is used
+        Set<ColumnToObjectMapping> used = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (int c = 0; c < headers.size(); c++) {
+            String header = headers.get(c);
+            if (header.isBlank()) continue;
+            String[] path = mappings.pathFor(header);
+            if (path == null) {
+                unmapped.add(header);
+                columns.add(new UploadValidationReport.ColumnReport(c, header, null, null));
+                continue;
+            }
+            String jsonPath = String.join(".", path);
+            used.add(mappings.mappingFor(header));
+            Class<?> target = SIMPLE_CLIENT_BINDER.propertyType(path);
+            columns.add(new UploadValidationReport.ColumnReport(c, header, "$." + jsonPath,
+                target == null ? null : target.getSimpleName()));
+        }
+
+        List<ColumnToObjectMapping> unused = new ArrayList<>();
+        for (ColumnToObjectMapping mapping : mappings.getMappings()) {
+            if (!used.contains(mapping)) {
+                unused.add(mapping);
+            }
+        }
+        report.setColumns(columns);
+        report.setUnmappedHeaders(unmapped);
+        report.setUnusedMappings(unused);
+    }
+
+    /** @return the mean time to map one row, in nanoseconds */
+    private double mapSample(UploadValidationReport report, List<SampledRow> sample, ColumnMappingPlan plan) {
+        sample.sort(Comparator.comparingInt(SampledRow::rowNum));
+        int mapped = 0;
+        Map<String, Integer> failuresByField = new LinkedHashMap<>();
+        List<UploadValidationReport.RowFailure> failures = new ArrayList<>();
+        // The first rows pay for class loading and a cold JIT; time the rest unless the sample is tiny
+        int warmup = sample.size() >= 20 ? sample.size() / 4 : 0;
+        long timedStart = 0;
+        for (int i = 0; i < sample.size(); i++) {
+            if (i == warmup) timedStart = System.nanoTime();
+            SampledRow row = sample.get(i);
+            try {
+                SIMPLE_CLIENT_BINDER.bind(plan.apply(row.values()));
+                mapped++;
+            } catch (IOException e) {
+                String field = null;
+                String message = e.getMessage();
+                if (e instanceof JsonMappingException mappingError) {
+                    List<JsonMappingException.Reference> path = mappingError.getPath();
+                    field = path.isEmpty() ? null : path.get(path.size() - 1).getFieldName();
+                    message = mappingError.getOriginalMessage();
+                }
+                failuresByField.merge(field == null ? "(row)" : field, 1, Integer::sum);
+                if (failures.size() < maxReportedFailures) {
+                    failures.add(new UploadValidationReport.RowFailure(row.rowNum() + 1, field, message));
+                }
+            }
+        }
+        report.setSampledRows(sample.size());
+        report.setMappedRows(mapped);
+        report.setFailedRows(sample.size() - mapped);
+        report.setFailuresByField(failuresByField);
+        report.setFailures(failures);
+        return sample.isEmpty() ? 0 : (double) (System.nanoTime() - timedStart) / (sample.size() - warmup);
+    }
+
+    // Delimited text records no row count: divide the file size by the sampled rows' mean text length
+    private static Long estimateTextRows(Path file, SampleCollector collector) throws IOException {
+        if (collector.sample.isEmpty()) return null;
+        long chars = 0;
+        for (SampledRow row : collector.sample) {
+            for (Object value : row.values()) {
+                chars += (value == null ? 0 : String.valueOf(value).length()) + 1;
+            }
+        }
+        double perRow = (double) chars / collector.sample.size();
+        return Math.max(collector.scanned, Math.round(Files.size(file) / perRow) - 1);
+    }
+
+    private record SampledRow(int rowNum, Object[] values) {
+    }
+
+    /** Ends the read early; carries no stack trace since it is expected. */
+    private static final class StopReading extends RuntimeException {
+        StopReading() {
+            super("sample complete", null, false, false);
+        }
+    }
+
+    private static final class SampleCollector implements ExcelRowListener {
+
+        private final int sampleSize;
+        private final Sampling sampling;
+        private final long deadline;
+        private final List<SampledRow> sample = new ArrayList<>();
+        private List<String> headers;
+        private long scanned;
+        private int lastRowNum;
+        // Read time is measured from this row on, leaving the parser's start-up out of the per-row cost
+        private final long timedFromRow;
+        private long timedFrom;
+
+        SampleCollector(int sampleSize, Sampling sampling, long deadline) {
+            this.sampleSize = sampleSize;
+            this.sampling = sampling;
+            this.deadline = deadline;
+            this.timedFromRow = Math.max(1, Math.min(sampleSize / 4, 1000));
+        }
+
+        @Override
+        public void onRow(int rowNum, Object[] values) {
+            if (headers == null) {
+                headers = new ArrayList<>(values.length);
+                for (Object value : values) {
+                    headers.add(value == null ? "" : String.valueOf(value));
+                }
+                return;
+            }
+
+            lastRowNum = rowNum;
+            if (++scanned == timedFromRow) {
+                timedFrom = System.nanoTime();
+            }
+            if (sampling == Sampling.HEAD) {
+                sample.add(new SampledRow(rowNum, values));
+                if (sample.size() >= sampleSize) throw new StopReading();
+                return;
+            }
+
+            // Reservoir sampling: every scanned row has the same chance of being in the sample
+            if (sample.size() < sampleSize) {
+                sample.add(new SampledRow(rowNum, values));
+            } else {
+                long slot = ThreadLocalRandom.current().nextLong(scanned);
+                if (slot < sampleSize) {
+                    sample.set((int) slot, new SampledRow(rowNum, values));
+                }
+            }
+            if ((scanned & 1023) == 0 && System.nanoTime() > deadline) {
+                throw new StopReading();
+            }
+        }
+    }
+}
@@ -1,19 +1,24 @@
 package com.example.servicetools.service;
 
 import com.example.servicetools.dao.JobInstanceRepository;
+import com.example.servicetools.dto.CursorSlice;
 import com.example.servicetools.model.JobInstance;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
+import static com.example.servicetools.dao.FilterSpecifications.*;
+
 @Service
 @Transactional
 public class JobInstanceService {
@@ -21,6 +26,12 @@ public class JobInstanceService {
     @Autowired
     private JobInstanceRepository repository;
 
+    @Autowired
+    private ChunkedDeleter chunkedDeleter;
+
+    @Autowired
+    private KeysetPager keysetPager;
+
     // Create operations
     public JobInstance createJobInstance(JobInstance jobInstance) {
         return repository.save(jobInstance);
@@ -119,6 +130,36 @@ public class JobInstanceService {
         return repository.findRecentSince(since, pageable);
     }
 
+    // Keyset (cursor) pagination: each slice seeks past the previous one, so no OFFSET scan and no count query
+    public CursorSlice<JobInstance> scrollAllJobInstances(String cursor, int size, String sortBy, String sortDirection) {
+        return keysetPager.scroll(JobInstance.class, null, cursor, size, sortBy, sortDirection);
+    }
+
+    public CursorSlice<JobInstance> scrollJobInstancesByName(String name, String cursor, int size, String sortBy, String sortDirection) {
+        return keysetPager.scroll(JobInstance.class, equalTo("name", name), cursor, size, sortBy, sortDirection);
+    }
+
+    public CursorSlice<JobInstance> scrollJobInstancesByStatus(String status, String cursor, int size, String sortBy, String sortDirection) {
+        return keysetPager.scroll(JobInstance.class, equalTo("status", status), cursor, size, sortBy, sortDirection);
+    }
+
+    public CursorSlice<JobInstance> scrollByCreatedRange(LocalDateTime start, LocalDateTime end, String cursor, int size, String sortBy, String sortDirection) {
+        return keysetPager.scroll(JobInstance.class, between("created", start, end), cursor, size, sortBy, sortDirection);
+    }
+
+    public CursorSlice<JobInstance> scrollByUpdatedRange(LocalDateTime start, LocalDateTime end, String cursor, int size, String sortBy, String sortDirection) {
+        return keysetPager.scroll(JobInstance.class, between("updated", start, end), cursor, size, sortBy, sortDirection);
+    }
+
+    public CursorSlice<JobInstance> scrollRecentSince(LocalDateTime since, String cursor, int size, String sortBy, String sortDirection) {
+        return keysetPager.scroll(JobInstance.class, atLeast("created", since), cursor, size, sortBy, sortDirection);
+    }
+
+    public CursorSlice<JobInstance> scrollByMultipleParams(String name, String status, LocalDateTime start, LocalDateTime end,
+                                                           String cursor, int size, String sortBy, String sortDirection) {
+        return keysetPager.scroll(JobInstance.class, searchFilter(name, status, start, end), cursor, size, sortBy, sortDirection);
+    }
+
     // Update operations
     public JobInstance updateJobInstance(Long id, JobInstance updatedJobInstance) {
         Optional<JobInstance> existingJobInstance = repository.findById(id);
@@ -141,17 +182,21 @@ public class JobInstanceService {
         }
     }
 
-    public void deleteAllJobInstances() {
-        repository.deleteAll();
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public long deleteAllJobInstances() {
+        return chunkedDeleter.delete("TJOB_INSTANCE", repository::findIds, repository::deleteByIdIn);
     }
 
-    public void deleteOldJobInstances(LocalDateTime cutoffTime) {
-        repository.deleteByCreatedBefore(cutoffTime);
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public long deleteOldJobInstances(LocalDateTime cutoffTime) {
+        return chunkedDeleter.delete("TJOB_INSTANCE", chunk -> repository.findIdsByCreatedBefore(cutoffTime, chunk),
+            repository::deleteByIdIn);
     }
 
-    public void deleteOldJobInstancesByDays(int days) {
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public long deleteOldJobInstancesByDays(int days) {
         LocalDateTime cutoffTime = LocalDateTime.now().minusDays(days);
-        repository.deleteByCreatedBefore(cutoffTime);
+        return deleteOldJobInstances(cutoffTime);
     }
 
     // Utility operations
@@ -170,17 +215,21 @@ public class JobInstanceService {
 
     // Search with multiple parameters
     public List<JobInstance> searchByMultipleParams(String name, String status, LocalDateTime start, LocalDateTime end) {
-        return repository.findByMultipleParams(name, status, start, end);
+        return repository.findAll(searchFilter(name, status, start, end));
     }
 
     public Page<JobInstance> searchByMultipleParams(String name, String status, LocalDateTime start, LocalDateTime end, Pageable pageable) {
-        return repository.findByMultipleParams(name, status, start, end, pageable);
+        return repository.findAll(searchFilter(name, status, start, end), pageable);
     }
 
     public Page<JobInstance> searchByMultipleParams(String name, String status, LocalDateTime start, LocalDateTime end, 
                                                     int page, int size, String sortBy, String sortDirection) {
         Sort sort = Sort.by(Sort.Direction.fromString(sortDirection), sortBy);
         Pageable pageable = PageRequest.of(page, size, sort);
-        return repository.findByMultipleParams(name, status, start, end, pageable);
+        return repository.findAll(searchFilter(name, status, start, end), pageable);
+    }
+
+    static Specification<JobInstance> searchFilter(String name, String status, LocalDateTime start, LocalDateTime end) {
+        return Specification.allOf(equalTo("name", name), equalTo("status", status), between("created", start, end));
     }
 }
@@ -0,0 +1,239 @@
+package com.example.servicetools.service;
+
+import com.example.servicetools.model.JobLogEntry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fire-and-forget writer for job log entries.
+ * <p>
+ * {@link #append(JobLogEntry)} assigns the entry's id and puts it in a {@link BoundedRingBuffer};
+ * the caller never waits for a commit. A single daemon thread drains the buffer once it holds
+ * {@code job-log-entries.async.batch-size} entries or {@code flush-interval-ms} after the last flush,
+ * whichever comes first, and writes each batch as one multi-row JDBC insert. When the buffer is
+ * full, {@code overflow-policy} decides between waiting for room, dropping the oldest queued entry
+ * and dropping the new entry unless it is at least {@code keep-severity}. Entries still queued at
+ * shutdown are flushed before the data source closes.
+ * <p>
+ * Only created with {@code job-log-entries.write-mode=async}, so sync mode has no flusher thread.
+ * <p>
+ * Metrics: {@code job.log.appender.queue.depth}, {@code job.log.appender.flush} (latency per batch),
+ * {@code job.log.appender.written}, {@code job.log.appender.dropped} (by reason) and
+ * {@code job.log.appender.failed}.
+ */
+@Component
+@ConditionalOnProperty(name = "job-log-entries.write-mode", havingValue = "async")
+public class JobLogEntryAppender {
+
+    private static final Logger log = LoggerFactory.getLogger(JobLogEntryAppender.class);
+
+    public enum OverflowPolicy {
+        /** The appending thread waits until the flusher makes room. */
+        BLOCK,
+        /** The oldest queued entry is discarded to make room. */
+        DROP_OLDEST,
+        /** Entries below the keep severity are discarded; the others wait for room. */
+        DROP_BY_SEVERITY
+    }
+
+    private final JobLogEntryInserter inserter;
+    private final BoundedRingBuffer<JobLogEntry> buffer;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final OverflowPolicy overflowPolicy;
+    private final int keepSeverity;
+    private final long shutdownTimeoutMillis;
+
+    private final Timer flushTimer;
+    private final Counter written;
+    private final Counter failed;
+    private final Counter droppedOldest;
+    private final Counter droppedBySeverity;
+
+    // Held while draining, so a late append after shutdown cannot interleave with the final flush
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final Thread flusher;
+    private volatile boolean stopped;
+
+    public JobLogEntryAppender(JobLogEntryInserter inserter,
+                               MeterRegistry meterRegistry,
+                               @Value("${job-log-entries.async.capacity:8192}") int capacity,
+                               @Value("${job-log-entries.async.batch-size:500}") int batchSize,
+                               @Value("${job-log-entries.async.flush-interval-ms:200}") long flushIntervalMillis,
+                               @Value("${job-log-entries.async.overflow-policy:BLOCK}") OverflowPolicy overflowPolicy,
+                               @Value("${job-log-entries.async.keep-severity:WARNING}") String keepSeverity,
+                               @Value("${job-log-entries.async.shutdown-timeout-ms:10000}") long shutdownTimeoutMillis) {
+        this.inserter = inserter;
+        this.buffer = new BoundedRingBuffer<>(capacity);
+        this.batchSize = Math.max(1, Math.min(batchSize, buffer.capacity()));
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, flushIntervalMillis));
+        this.overflowPolicy = overflowPolicy;
+        this.keepSeverity = severity(keepSeverity);
+        this.shutdownTimeoutMillis = shutdownTimeoutMillis;
+
+        Gauge.builder("job.log.appender.queue.depth", buffer, BoundedRingBuffer::size)
+            .description("Job log entries waiting to be flushed")
+            .register(meterRegistry);
+        Gauge.builder("job.log.appender.queue.capacity", buffer, BoundedRingBuffer::capacity)
+            .register(meterRegistry);
+        this.flushTimer = Timer.builder("job.log.appender.flush")
+            .description("Time to write one batch of job log entries")
+            .register(meterRegistry);
+        this.written = meterRegistry.counter("job.log.appender.written");
+        this.failed = meterRegistry.counter("job.log.appender.failed");
+        this.droppedOldest = meterRegistry.counter("job.log.appender.dropped", "reason", "oldest");
+        this.droppedBySeverity = meterRegistry.counter("job.log.appender.dropped", "reason", "severity");
+
+        this.flusher = new Thread(this::run, "job-log-flusher");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    /**
+     * Queues {@code entry} for the next flush. Its id is set before this returns, but the row only
+     * becomes visible once its batch commits. After shutdown the entry is written synchronously.
+     *
+     * @return the entry, or {@code null} if the overflow policy dropped it
+     * @throws IllegalArgumentException if a field is longer than its column
+     * @throws RejectedExecutionException if the buffer is full and shutdown began while waiting for room
+     */
+    public JobLogEntry append(JobLogEntry entry) {
+        JobLogEntryInserter.checkLengths(entry);
+        inserter.assignId(entry);
+        if (stopped) {
+            write(List.of(entry));
+            return entry;
+        }
+
+        boolean dropWhenFull = overflowPolicy == OverflowPolicy.DROP_BY_SEVERITY
+            && severity(entry.getStatus()) < keepSeverity;
+        while (!buffer.offer(entry)) {
+            if (dropWhenFull) {
+                droppedBySeverity.increment();
+                return null;
+            }
+            if (overflowPolicy == OverflowPolicy.DROP_OLDEST) {
+                if (buffer.poll() != null) droppedOldest.increment();
+            } else if (stopped) {
+                // The flusher drains once more and exits; nothing would make room after that
+                throw new RejectedExecutionException("Job log appender is shut down");
+            } else {
+                LockSupport.unpark(flusher);
+                LockSupport.parkNanos(100_000);
+            }
+        }
+        if (buffer.size() >= batchSize) {
+            LockSupport.unpark(flusher);
+        }
+        if (stopped) {
+            // Shutdown began while this entry was being queued; the final flush may already be done
+            flush();
+        }
+        return entry;
+    }
+
+    /** Entries waiting to be flushed. */
+    public int getQueueDepth() {
+        return buffer.size();
+    }
+
+    private void run() {
+        long nextFlush = System.nanoTime() + flushIntervalNanos;
+        while (!stopped) {
+            long wait = nextFlush - System.nanoTime();
+            if (wait <= 0 || buffer.size() >= batchSize) {
+                flush();
+                nextFlush = System.nanoTime() + flushIntervalNanos;
+            } else {
+                LockSupport.parkNanos(this, wait);
+            }
+        }
+        flush();
+    }
+
+    /** Drains the buffer in batches of at most {@code batchSize}. */
+    private void flush() {
+        flushLock.lock();
+        try {
+            List<JobLogEntry> batch = new ArrayList<>(batchSize);
+            JobLogEntry entry;
+            while ((entry = buffer.poll()) != null) {
+                batch.add(entry);
+                if (batch.size() == batchSize) {
+                    write(batch);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                write(batch);
+            }
+        } catch (RuntimeException e) {
+            // Keep the flusher alive whatever the database does
+            log.error("Flushing job log entries failed", e);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void write(List<JobLogEntry> batch) {
+        long started = System.nanoTime();
+        try {
+            inserter.insert(batch);
+            written.increment(batch.size());
+        } catch (DataAccessException e) {
+            // One bad row rolls back the whole batch; retry the rows one by one to keep the others
+            log.warn("Batch of {} job log entries was rolled back, retrying them one by one: {}",
+                batch.size(), e.getMostSpecificCause().getMessage());
+            for (JobLogEntry entry : batch) {
+                try {
+                    inserter.insert(List.of(entry));
+                    written.increment();
+                } catch (DataAccessException rowFailure) {
+                    failed.increment();
+                    log.error("Job log entry {} for job {} could not be written", entry.getId(),
+                        entry.getJobInstanceId(), rowFailure);
+                }
+            }
+        } finally {
+            flushTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        stopped = true;
+        LockSupport.unpark(flusher);
+        flusher.join(shutdownTimeoutMillis);
+        if (flusher.isAlive()) {
+            log.warn("Job log flusher did not finish within {} ms; {} entries may be lost",
+                shutdownTimeoutMillis, buffer.size());
+        }
+    }
+
+    /** ERROR and FAILED rank above WARNING, which ranks above every other status. */
+    static int severity(String status) {
+        if (status == null) return 0;
+        return switch (status.toUpperCase(Locale.ROOT)) {
+            case "ERROR", "FAILED" -> 2;
+            case "WARNING", "WARN" -> 1;
+            default -> 0;
+        };
+    }
+}
@@ -0,0 +1,208 @@
+package com.example.servicetools.service;
+
+import com.example.servicetools.dto.BulkIngestResult;
+import com.example.servicetools.model.JobLogEntry;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Ingests job log entries sent as NDJSON, one JSON object per line.
+ * <p>
+ * The body is read line by line and each line is parsed on its own, so a malformed line is
+ * rejected with its line number and parsing carries on with the next one. This is deliberately not
+ * one streaming {@code JsonParser} or {@code MappingIterator} over the whole body: Jackson cannot
+ * resynchronise after a syntax error, so one bad line would end the ingest, and it could not cap the
+ * length of a line. Each line gets a short-lived parser from the shared {@link ObjectReader}. Accepted entries are
+ * written to {@code TJOB_LOGENTRY} in JDBC batches of {@code job-log-entries.bulk.chunk-size}, one
+ * transaction per batch through {@link JobLogEntryInserter}; only the current batch is held in memory.
+ */
+@Service
+public class JobLogEntryBulkService {
+
+    private static final Logger log = LoggerFactory.getLogger(JobLogEntryBulkService.class);
+
+    private final ObjectReader entryReader;
+    private final JobLogEntryInserter inserter;
+    private final int chunkSize;
+    private final int maxLineChars;
+    private final int maxReportedRejections;
+
+    public JobLogEntryBulkService(ObjectMapper objectMapper,
+                                  JobLogEntryInserter inserter,
+                                  @Value("${job-log-entries.bulk.chunk-size:1000}") int chunkSize,
+                                  @Value("${job-log-entries.bulk.max-line-chars:1048576}") int maxLineChars,
+                                  @Value("${job-log-entries.bulk.max-reported-rejections:1000}") int maxReportedRejections) {
+        this.entryReader = objectMapper.readerFor(JobLogEntry.class);
+        this.inserter = inserter;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.maxLineChars = maxLineChars;
+        this.maxReportedRejections = maxReportedRejections;
+    }
+
+    /**
+     * Reads {@code body} to the end. Chunks committed before a read failure stay stored.
+     *
+     * @return per-chunk accept counts and the rejected lines
+     * @throws IOException if the body cannot be read
+     */
+    public BulkIngestResult ingest(InputStream body) throws IOException {
+        long started = System.nanoTime();
+        BulkIngestResult result = new BulkIngestResult();
+        List<JobLogEntry> chunk = new ArrayList<>(chunkSize);
+        long chunkFirstLine = 0;
+        long chunkLastLine = 0;
+        LineReader lines = new LineReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+
+        String line;
+        while ((line = lines.next()) != null) {
+            long lineNum = lines.getLineNum();
+            result.setLines(lineNum);
+            if (line.isBlank()) continue;
+
+            if (lines.isTooLong()) {
+                rejectLine(result, lineNum, "Line is longer than " + maxLineChars + " characters");
+                continue;
+            }
+            JobLogEntry entry;
+            try {
+                entry = parse(line);
+            } catch (JsonProcessingException e) {
+                rejectLine(result, lineNum, e.getOriginalMessage());
+                continue;
+            } catch (IllegalArgumentException e) {
+                rejectLine(result, lineNum, e.getMessage());
+                continue;
+            }
+
+            if (chunk.isEmpty()) chunkFirstLine = lineNum;
+            chunkLastLine = lineNum;
+            chunk.add(entry);
+            if (chunk.size() >= chunkSize) {
+                writeChunk(result, chunk, chunkFirstLine, chunkLastLine);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            writeChunk(result, chunk, chunkFirstLine, chunkLastLine);
+        }
+
+        result.setElapsedMillis((System.nanoTime() - started) / 1_000_000);
+        log.debug("Bulk ingested {} job log entries ({} rejected) in {} ms",
+            result.getAccepted(), result.getRejected(), result.getElapsedMillis());
+        return result;
+    }
+
+    private void rejectLine(BulkIngestResult result, long lineNum, String message) {
+        result.setRejected(result.getRejected() + 1);
+        if (result.getRejectedLines().size() < maxReportedRejections) {
+            result.getRejectedLines().add(new BulkIngestResult.RejectedLine(lineNum, message));
+        } else {
+            result.setRejectedLinesTruncated(true);
+        }
+    }
+
+    private JobLogEntry parse(String line) throws JsonProcessingException {
+        JobLogEntry entry = entryReader.readValue(line);
+        if (entry == null) {
+            throw new IllegalArgumentException("Line is not a JSON object");
+        }
+        // Ids are always assigned here; a value the column cannot hold is rejected with its line
+        entry.setId(null);
+        JobLogEntryInserter.checkLengths(entry);
+        // Same default as the single-entry endpoint
+        if (entry.getEventTs() == null) {
+            entry.setEventTs(LocalDateTime.now());
+        }
+        return entry;
+    }
+
+    /** Writes one chunk in its own transaction; a failed chunk is reported and the ingest continues. */
+    private void writeChunk(BulkIngestResult result, List<JobLogEntry> chunk, long firstLine, long lastLine) {
+        int chunkNum = result.getChunks().size() + 1;
+        try {
+            inserter.insert(chunk);
+            result.getChunks().add(new BulkIngestResult.Chunk(chunkNum, firstLine, lastLine, chunk.size(), null));
+            result.setAccepted(result.getAccepted() + chunk.size());
+        } catch (DataAccessException e) {
+            log.warn("Bulk job log entry chunk {} (lines {}-{}) was rolled back", chunkNum, firstLine, lastLine, e);
+            result.getChunks().add(new BulkIngestResult.Chunk(chunkNum, firstLine, lastLine, 0,
+                e.getMostSpecificCause().getMessage()));
+            result.setRejected(result.getRejected() + chunk.size());
+        }
+    }
+
+    /**
+     * Splits the body on {@code \n} (a preceding {@code \r} is dropped). Lines longer than the limit
+     * are consumed to their end but only their first characters are kept; {@link #isTooLong()} flags them.
+     */
+    private final class LineReader {
+
+        private final Reader in;
+        private final char[] buffer = new char[64 * 1024];
+        private int position;
+        private int limit;
+        private final StringBuilder line = new StringBuilder(256);
+        private long lineNum;
+        private boolean tooLong;
+
+        LineReader(Reader in) {
+            this.in = in;
+        }
+
+        String next() throws IOException {
+            line.setLength(0);
+            tooLong = false;
+            boolean ended = false;
+            while (!ended) {
+                if (position == limit) {
+                    limit = in.read(buffer);
+                    position = 0;
+                    if (limit == -1) {
+                        limit = 0;
+                        if (line.isEmpty() && !tooLong) return null;
+                        break;
+                    }
+                }
+                int start = position;
+                while (position < limit && buffer[position] != '\n') position++;
+                int end = position;
+                if (position < limit) {
+                    position++;
+                    ended = true;
+                }
+                int keep = Math.min(end - start, maxLineChars - line.length());
+                line.append(buffer, start, keep);
+                if (keep < end - start) tooLong = true;
+            }
+            lineNum++;
+            int end = line.length();
+            if (end > 0 && line.charAt(end - 1) == '\r') {
+                line.setLength(end - 1);
+            }
+            return line.toString();
+        }
+
+        long getLineNum() {
+            return lineNum;
+        }
+
+        boolean isTooLong() {
+            return tooLong;
+        }
+    }
+}
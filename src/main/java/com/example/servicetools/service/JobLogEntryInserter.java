@@ -0,0 +1,124 @@
+package com.example.servicetools.service;
+
+import com.example.servicetools.model.JobLogEntry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes job log entries to {@code TJOB_LOGENTRY} with plain JDBC batches, bypassing the JPA
+ * persistence context. Ids come from the entity's own Hibernate generator, whose pooled optimizer
+ * also serves JPA saves, so the two never hand out the same block. Shared by the bulk ingest and the
+ * async appender.
+ */
+@Component
+class JobLogEntryInserter {
+
+    private static final String INSERT_SQL =
+        "INSERT INTO TJOB_LOGENTRY (ID, JOB_INSTANCE_ID, JOB_NAME, RECORD_ID, TYPE, STATUS, EVENT_TS, " +
+        "DESCRIPTION, PAYLOAD_HASH, STACKTRACE_HASH) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final int[] INSERT_TYPES = {
+        Types.BIGINT, Types.BIGINT, Types.VARCHAR, Types.BIGINT, Types.VARCHAR, Types.VARCHAR, Types.TIMESTAMP,
+        Types.VARCHAR, Types.VARCHAR, Types.VARCHAR
+    };
+
+    // Columns without an explicit length are created as VARCHAR(255)
+    private static final int VARCHAR_LENGTH = JobLogEntry.MAX_DESCRIPTION_LENGTH;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final SessionFactory sessionFactory;
+    private final BeforeExecutionGenerator ids;
+    private final TextBlobStore textBlobStore;
+
+    JobLogEntryInserter(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                        EntityManagerFactory entityManagerFactory, TextBlobStore textBlobStore) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.textBlobStore = textBlobStore;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        this.ids = (BeforeExecutionGenerator) entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+            .getMappingMetamodel().getEntityDescriptor(JobLogEntry.class).getGenerator();
+    }
+
+    /** Sets the entry's id now, ahead of the insert; {@link #insert(List)} keeps ids already set. */
+    JobLogEntry assignId(JobLogEntry entry) {
+        assignIds(List.of(entry));
+        return entry;
+    }
+
+    // The generator only touches the session's connection when its block runs out, and takes it then
+    private void assignIds(List<JobLogEntry> entries) {
+        if (entries.stream().allMatch(entry -> entry.getId() != null)) return;
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            for (JobLogEntry entry : entries) {
+                if (entry.getId() == null) {
+                    entry.setId((Long) ids.generate((SharedSessionContractImplementor) session, entry, null,
+                        EventType.INSERT));
+                }
+            }
+        }
+    }
+
+    /**
+     * Inserts {@code entries} as one JDBC batch in one transaction, together with the payloads and
+     * stack traces not yet in {@link TextBlobStore}.
+     *
+     * @throws org.springframework.dao.DataAccessException if the batch fails; nothing is stored
+     */
+    void insert(List<JobLogEntry> entries) {
+        assignIds(entries);
+        List<String> texts = new ArrayList<>(entries.size() * 2);
+        for (JobLogEntry entry : entries) {
+            texts.add(entry.getPayload());
+            texts.add(entry.getStacktrace());
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            Map<String, String> hashes = textBlobStore.putAll(texts);
+            List<Object[]> args = new ArrayList<>(entries.size());
+            for (JobLogEntry entry : entries) {
+                args.add(new Object[] {
+                    entry.getId(), entry.getJobInstanceId(), entry.getJobName(), entry.getRecordId(), entry.getType(),
+                    entry.getStatus(), entry.getEventTs(), entry.getDescription(),
+                    entry.getPayload() == null ? null : hashes.get(entry.getPayload()),
+                    entry.getStacktrace() == null ? null : hashes.get(entry.getStacktrace())
+                });
+            }
+            jdbcTemplate.batchUpdate(INSERT_SQL, args, INSERT_TYPES);
+        });
+    }
+
+    /**
+     * A value longer than its column fails the whole batch it is in, so callers check entries first.
+     *
+     * @throws IllegalArgumentException naming the first field that is too long
+     */
+    static void checkLengths(JobLogEntry entry) {
+        checkLength("jobName", entry.getJobName(), VARCHAR_LENGTH);
+        checkLength("type", entry.getType(), VARCHAR_LENGTH);
+        checkLength("status", entry.getStatus(), VARCHAR_LENGTH);
+        checkLength("description", entry.getDescription(), VARCHAR_LENGTH);
+        checkLength("payload", entry.getPayload(), JobLogEntry.MAX_TEXT_LENGTH);
+        checkLength("stacktrace", entry.getStacktrace(), JobLogEntry.MAX_TEXT_LENGTH);
+    }
+
+    private static void checkLength(String field, String value, int maxLength) {
+        if (value != null && value.length() > maxLength) {
+            throw new IllegalArgumentException(field + " is longer than " + maxLength + " characters");
+        }
+    }
+}
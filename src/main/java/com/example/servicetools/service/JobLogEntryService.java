@@ -1,150 +1,237 @@
 package com.example.servicetools.service;
 
 import com.example.servicetools.dao.JobLogEntryRepository;
+import com.example.servicetools.dao.Projection;
+import com.example.servicetools.dto.CursorSlice;
+import com.example.servicetools.dto.JobLogEntrySummary;
 import com.example.servicetools.model.JobLogEntry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
+import static com.example.servicetools.dao.FilterSpecifications.*;
+
 @Service
 @Transactional
 public class JobLogEntryService {
 
+    // Every column but the payload and stacktrace, which are only tested for null
+    private static final Projection<JobLogEntry, JobLogEntrySummary> SUMMARY = (root, cb) -> cb.construct(JobLogEntrySummary.class,
+        root.get("id"), root.get("jobInstanceId"), root.get("jobName"), root.get("recordId"), root.get("type"),
+        root.get("status"), root.get("eventTs"), root.get("description"),
+        cb.<Boolean>selectCase().when(cb.isNull(root.get("payloadHash")), false).otherwise(true),
+        cb.<Boolean>selectCase().when(cb.isNull(root.get("stacktraceHash")), false).otherwise(true));
+
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Direction.DESC, "eventTs");
+
     @Autowired
     private JobLogEntryRepository repository;
 
+    @Autowired
+    private ChunkedDeleter chunkedDeleter;
+
+    @Autowired
+    private KeysetPager keysetPager;
+
+    @Autowired
+    private ProjectionQueries projectionQueries;
+
+    // Only present with job-log-entries.write-mode=async
+    @Autowired(required = false)
+    private JobLogEntryAppender appender;
+
+    @Autowired
+    private TextBlobStore textBlobStore;
+
     // Create operations
+    // Sync mode commits the entry before returning. Async mode only queues it, with its id set, and returns
+    // null if the overflow policy dropped it; SUPPORTS so no transaction (and connection) is opened for that
+    @Transactional(propagation = Propagation.SUPPORTS)
     public JobLogEntry createJobLogEntry(JobLogEntry jobLogEntry) {
-        return repository.save(jobLogEntry);
+        if (appender != null) {
+            return appender.append(jobLogEntry);
+        }
+        return repository.save(storeTexts(jobLogEntry));
+    }
+
+    // True when created entries are queued rather than committed (job-log-entries.write-mode=async)
+    public boolean isAsyncWriteMode() {
+        return appender != null;
     }
 
     public JobLogEntry saveJobLogEntry(JobLogEntry jobLogEntry) {
-        return repository.save(jobLogEntry);
+        return repository.save(storeTexts(jobLogEntry));
     }
 
     // Read operations
-    public List<JobLogEntry> getAllJobLogEntries() {
-        return repository.findAll();
+    // Listings read JobLogEntrySummary rows, which leave out PAYLOAD and STACKTRACE; getJobLogEntryById has them
+    public List<JobLogEntrySummary> getAllJobLogEntries() {
+        return projectionQueries.list(JobLogEntry.class, null, Sort.unsorted(), SUMMARY);
     }
 
-    public Page<JobLogEntry> getAllJobLogEntries(Pageable pageable) {
-        return repository.findAll(pageable);
+    public Page<JobLogEntrySummary> getAllJobLogEntries(Pageable pageable) {
+        return projectionQueries.page(JobLogEntry.class, null, pageable, SUMMARY);
     }
 
-    public Page<JobLogEntry> getAllJobLogEntries(int page, int size, String sortBy, String sortDirection) {
+    public Page<JobLogEntrySummary> getAllJobLogEntries(int page, int size, String sortBy, String sortDirection) {
         Sort sort = Sort.by(Sort.Direction.fromString(sortDirection), sortBy);
         Pageable pageable = PageRequest.of(page, size, sort);
-        return repository.findAll(pageable);
+        return projectionQueries.page(JobLogEntry.class, null, pageable, SUMMARY);
     }
 
     public Optional<JobLogEntry> getJobLogEntryById(Long id) {
-        return repository.findById(id);
+        return repository.findById(id).map(this::loadTexts);
     }
 
-    public List<JobLogEntry> getJobLogEntriesByJobInstanceId(Long jobInstanceId) {
-        return repository.findByJobInstanceId(jobInstanceId);
+    public List<JobLogEntrySummary> getJobLogEntriesByJobInstanceId(Long jobInstanceId) {
+        return projectionQueries.list(JobLogEntry.class, equalTo("jobInstanceId", jobInstanceId), Sort.unsorted(), SUMMARY);
     }
 
-    public Page<JobLogEntry> getJobLogEntriesByJobInstanceId(Long jobInstanceId, Pageable pageable) {
-        return repository.findByJobInstanceId(jobInstanceId, pageable);
+    public Page<JobLogEntrySummary> getJobLogEntriesByJobInstanceId(Long jobInstanceId, Pageable pageable) {
+        return projectionQueries.page(JobLogEntry.class, equalTo("jobInstanceId", jobInstanceId), pageable, SUMMARY);
     }
 
-    public Page<JobLogEntry> getJobLogEntriesByJobInstanceId(Long jobInstanceId, int page, int size, String sortBy, String sortDirection) {
+    public Page<JobLogEntrySummary> getJobLogEntriesByJobInstanceId(Long jobInstanceId, int page, int size, String sortBy, String sortDirection) {
         Sort sort = Sort.by(Sort.Direction.fromString(sortDirection), sortBy);
         Pageable pageable = PageRequest.of(page, size, sort);
-        return repository.findByJobInstanceId(jobInstanceId, pageable);
+        return projectionQueries.page(JobLogEntry.class, equalTo("jobInstanceId", jobInstanceId), pageable, SUMMARY);
     }
 
-    public List<JobLogEntry> getJobLogEntriesByJobName(String jobName) {
-        return repository.findByJobName(jobName);
+    public List<JobLogEntrySummary> getJobLogEntriesByJobName(String jobName) {
+        return projectionQueries.list(JobLogEntry.class, equalTo("jobName", jobName), Sort.unsorted(), SUMMARY);
     }
 
-    public Page<JobLogEntry> getJobLogEntriesByJobName(String jobName, Pageable pageable) {
-        return repository.findByJobName(jobName, pageable);
+    public Page<JobLogEntrySummary> getJobLogEntriesByJobName(String jobName, Pageable pageable) {
+        return projectionQueries.page(JobLogEntry.class, equalTo("jobName", jobName), pageable, SUMMARY);
     }
 
-    public Page<JobLogEntry> getJobLogEntriesByJobName(String jobName, int page, int size, String sortBy, String sortDirection) {
+    public Page<JobLogEntrySummary> getJobLogEntriesByJobName(String jobName, int page, int size, String sortBy, String sortDirection) {
         Sort sort = Sort.by(Sort.Direction.fromString(sortDirection), sortBy);
         Pageable pageable = PageRequest.of(page, size, sort);
-        return repository.findByJobName(jobName, pageable);
+        return projectionQueries.page(JobLogEntry.class, equalTo("jobName", jobName), pageable, SUMMARY);
     }
 
-    public List<JobLogEntry> getJobLogEntriesByRecordId(Long recordId) {
-        return repository.findByRecordId(recordId);
+    public List<JobLogEntrySummary> getJobLogEntriesByRecordId(Long recordId) {
+        return projectionQueries.list(JobLogEntry.class, equalTo("recordId", recordId), Sort.unsorted(), SUMMARY);
     }
 
-    public Page<JobLogEntry> getJobLogEntriesByRecordId(Long recordId, Pageable pageable) {
-        return repository.findByRecordId(recordId, pageable);
+    public Page<JobLogEntrySummary> getJobLogEntriesByRecordId(Long recordId, Pageable pageable) {
+        return projectionQueries.page(JobLogEntry.class, equalTo("recordId", recordId), pageable, SUMMARY);
     }
 
-    public Page<JobLogEntry> getJobLogEntriesByRecordId(Long recordId, int page, int size, String sortBy, String sortDirection) {
+    public Page<JobLogEntrySummary> getJobLogEntriesByRecordId(Long recordId, int page, int size, String sortBy, String sortDirection) {
         Sort sort = Sort.by(Sort.Direction.fromString(sortDirection), sortBy);
         Pageable pageable = PageRequest.of(page, size, sort);
-        return repository.findByRecordId(recordId, pageable);
+        return projectionQueries.page(JobLogEntry.class, equalTo("recordId", recordId), pageable, SUMMARY);
     }
 
-    public List<JobLogEntry> getJobLogEntriesByType(String type) {
-        return repository.findByType(type);
+    public List<JobLogEntrySummary> getJobLogEntriesByType(String type) {
+        return projectionQueries.list(JobLogEntry.class, equalTo("type", type), Sort.unsorted(), SUMMARY);
     }
 
-    public Page<JobLogEntry> getJobLogEntriesByType(String type, Pageable pageable) {
-        return repository.findByType(type, pageable);
+    public Page<JobLogEntrySummary> getJobLogEntriesByType(String type, Pageable pageable) {
+        return projectionQueries.page(JobLogEntry.class, equalTo("type", type), pageable, SUMMARY);
     }
 
-    public Page<JobLogEntry> getJobLogEntriesByType(String type, int page, int size, String sortBy, String sortDirection) {
+    public Page<JobLogEntrySummary> getJobLogEntriesByType(String type, int page, int size, String sortBy, String sortDirection) {
         Sort sort = Sort.by(Sort.Direction.fromString(sortDirection), sortBy);
         Pageable pageable = PageRequest.of(page, size, sort);
-        return repository.findByType(type, pageable);
+        return projectionQueries.page(JobLogEntry.class, equalTo("type", type), pageable, SUMMARY);
     }
 
-    public List<JobLogEntry> getJobLogEntriesByStatus(String status) {
-        return repository.findByStatus(status);
+    public List<JobLogEntrySummary> getJobLogEntriesByStatus(String status) {
+        return projectionQueries.list(JobLogEntry.class, equalTo("status", status), Sort.unsorted(), SUMMARY);
     }
 
-    public Page<JobLogEntry> getJobLogEntriesByStatus(String status, Pageable pageable) {
-        return repository.findByStatus(status, pageable);
+    public Page<JobLogEntrySummary> getJobLogEntriesByStatus(String status, Pageable pageable) {
+        return projectionQueries.page(JobLogEntry.class, equalTo("status", status), pageable, SUMMARY);
     }
 
-    public Page<JobLogEntry> getJobLogEntriesByStatus(String status, int page, int size, String sortBy, String sortDirection) {
+    public Page<JobLogEntrySummary> getJobLogEntriesByStatus(String status, int page, int size, String sortBy, String sortDirection) {
         Sort sort = Sort.by(Sort.Direction.fromString(sortDirection), sortBy);
         Pageable pageable = PageRequest.of(page, size, sort);
-        return repository.findByStatus(status, pageable);
+        return projectionQueries.page(JobLogEntry.class, equalTo("status", status), pageable, SUMMARY);
     }
 
-    public List<JobLogEntry> getByEventTsRange(LocalDateTime start, LocalDateTime end) {
-        return repository.findByEventTsBetween(start, end);
+    public List<JobLogEntrySummary> getByEventTsRange(LocalDateTime start, LocalDateTime end) {
+        return projectionQueries.list(JobLogEntry.class, between("eventTs", start, end), Sort.unsorted(), SUMMARY);
     }
 
-    public Page<JobLogEntry> getByEventTsRange(LocalDateTime start, LocalDateTime end, Pageable pageable) {
-        return repository.findByEventTsBetween(start, end, pageable);
+    public Page<JobLogEntrySummary> getByEventTsRange(LocalDateTime start, LocalDateTime end, Pageable pageable) {
+        return projectionQueries.page(JobLogEntry.class, between("eventTs", start, end), pageable, SUMMARY);
     }
 
-    public Page<JobLogEntry> getByEventTsRange(LocalDateTime start, LocalDateTime end, int page, int size, String sortBy, String sortDirection) {
+    public Page<JobLogEntrySummary> getByEventTsRange(LocalDateTime start, LocalDateTime end, int page, int size, String sortBy, String sortDirection) {
         Sort sort = Sort.by(Sort.Direction.fromString(sortDirection), sortBy);
         Pageable pageable = PageRequest.of(page, size, sort);
-        return repository.findByEventTsBetween(start, end, pageable);
+        return projectionQueries.page(JobLogEntry.class, between("eventTs", start, end), pageable, SUMMARY);
     }
 
-    public List<JobLogEntry> getRecentSince(LocalDateTime since) {
-        return repository.findRecentSince(since);
+    // Newest first, then by the requested sort, as the former "ORDER BY eventTs DESC" query did
+    public List<JobLogEntrySummary> getRecentSince(LocalDateTime since) {
+        return projectionQueries.list(JobLogEntry.class, atLeast("eventTs", since), NEWEST_FIRST, SUMMARY);
     }
 
-    public Page<JobLogEntry> getRecentSince(LocalDateTime since, Pageable pageable) {
-        return repository.findRecentSince(since, pageable);
+    public Page<JobLogEntrySummary> getRecentSince(LocalDateTime since, Pageable pageable) {
+        Pageable newestFirst = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), NEWEST_FIRST.and(pageable.getSort()));
+        return projectionQueries.page(JobLogEntry.class, atLeast("eventTs", since), newestFirst, SUMMARY);
     }
 
-    public Page<JobLogEntry> getRecentSince(LocalDateTime since, int page, int size, String sortBy, String sortDirection) {
-        Sort sort = Sort.by(Sort.Direction.fromString(sortDirection), sortBy);
+    public Page<JobLogEntrySummary> getRecentSince(LocalDateTime since, int page, int size, String sortBy, String sortDirection) {
+        Sort sort = NEWEST_FIRST.and(Sort.by(Sort.Direction.fromString(sortDirection), sortBy));
         Pageable pageable = PageRequest.of(page, size, sort);
-        return repository.findRecentSince(since, pageable);
+        return projectionQueries.page(JobLogEntry.class, atLeast("eventTs", since), pageable, SUMMARY);
+    }
+
+    // Keyset (cursor) pagination: each slice seeks past the previous one, so no OFFSET scan and no count query
+    public CursorSlice<JobLogEntrySummary> scrollAllJobLogEntries(String cursor, int size, String sortBy, String sortDirection) {
+        return keysetPager.scroll(JobLogEntry.class, null, SUMMARY, cursor, size, sortBy, sortDirection);
+    }
+
+    public CursorSlice<JobLogEntrySummary> scrollJobLogEntriesByJobInstanceId(Long jobInstanceId, String cursor, int size, String sortBy, String sortDirection) {
+        return keysetPager.scroll(JobLogEntry.class, equalTo("jobInstanceId", jobInstanceId), SUMMARY, cursor, size, sortBy, sortDirection);
+    }
+
+    public CursorSlice<JobLogEntrySummary> scrollJobLogEntriesByJobName(String jobName, String cursor, int size, String sortBy, String sortDirection) {
+        return keysetPager.scroll(JobLogEntry.class, equalTo("jobName", jobName), SUMMARY, cursor, size, sortBy, sortDirection);
+    }
+
+    public CursorSlice<JobLogEntrySummary> scrollJobLogEntriesByRecordId(Long recordId, String cursor, int size, String sortBy, String sortDirection) {
+        return keysetPager.scroll(JobLogEntry.class, equalTo("recordId", recordId), SUMMARY, cursor, size, sortBy, sortDirection);
+    }
+
+    public CursorSlice<JobLogEntrySummary> scrollJobLogEntriesByType(String type, String cursor, int size, String sortBy, String sortDirection) {
+        return keysetPager.scroll(JobLogEntry.class, equalTo("type", type), SUMMARY, cursor, size, sortBy, sortDirection);
+    }
+
+    public CursorSlice<JobLogEntrySummary> scrollJobLogEntriesByStatus(String status, String cursor, int size, String sortBy, String sortDirection) {
+        return keysetPager.scroll(JobLogEntry.class, equalTo("status", status), SUMMARY, cursor, size, sortBy, sortDirection);
+    }
+
+    public CursorSlice<JobLogEntrySummary> scrollByEventTsRange(LocalDateTime start, LocalDateTime end, String cursor, int size, String sortBy, String sortDirection) {
+        return keysetPager.scroll(JobLogEntry.class, between("eventTs", start, end), SUMMARY, cursor, size, sortBy, sortDirection);
+    }
+
+    public CursorSlice<JobLogEntrySummary> scrollRecentSince(LocalDateTime since, String cursor, int size, String sortBy, String sortDirection) {
+        return keysetPager.scroll(JobLogEntry.class, atLeast("eventTs", since), SUMMARY, cursor, size, sortBy, sortDirection);
+    }
+
+    public CursorSlice<JobLogEntrySummary> scrollByMultipleParams(Long jobInstanceId, String jobName, Long recordId, String type, String status, LocalDateTime start, LocalDateTime end,
+                                                           String cursor, int size, String sortBy, String sortDirection) {
+        return keysetPager.scroll(JobLogEntry.class, searchFilter(jobInstanceId, jobName, recordId, type, status, start, end),
+            SUMMARY, cursor, size, sortBy, sortDirection);
     }
 
     // Update operations
@@ -161,7 +248,7 @@ public class JobLogEntryService {
             jobLogEntry.setDescription(updatedJobLogEntry.getDescription());
             jobLogEntry.setPayload(updatedJobLogEntry.getPayload());
             jobLogEntry.setStacktrace(updatedJobLogEntry.getStacktrace());
-            return repository.save(jobLogEntry);
+            return repository.save(storeTexts(jobLogEntry));
         }
         throw new RuntimeException("JobLogEntry not found with id: " + id);
     }
@@ -175,17 +262,21 @@ public class JobLogEntryService {
         }
     }
 
-    public void deleteAllJobLogEntries() {
-        repository.deleteAll();
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public long deleteAllJobLogEntries() {
+        return chunkedDeleter.delete("TJOB_LOGENTRY", repository::findIds, repository::deleteByIdIn);
     }
 
-    public void deleteOldJobLogEntries(LocalDateTime cutoffTime) {
-        repository.deleteByEventTsBefore(cutoffTime);
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public long deleteOldJobLogEntries(LocalDateTime cutoffTime) {
+        return chunkedDeleter.delete("TJOB_LOGENTRY", chunk -> repository.findIdsByEventTsBefore(cutoffTime, chunk),
+            repository::deleteByIdIn);
     }
 
-    public void deleteOldJobLogEntriesByDays(int days) {
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public long deleteOldJobLogEntriesByDays(int days) {
         LocalDateTime cutoffTime = LocalDateTime.now().minusDays(days);
-        repository.deleteByEventTsBefore(cutoffTime);
+        return deleteOldJobLogEntries(cutoffTime);
     }
 
     // Utility operations
@@ -199,22 +290,59 @@ public class JobLogEntryService {
 
     // Bulk operations
     public List<JobLogEntry> createMultipleJobLogEntries(List<JobLogEntry> jobLogEntries) {
-        return repository.saveAll(jobLogEntries);
+        return repository.saveAll(storeTexts(jobLogEntries));
+    }
+
+    // Payload and stack trace go to the blob store, each distinct text once; rows keep their hashes
+    private JobLogEntry storeTexts(JobLogEntry jobLogEntry) {
+        storeTexts(List.of(jobLogEntry));
+        return jobLogEntry;
+    }
+
+    private List<JobLogEntry> storeTexts(List<JobLogEntry> jobLogEntries) {
+        List<String> texts = new ArrayList<>(jobLogEntries.size() * 2);
+        for (JobLogEntry jobLogEntry : jobLogEntries) {
+            texts.add(jobLogEntry.getPayload());
+            texts.add(jobLogEntry.getStacktrace());
+        }
+        Map<String, String> hashes = textBlobStore.putAll(texts);
+        for (JobLogEntry jobLogEntry : jobLogEntries) {
+            jobLogEntry.setPayloadHash(jobLogEntry.getPayload() == null ? null : hashes.get(jobLogEntry.getPayload()));
+            jobLogEntry.setStacktraceHash(jobLogEntry.getStacktrace() == null ? null : hashes.get(jobLogEntry.getStacktrace()));
+        }
+        return jobLogEntries;
+    }
+
+    // Inflated only here, for the one entry asked for; listings never read the texts
+    private JobLogEntry loadTexts(JobLogEntry jobLogEntry) {
+        jobLogEntry.setPayload(textBlobStore.get(jobLogEntry.getPayloadHash()));
+        jobLogEntry.setStacktrace(textBlobStore.get(jobLogEntry.getStacktraceHash()));
+        return jobLogEntry;
     }
 
     // Search with multiple parameters
-    public List<JobLogEntry> searchByMultipleParams(Long jobInstanceId, String jobName, Long recordId, String type, String status, LocalDateTime start, LocalDateTime end) {
-        return repository.findByMultipleParams(jobInstanceId, jobName, recordId, type, status, start, end);
+    public List<JobLogEntrySummary> searchByMultipleParams(Long jobInstanceId, String jobName, Long recordId, String type, String status, LocalDateTime start, LocalDateTime end) {
+        return projectionQueries.list(JobLogEntry.class, searchFilter(jobInstanceId, jobName, recordId, type, status, start, end),
+            Sort.unsorted(), SUMMARY);
     }
 
-    public Page<JobLogEntry> searchByMultipleParams(Long jobInstanceId, String jobName, Long recordId, String type, String status, LocalDateTime start, LocalDateTime end, Pageable pageable) {
-        return repository.findByMultipleParams(jobInstanceId, jobName, recordId, type, status, start, end, pageable);
+    public Page<JobLogEntrySummary> searchByMultipleParams(Long jobInstanceId, String jobName, Long recordId, String type, String status, LocalDateTime start, LocalDateTime end, Pageable pageable) {
+        return projectionQueries.page(JobLogEntry.class, searchFilter(jobInstanceId, jobName, recordId, type, status, start, end),
+            pageable, SUMMARY);
     }
 
-    public Page<JobLogEntry> searchByMultipleParams(Long jobInstanceId, String jobName, Long recordId, String type, String status, LocalDateTime start, LocalDateTime end, 
+    public Page<JobLogEntrySummary> searchByMultipleParams(Long jobInstanceId, String jobName, Long recordId, String type, String status, LocalDateTime start, LocalDateTime end, 
                                                     int page, int size, String sortBy, String sortDirection) {
         Sort sort = Sort.by(Sort.Direction.fromString(sortDirection), sortBy);
         Pageable pageable = PageRequest.of(page, size, sort);
-        return repository.findByMultipleParams(jobInstanceId, jobName, recordId, type, status, start, end, pageable);
+        return projectionQueries.page(JobLogEntry.class, searchFilter(jobInstanceId, jobName, recordId, type, status, start, end),
+            pageable, SUMMARY);
+    }
+
+    static Specification<JobLogEntry> searchFilter(Long jobInstanceId, String jobName, Long recordId, String type, String status,
+                                              LocalDateTime start, LocalDateTime end) {
+        return Specification.allOf(
+            equalTo("jobInstanceId", jobInstanceId), equalTo("jobName", jobName), equalTo("recordId", recordId),
+            equalTo("type", type), equalTo("status", status), between("eventTs", start, end));
     }
 }
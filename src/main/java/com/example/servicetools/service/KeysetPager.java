@@ -0,0 +1,191 @@
+package com.example.servicetools.service;
+
+import com.example.servicetools.dao.Projection;
+import com.example.servicetools.dto.CursorSlice;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.metamodel.EntityType;
+import jakarta.persistence.metamodel.SingularAttribute;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Keyset ("seek") pagination over any entity.
+ * <p>
+ * Rows are ordered by the sort attribute, then by id, and each slice continues strictly after the
+ * last row of the previous one: {@code WHERE key <= :k AND (key < :k OR id < :id)} for descending
+ * order. That is the row-value comparison {@code (key, id) < (:k, :id)} spelled so the key alone
+ * bounds an index range, so a slice costs the same at any depth and no count query is run.
+ * <p>
+ * Rows whose sort key is {@code null} sort lowest: after every other row when descending, before them
+ * when ascending. They are read as a separate segment ordered by id, so neither segment needs an
+ * {@code OR key IS NULL} that would stop the database from seeking.
+ * <p>
+ * The cursor is the base64url form of {@code [sortBy, direction, lastKey, lastId]}. Slices may hold a
+ * {@link Projection} of the rows rather than entities, as long as it carries the sort attribute and id.
+ */
+@Component
+public class KeysetPager {
+
+    private final ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public KeysetPager(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * @param filter        restriction on the rows, or {@code null} for all rows
+     * @param cursor        {@code nextCursor} of the previous slice, or {@code null} for the first slice
+     * @param sortDirection {@code asc} or {@code desc}, as for the paginated endpoints
+     * @throws IllegalArgumentException if {@code sortBy} is not a sortable attribute, or the cursor is
+     *                                  malformed or was issued for a different sort
+     */
+    public <T> CursorSlice<T> scroll(Class<T> type, Specification<T> filter, String cursor, int size,
+                                     String sortBy, String sortDirection) {
+        return scroll(type, filter, (root, cb) -> root, cursor, size, sortBy, sortDirection);
+    }
+
+    /**
+     * As {@link #scroll(Class, Specification, String, int, String, String)}, reading each row through
+     * {@code projection}, whose result must have fields named like the sort attribute and the id.
+     */
+    public <T, R> CursorSlice<R> scroll(Class<T> type, Specification<T> filter, Projection<T, R> projection,
+                                        String cursor, int size, String sortBy, String sortDirection) {
+        int limit = Math.max(1, size);
+        boolean descending = Sort.Direction.fromString(sortDirection).isDescending();
+        EntityType<T> entity = entityManager.getMetamodel().entity(type);
+        SingularAttribute<? super T, ?> id = entity.getId(entity.getIdType().getJavaType());
+        SingularAttribute<? super T, ?> key = entity.getSingularAttribute(sortBy);
+        if (!Comparable.class.isAssignableFrom(key.getJavaType())) {
+            throw new IllegalArgumentException("Cannot sort by " + sortBy);
+        }
+        boolean byId = key.getName().equals(id.getName());
+
+        Comparable<?> lastKey = null;
+        Comparable<?> lastId = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            JsonNode position = decode(cursor, key.getName(), descending);
+            lastKey = (Comparable<?>) objectMapper.convertValue(position.get(2), key.getJavaType());
+            lastId = (Comparable<?>) objectMapper.convertValue(position.get(3), id.getJavaType());
+        }
+
+        // Segments in reading order; the cursor's segment is resumed, later ones are read from the start
+        List<Boolean> nullSegments = new ArrayList<>();
+        if (byId || !key.isOptional()) {
+            nullSegments.add(false);
+        } else if (descending) {
+            if (lastId == null || lastKey != null) nullSegments.add(false);
+            nullSegments.add(true);
+        } else {
+            if (lastId == null || lastKey == null) nullSegments.add(true);
+            nullSegments.add(false);
+        }
+
+        List<R> rows = new ArrayList<>(limit + 1);
+        for (boolean nullKeys : nullSegments) {
+            boolean resume = lastId != null && (lastKey == null) == nullKeys;
+            rows.addAll(fetch(type, filter, projection, key.getName(), id.getName(), byId, nullKeys, descending,
+                resume ? lastKey : null, resume ? lastId : null, limit + 1 - rows.size()));
+            if (rows.size() > limit) break;
+        }
+
+        boolean hasNext = rows.size() > limit;
+        List<R> content = hasNext ? new ArrayList<>(rows.subList(0, limit)) : rows;
+        String nextCursor = null;
+        if (hasNext) {
+            R last = content.get(content.size() - 1);
+            var accessor = PropertyAccessorFactory.forDirectFieldAccess(last);
+            if (!accessor.isReadableProperty(key.getName())) {
+                throw new IllegalArgumentException("Cannot sort by " + sortBy);
+            }
+            nextCursor = encode(key.getName(), descending, accessor.getPropertyValue(key.getName()),
+                accessor.getPropertyValue(id.getName()));
+        }
+        return new CursorSlice<>(content, limit, hasNext, nextCursor);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private <T, R> List<R> fetch(Class<T> type, Specification<T> filter, Projection<T, R> projection, String keyName,
+                                 String idName, boolean byId, boolean nullKeys, boolean descending, Comparable lastKey,
+                                 Comparable lastId, int maxResults) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        // Typed by the selection, which is only known once the root exists
+        CriteriaQuery query = cb.createQuery();
+        Root<T> root = query.from(type);
+        query.select(projection.toSelection(root, cb));
+        Path key = root.get(keyName);
+        Path id = root.get(idName);
+
+        List<Predicate> where = new ArrayList<>();
+        if (filter != null) {
+            Predicate restriction = filter.toPredicate(root, query, cb);
+            if (restriction != null) where.add(restriction);
+        }
+        Predicate afterId = lastId == null ? null : descending ? cb.lessThan(id, lastId) : cb.greaterThan(id, lastId);
+        if (byId) {
+            if (afterId != null) where.add(afterId);
+            query.orderBy(descending ? cb.desc(id) : cb.asc(id));
+        } else if (nullKeys) {
+            where.add(cb.isNull(key));
+            if (afterId != null) where.add(afterId);
+            query.orderBy(descending ? cb.desc(id) : cb.asc(id));
+        } else {
+            where.add(cb.isNotNull(key));
+            if (afterId != null) {
+                where.add(descending ? cb.lessThanOrEqualTo(key, lastKey) : cb.greaterThanOrEqualTo(key, lastKey));
+                where.add(cb.or(descending ? cb.lessThan(key, lastKey) : cb.greaterThan(key, lastKey), afterId));
+            }
+            query.orderBy(descending ? cb.desc(key) : cb.asc(key), descending ? cb.desc(id) : cb.asc(id));
+        }
+        query.where(where.toArray(new Predicate[0]));
+        return entityManager.createQuery(query).setMaxResults(maxResults).getResultList();
+    }
+
+    private String encode(String sortBy, boolean descending, Object lastKey, Object lastId) {
+        ArrayNode position = objectMapper.createArrayNode();
+        position.add(sortBy);
+        position.add(descending ? "desc" : "asc");
+        position.add(objectMapper.valueToTree(lastKey));
+        position.add(objectMapper.valueToTree(lastId));
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(objectMapper.writeValueAsBytes(position));
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot encode cursor", e);
+        }
+    }
+
+    private JsonNode decode(String cursor, String sortBy, boolean descending) {
+        JsonNode position;
+        try {
+            position = objectMapper.readTree(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException | IOException e) {
+            throw new IllegalArgumentException("Malformed cursor", e);
+        }
+        if (position == null || !position.isArray() || position.size() != 4 || position.get(3).isNull()) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+        if (!sortBy.equals(position.get(0).asText()) || !(descending ? "desc" : "asc").equals(position.get(1).asText())) {
+            throw new IllegalArgumentException("Cursor was issued for a different sort");
+        }
+        return position;
+    }
+}
@@ -1,52 +1,82 @@
 package com.example.servicetools.service;
 
 import com.example.servicetools.dao.LogNotificationRepository;
+import com.example.servicetools.dao.Projection;
+import com.example.servicetools.dto.CursorSlice;
+import com.example.servicetools.dto.LogNotificationSummary;
 import com.example.servicetools.model.LogNotification;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
+import static com.example.servicetools.dao.FilterSpecifications.*;
+
 @Service
 @Transactional
 public class LogNotificationService {
 
+    // Every column but the stack trace, which is only tested for null
+    private static final Projection<LogNotification, LogNotificationSummary> SUMMARY = (root, cb) -> cb.construct(LogNotificationSummary.class,
+        root.get("id"), root.get("partyId"), root.get("cMode"), root.get("lastUpdateTime"), root.get("source"),
+        root.get("receivedTime"), root.get("completedTime"), root.get("succesfullyProcessed"),
+        cb.<Boolean>selectCase().when(cb.isNull(root.get("stackTraceHash")), false).otherwise(true));
+
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Direction.DESC, "receivedTime");
+
     @Autowired
     private LogNotificationRepository repository;
 
+    @Autowired
+    private ChunkedDeleter chunkedDeleter;
+
+    @Autowired
+    private KeysetPager keysetPager;
+
+    @Autowired
+    private ProjectionQueries projectionQueries;
+
+    @Autowired
+    private TextBlobStore textBlobStore;
+
     // Create operations
     public LogNotification createLogNotification(LogNotification notification) {
-        return repository.save(notification);
+        return repository.save(storeStackTrace(notification));
     }
 
     public LogNotification saveLogNotification(LogNotification notification) {
-        return repository.save(notification);
+        return repository.save(storeStackTrace(notification));
     }
 
     // Read operations
-    public List<LogNotification> getAllLogNotifications() {
-        return repository.findAll();
+    // Listings read LogNotificationSummary rows, which leave out STACK_TRACE; getLogNotificationById has it
+    public List<LogNotificationSummary> getAllLogNotifications() {
+        return projectionQueries.list(LogNotification.class, null, Sort.unsorted(), SUMMARY);
     }
 
-    public Page<LogNotification> getAllLogNotifications(Pageable pageable) {
-        return repository.findAll(pageable);
+    public Page<LogNotificationSummary> getAllLogNotifications(Pageable pageable) {
+        return projectionQueries.page(LogNotification.class, null, pageable, SUMMARY);
     }
 
-    public Page<LogNotification> getAllLogNotifications(int page, int size, String sortBy, String sortDirection) {
+    public Page<LogNotificationSummary> getAllLogNotifications(int page, int size, String sortBy, String sortDirection) {
         Sort sort = Sort.by(Sort.Direction.fromString(sortDirection), sortBy);
         Pageable pageable = PageRequest.of(page, size, sort);
-        return repository.findAll(pageable);
+        return projectionQueries.page(LogNotification.class, null, pageable, SUMMARY);
     }
 
     public Optional<LogNotification> getLogNotificationById(Long id) {
-        return repository.findById(id);
+        return repository.findById(id).map(this::loadStackTrace);
     }
 
     /* public List<LogNotification> getLogNotificationsByCMode(String cMode) {
@@ -64,102 +94,136 @@ public class LogNotificationService {
         return repository.findByCMode(cMode, pageable);
     } */
 
-    public List<LogNotification> getLogNotificationsBySource(String source) {
-        return repository.findBySource(source);
+    public List<LogNotificationSummary> getLogNotificationsBySource(String source) {
+        return projectionQueries.list(LogNotification.class, equalTo("source", source), Sort.unsorted(), SUMMARY);
     }
 
-    public Page<LogNotification> getLogNotificationsBySource(String source, Pageable pageable) {
-        return repository.findBySource(source, pageable);
+    public Page<LogNotificationSummary> getLogNotificationsBySource(String source, Pageable pageable) {
+        return projectionQueries.page(LogNotification.class, equalTo("source", source), pageable, SUMMARY);
     }
 
-    public Page<LogNotification> getLogNotificationsBySource(String source, int page, int size, String sortBy, String sortDirection) {
+    public Page<LogNotificationSummary> getLogNotificationsBySource(String source, int page, int size, String sortBy, String sortDirection) {
         Sort sort = Sort.by(Sort.Direction.fromString(sortDirection), sortBy);
         Pageable pageable = PageRequest.of(page, size, sort);
-        return repository.findBySource(source, pageable);
+        return projectionQueries.page(LogNotification.class, equalTo("source", source), pageable, SUMMARY);
     }
 
-    public List<LogNotification> getLogNotificationsByPartyId(Long partyId) {
-        return repository.findByPartyId(partyId);
+    public List<LogNotificationSummary> getLogNotificationsByPartyId(Long partyId) {
+        return projectionQueries.list(LogNotification.class, equalTo("partyId", partyId), Sort.unsorted(), SUMMARY);
     }
 
-    public Page<LogNotification> getLogNotificationsByPartyId(Long partyId, Pageable pageable) {
-        return repository.findByPartyId(partyId, pageable);
+    public Page<LogNotificationSummary> getLogNotificationsByPartyId(Long partyId, Pageable pageable) {
+        return projectionQueries.page(LogNotification.class, equalTo("partyId", partyId), pageable, SUMMARY);
     }
 
-    public Page<LogNotification> getLogNotificationsByPartyId(Long partyId, int page, int size, String sortBy, String sortDirection) {
+    public Page<LogNotificationSummary> getLogNotificationsByPartyId(Long partyId, int page, int size, String sortBy, String sortDirection) {
         Sort sort = Sort.by(Sort.Direction.fromString(sortDirection), sortBy);
         Pageable pageable = PageRequest.of(page, size, sort);
-        return repository.findByPartyId(partyId, pageable);
+        return projectionQueries.page(LogNotification.class, equalTo("partyId", partyId), pageable, SUMMARY);
     }
 
-    public List<LogNotification> getLogNotificationsBySuccess(Boolean succesfullyProcessed) {
-        return repository.findBySuccesfullyProcessed(succesfullyProcessed);
+    public List<LogNotificationSummary> getLogNotificationsBySuccess(Boolean succesfullyProcessed) {
+        return projectionQueries.list(LogNotification.class, equalTo("succesfullyProcessed", succesfullyProcessed), Sort.unsorted(), SUMMARY);
     }
 
-    public Page<LogNotification> getLogNotificationsBySuccess(Boolean succesfullyProcessed, Pageable pageable) {
-        return repository.findBySuccesfullyProcessed(succesfullyProcessed, pageable);
+    public Page<LogNotificationSummary> getLogNotificationsBySuccess(Boolean succesfullyProcessed, Pageable pageable) {
+        return projectionQueries.page(LogNotification.class, equalTo("succesfullyProcessed", succesfullyProcessed), pageable, SUMMARY);
     }
 
-    public Page<LogNotification> getLogNotificationsBySuccess(Boolean succesfullyProcessed, int page, int size, String sortBy, String sortDirection) {
+    public Page<LogNotificationSummary> getLogNotificationsBySuccess(Boolean succesfullyProcessed, int page, int size, String sortBy, String sortDirection) {
         Sort sort = Sort.by(Sort.Direction.fromString(sortDirection), sortBy);
         Pageable pageable = PageRequest.of(page, size, sort);
-        return repository.findBySuccesfullyProcessed(succesfullyProcessed, pageable);
+        return projectionQueries.page(LogNotification.class, equalTo("succesfullyProcessed", succesfullyProcessed), pageable, SUMMARY);
     }
 
-    public List<LogNotification> getByLastUpdateRange(ZonedDateTime start, ZonedDateTime end) {
-        return repository.findByLastUpdateTimeBetween(start, end);
+    public List<LogNotificationSummary> getByLastUpdateRange(ZonedDateTime start, ZonedDateTime end) {
+        return projectionQueries.list(LogNotification.class, between("lastUpdateTime", start, end), Sort.unsorted(), SUMMARY);
     }
 
-    public Page<LogNotification> getByLastUpdateRange(ZonedDateTime start, ZonedDateTime end, Pageable pageable) {
-        return repository.findByLastUpdateTimeBetween(start, end, pageable);
+    public Page<LogNotificationSummary> getByLastUpdateRange(ZonedDateTime start, ZonedDateTime end, Pageable pageable) {
+        return projectionQueries.page(LogNotification.class, between("lastUpdateTime", start, end), pageable, SUMMARY);
     }
 
-    public Page<LogNotification> getByLastUpdateRange(ZonedDateTime start, ZonedDateTime end, int page, int size, String sortBy, String sortDirection) {
+    public Page<LogNotificationSummary> getByLastUpdateRange(ZonedDateTime start, ZonedDateTime end, int page, int size, String sortBy, String sortDirection) {
         Sort sort = Sort.by(Sort.Direction.fromString(sortDirection), sortBy);
         Pageable pageable = PageRequest.of(page, size, sort);
-        return repository.findByLastUpdateTimeBetween(start, end, pageable);
+        return projectionQueries.page(LogNotification.class, between("lastUpdateTime", start, end), pageable, SUMMARY);
     }
 
-    public List<LogNotification> getByReceivedRange(ZonedDateTime start, ZonedDateTime end) {
-        return repository.findByReceivedTimeBetween(start, end);
+    public List<LogNotificationSummary> getByReceivedRange(ZonedDateTime start, ZonedDateTime end) {
+        return projectionQueries.list(LogNotification.class, between("receivedTime", start, end), Sort.unsorted(), SUMMARY);
     }
 
-    public Page<LogNotification> getByReceivedRange(ZonedDateTime start, ZonedDateTime end, Pageable pageable) {
-        return repository.findByReceivedTimeBetween(start, end, pageable);
+    public Page<LogNotificationSummary> getByReceivedRange(ZonedDateTime start, ZonedDateTime end, Pageable pageable) {
+        return projectionQueries.page(LogNotification.class, between("receivedTime", start, end), pageable, SUMMARY);
     }
 
-    public Page<LogNotification> getByReceivedRange(ZonedDateTime start, ZonedDateTime end, int page, int size, String sortBy, String sortDirection) {
+    public Page<LogNotificationSummary> getByReceivedRange(ZonedDateTime start, ZonedDateTime end, int page, int size, String sortBy, String sortDirection) {
         Sort sort = Sort.by(Sort.Direction.fromString(sortDirection), sortBy);
         Pageable pageable = PageRequest.of(page, size, sort);
-        return repository.findByReceivedTimeBetween(start, end, pageable);
+        return projectionQueries.page(LogNotification.class, between("receivedTime", start, end), pageable, SUMMARY);
     }
 
-    public List<LogNotification> getByCompletedRange(ZonedDateTime start, ZonedDateTime end) {
-        return repository.findByCompletedTimeBetween(start, end);
+    public List<LogNotificationSummary> getByCompletedRange(ZonedDateTime start, ZonedDateTime end) {
+        return projectionQueries.list(LogNotification.class, between("completedTime", start, end), Sort.unsorted(), SUMMARY);
     }
 
-    public Page<LogNotification> getByCompletedRange(ZonedDateTime start, ZonedDateTime end, Pageable pageable) {
-        return repository.findByCompletedTimeBetween(start, end, pageable);
+    public Page<LogNotificationSummary> getByCompletedRange(ZonedDateTime start, ZonedDateTime end, Pageable pageable) {
+        return projectionQueries.page(LogNotification.class, between("completedTime", start, end), pageable, SUMMARY);
     }
 
-    public Page<LogNotification> getByCompletedRange(ZonedDateTime start, ZonedDateTime end, int page, int size, String sortBy, String sortDirection) {
+    public Page<LogNotificationSummary> getByCompletedRange(ZonedDateTime start, ZonedDateTime end, int page, int size, String sortBy, String sortDirection) {
         Sort sort = Sort.by(Sort.Direction.fromString(sortDirection), sortBy);
         Pageable pageable = PageRequest.of(page, size, sort);
-        return repository.findByCompletedTimeBetween(start, end, pageable);
+        return projectionQueries.page(LogNotification.class, between("completedTime", start, end), pageable, SUMMARY);
     }
 
-    public List<LogNotification> getRecentSince(ZonedDateTime since) {
-        return repository.findRecentSince(since);
+    // Newest first, then by the requested sort, as the former "ORDER BY receivedTime DESC" query did
+    public List<LogNotificationSummary> getRecentSince(ZonedDateTime since) {
+        return projectionQueries.list(LogNotification.class, atLeast("receivedTime", since), NEWEST_FIRST, SUMMARY);
     }
 
-    public Page<LogNotification> getRecentSince(ZonedDateTime since, Pageable pageable) {
-        return repository.findRecentSince(since, pageable);
+    public Page<LogNotificationSummary> getRecentSince(ZonedDateTime since, Pageable pageable) {
+        Pageable newestFirst = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), NEWEST_FIRST.and(pageable.getSort()));
+        return projectionQueries.page(LogNotification.class, atLeast("receivedTime", since), newestFirst, SUMMARY);
     }
 
-    public Page<LogNotification> getRecentSince(ZonedDateTime since, int page, int size, String sortBy, String sortDirection) {
-        Sort sort = Sort.by(Sort.Direction.fromString(sortDirection), sortBy);
+    public Page<LogNotificationSummary> getRecentSince(ZonedDateTime since, int page, int size, String sortBy, String sortDirection) {
+        Sort sort = NEWEST_FIRST.and(Sort.by(Sort.Direction.fromString(sortDirection), sortBy));
         Pageable pageable = PageRequest.of(page, size, sort);
-        return repository.findRecentSince(since, pageable);
+        return projectionQueries.page(LogNotification.class, atLeast("receivedTime", since), pageable, SUMMARY);
+    }
+
+    // Keyset (cursor) pagination: each slice seeks past the previous one, so no OFFSET scan and no count query
+    public CursorSlice<LogNotificationSummary> scrollAllLogNotifications(String cursor, int size, String sortBy, String sortDirection) {
+        return keysetPager.scroll(LogNotification.class, null, SUMMARY, cursor, size, sortBy, sortDirection);
+    }
+
+    public CursorSlice<LogNotificationSummary> scrollLogNotificationsBySource(String source, String cursor, int size, String sortBy, String sortDirection) {
+        return keysetPager.scroll(LogNotification.class, equalTo("source", source), SUMMARY, cursor, size, sortBy, sortDirection);
+    }
+
+    public CursorSlice<LogNotificationSummary> scrollLogNotificationsByPartyId(Long partyId, String cursor, int size, String sortBy, String sortDirection) {
+        return keysetPager.scroll(LogNotification.class, equalTo("partyId", partyId), SUMMARY, cursor, size, sortBy, sortDirection);
+    }
+
+    public CursorSlice<LogNotificationSummary> scrollLogNotificationsBySuccess(Boolean succesfullyProcessed, String cursor, int size, String sortBy, String sortDirection) {
+        return keysetPager.scroll(LogNotification.class, equalTo("succesfullyProcessed", succesfullyProcessed), SUMMARY, cursor, size, sortBy, sortDirection);
+    }
+
+    public CursorSlice<LogNotificationSummary> scrollByReceivedRange(ZonedDateTime start, ZonedDateTime end, String cursor, int size, String sortBy, String sortDirection) {
+        return keysetPager.scroll(LogNotification.class, between("receivedTime", start, end), SUMMARY, cursor, size, sortBy, sortDirection);
+    }
+
+    public CursorSlice<LogNotificationSummary> scrollRecentSince(ZonedDateTime since, String cursor, int size, String sortBy, String sortDirection) {
+        return keysetPager.scroll(LogNotification.class, atLeast("receivedTime", since), SUMMARY, cursor, size, sortBy, sortDirection);
+    }
+
+    public CursorSlice<LogNotificationSummary> scrollByMultipleParams(Long partyId, Boolean success, String source, String cMode,
+                                                               ZonedDateTime start, ZonedDateTime end,
+                                                               String cursor, int size, String sortBy, String sortDirection) {
+        return keysetPager.scroll(LogNotification.class, searchFilter(partyId, success, source, cMode, start, end),
+            SUMMARY, cursor, size, sortBy, sortDirection);
     }
 
     // Update operations
@@ -175,7 +239,7 @@ public class LogNotificationService {
             notification.setCompletedTime(updatedNotification.getCompletedTime());
             notification.setSuccesfullyProcessed(updatedNotification.getSuccesfullyProcessed());
             notification.setStackTrace(updatedNotification.getStackTrace());
-            return repository.save(notification);
+            return repository.save(storeStackTrace(notification));
         }
         throw new RuntimeException("LogNotification not found with id: " + id);
     }
@@ -189,17 +253,21 @@ public class LogNotificationService {
         }
     }
 
-    public void deleteAllLogNotifications() {
-        repository.deleteAll();
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public long deleteAllLogNotifications() {
+        return chunkedDeleter.delete("LOG_NOTIFICATIONS", repository::findIds, repository::deleteByIdIn);
     }
 
-    public void deleteOldLogNotifications(ZonedDateTime cutoffTime) {
-        repository.deleteByReceivedTimeBefore(cutoffTime);
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public long deleteOldLogNotifications(ZonedDateTime cutoffTime) {
+        return chunkedDeleter.delete("LOG_NOTIFICATIONS", chunk -> repository.findIdsByReceivedTimeBefore(cutoffTime, chunk),
+            repository::deleteByIdIn);
     }
 
-    public void deleteOldLogNotificationsByDays(int days) {
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public long deleteOldLogNotificationsByDays(int days) {
         ZonedDateTime cutoffTime = ZonedDateTime.now().minusDays(days);
-        repository.deleteByReceivedTimeBefore(cutoffTime);
+        return deleteOldLogNotifications(cutoffTime);
     }
 
     // Utility operations
@@ -217,25 +285,55 @@ public class LogNotificationService {
 
     // Bulk operations
     public List<LogNotification> createMultipleLogNotifications(List<LogNotification> notifications) {
+        List<String> stackTraces = new ArrayList<>(notifications.size());
+        for (LogNotification notification : notifications) {
+            stackTraces.add(notification.getStackTrace());
+        }
+        Map<String, String> hashes = textBlobStore.putAll(stackTraces);
+        for (LogNotification notification : notifications) {
+            notification.setStackTraceHash(notification.getStackTrace() == null ? null : hashes.get(notification.getStackTrace()));
+        }
         return repository.saveAll(notifications);
     }
 
+    // The stack trace goes to the blob store, each distinct text once; the row keeps its hash
+    private LogNotification storeStackTrace(LogNotification notification) {
+        notification.setStackTraceHash(textBlobStore.put(notification.getStackTrace()));
+        return notification;
+    }
+
+    // Inflated only here, for the one notification asked for; listings never read it
+    private LogNotification loadStackTrace(LogNotification notification) {
+        notification.setStackTrace(textBlobStore.get(notification.getStackTraceHash()));
+        return notification;
+    }
+
     // Search with multiple parameters
-    public List<LogNotification> searchByMultipleParams(Long partyId, Boolean success, String source, String cMode,
-                                                       ZonedDateTime start, ZonedDateTime end) {
-        return repository.findByMultipleParams(partyId, success, source, cMode, start, end);
+    public List<LogNotificationSummary> searchByMultipleParams(Long partyId, Boolean success, String source, String cMode,
+                                                              ZonedDateTime start, ZonedDateTime end) {
+        return projectionQueries.list(LogNotification.class, searchFilter(partyId, success, source, cMode, start, end),
+            Sort.unsorted(), SUMMARY);
     }
 
-    public Page<LogNotification> searchByMultipleParams(Long partyId, Boolean success, String source, String cMode,
-                                                       ZonedDateTime start, ZonedDateTime end, Pageable pageable) {
-        return repository.findByMultipleParams(partyId, success, source, cMode, start, end, pageable);
+    public Page<LogNotificationSummary> searchByMultipleParams(Long partyId, Boolean success, String source, String cMode,
+                                                              ZonedDateTime start, ZonedDateTime end, Pageable pageable) {
+        return projectionQueries.page(LogNotification.class, searchFilter(partyId, success, source, cMode, start, end),
+            pageable, SUMMARY);
     }
 
-    public Page<LogNotification> searchByMultipleParams(Long partyId, Boolean success, String source, String cMode,
-                                                       ZonedDateTime start, ZonedDateTime end, 
-                                                       int page, int size, String sortBy, String sortDirection) {
+    public Page<LogNotificationSummary> searchByMultipleParams(Long partyId, Boolean success, String source, String cMode,
+                                                              ZonedDateTime start, ZonedDateTime end,
+                                                              int page, int size, String sortBy, String sortDirection) {
         Sort sort = Sort.by(Sort.Direction.fromString(sortDirection), sortBy);
         Pageable pageable = PageRequest.of(page, size, sort);
-        return repository.findByMultipleParams(partyId, success, source, cMode, start, end, pageable);
+        return projectionQueries.page(LogNotification.class, searchFilter(partyId, success, source, cMode, start, end),
+            pageable, SUMMARY);
+    }
+
+    static Specification<LogNotification> searchFilter(Long partyId, Boolean success, String source, String cMode,
+                                                  ZonedDateTime start, ZonedDateTime end) {
+        return Specification.allOf(
+            equalTo("partyId", partyId), equalTo("succesfullyProcessed", success), equalTo("source", source),
+            equalTo("cMode", cMode), between("receivedTime", start, end));
     }
-}
\ No newline at end of file
+}
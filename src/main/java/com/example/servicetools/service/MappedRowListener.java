@@ -0,0 +1,16 @@
+package com.example.servicetools.service;
+
+import com.example.servicetools.dto.SimpleClient;
+
+/**
+ * Receives mapped rows in sheet order together with the row they came from.
+ */
+@FunctionalInterface
+public interface MappedRowListener {
+
+    /**
+     * @param rowNum zero-based row number as stored in the sheet
+     * @param client the row bound to its DTO
+     */
+    void onMappedRow(int rowNum, SimpleClient client);
+}
@@ -0,0 +1,29 @@
+package com.example.servicetools.service;
+
+import org.apache.poi.ss.usermodel.DataFormatter;
+
+/**
+ * A numeric cell as read from the sheet: the raw value plus its number format, and whether
+ * the workbook counts dates from 1904 rather than 1900. Formatting is deferred until a text
+ * value is actually needed, so numeric targets take {@link #value()} directly.
+ */
+public record NumericCell(double value, int formatIndex, String formatString, boolean date1904) {
+
+    // DataFormatter is not thread-safe and is costly to create
+    private static final ThreadLocal<DataFormatter> FORMATTER = ThreadLocal.withInitial(DataFormatter::new);
+
+    /** @return whether the value is a whole number that fits in a {@code long} */
+    public boolean isIntegral() {
+        return value == Math.rint(value) && value >= Long.MIN_VALUE && value <= Long.MAX_VALUE;
+    }
+
+    /** @return the value as Excel displays it, the same text {@link DataFormatter} produces for the cell */
+    public String format() {
+        return FORMATTER.get().formatRawCellContents(value, formatIndex, formatString, date1904);
+    }
+
+    @Override
+    public String toString() {
+        return format();
+    }
+}
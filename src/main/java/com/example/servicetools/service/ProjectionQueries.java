@@ -0,0 +1,82 @@
+package com.example.servicetools.service;
+
+import com.example.servicetools.dao.Projection;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Runs {@link Specification} queries that select a {@link Projection} instead of whole entities, for
+ * listings that do not show every column. Paging and counting follow
+ * {@link org.springframework.data.jpa.repository.JpaSpecificationExecutor}: the count query is
+ * skipped when the page content already tells the total.
+ */
+@Component
+public class ProjectionQueries {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * @param filter restriction on the rows, or {@code null} for all rows
+     */
+    public <T, R> List<R> list(Class<T> type, Specification<T> filter, Sort sort, Projection<T, R> projection) {
+        return query(type, filter, sort, projection).getResultList();
+    }
+
+    /**
+     * @param filter restriction on the rows, or {@code null} for all rows
+     */
+    public <T, R> Page<R> page(Class<T> type, Specification<T> filter, Pageable pageable, Projection<T, R> projection) {
+        TypedQuery<R> query = query(type, filter, pageable.getSort(), projection);
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset());
+            query.setMaxResults(pageable.getPageSize());
+        }
+        return PageableExecutionUtils.getPage(query.getResultList(), pageable, () -> count(type, filter));
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private <T, R> TypedQuery<R> query(Class<T> type, Specification<T> filter, Sort sort, Projection<T, R> projection) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        // Typed by the selection, which is only known once the root exists
+        CriteriaQuery query = cb.createQuery();
+        Root<T> root = query.from(type);
+        Selection<R> selection = projection.toSelection(root, cb);
+        query.select(selection);
+        Predicate restriction = filter == null ? null : filter.toPredicate(root, query, cb);
+        if (restriction != null) {
+            query.where(restriction);
+        }
+        if (sort.isSorted()) {
+            query.orderBy(QueryUtils.toOrders(sort, root, cb));
+        }
+        return entityManager.createQuery(query);
+    }
+
+    private <T> long count(Class<T> type, Specification<T> filter) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<T> root = query.from(type);
+        query.select(cb.count(root));
+        Predicate restriction = filter == null ? null : filter.toPredicate(root, query, cb);
+        if (restriction != null) {
+            query.where(restriction);
+        }
+        return entityManager.createQuery(query).getSingleResult();
+    }
+}
@@ -0,0 +1,387 @@
+package com.example.servicetools.service;
+
+import com.example.servicetools.dto.UploadSessionStatus;
+import com.example.servicetools.model.JobInstance;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Resumable uploads: a session is initiated, its bytes arrive as chunks written at explicit offsets,
+ * and completing it queues the file as an {@link ExcelIngestionJobService} job.
+ * <p>
+ * Chunks are streamed from the request body straight into the session's file; nothing is buffered
+ * in memory and a connection that drops mid-chunk keeps every byte that was written. A chunk that
+ * starts before the current offset has its already-received prefix skipped, so resending a chunk
+ * whose response was lost is harmless. The file is fsynced every
+ * {@code excel.upload.sessions.fsync-every-mb} rather than per chunk, and the fsynced offset is
+ * recorded next to it; after a restart sessions resume from that offset and the client re-sends the
+ * rest. Sessions idle for longer than {@code expire-after-minutes} are discarded.
+ */
+@Service
+public class ResumableUploadService {
+
+    private static final Logger log = LoggerFactory.getLogger(ResumableUploadService.class);
+
+    private static final String DATA_SUFFIX = ".part";
+    private static final String META_SUFFIX = ".session";
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final long SESSIONS_FULL_RETRY_SECONDS = 60;
+
+    private final ExcelIngestionJobService excelIngestionJobService;
+    private final Path directory;
+    private final long maxSizeBytes;
+    private final long maxChunkBytes;
+    private final long fsyncEveryBytes;
+    private final Duration expireAfter;
+    private final int maxSessions;
+
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+
+    public ResumableUploadService(ExcelIngestionJobService excelIngestionJobService,
+                                  @Value("${excel.upload.sessions.dir:${java.io.tmpdir}/service-tools/upload-sessions}") String directory,
+                                  @Value("${excel.upload.sessions.max-size-mb:2048}") long maxSizeMb,
+                                  @Value("${excel.upload.sessions.max-chunk-mb:64}") long maxChunkMb,
+                                  @Value("${excel.upload.sessions.fsync-every-mb:8}") long fsyncEveryMb,
+                                  @Value("${excel.upload.sessions.expire-after-minutes:1440}") long expireAfterMinutes,
+                                  @Value("${excel.upload.sessions.max-sessions:100}") int maxSessions) throws IOException {
+        this.excelIngestionJobService = excelIngestionJobService;
+        this.directory = Path.of(directory);
+        this.maxSizeBytes = maxSizeMb * 1024 * 1024;
+        this.maxChunkBytes = maxChunkMb * 1024 * 1024;
+        this.fsyncEveryBytes = Math.max(1, fsyncEveryMb * 1024 * 1024);
+        this.expireAfter = Duration.ofMinutes(expireAfterMinutes);
+        this.maxSessions = maxSessions;
+        Files.createDirectories(this.directory);
+        recover();
+    }
+
+    /**
+     * Starts a session for {@code filename}, whose extension selects the reader as for direct uploads.
+     *
+     * @param size total bytes the client will send, or {@code null} if not known up front
+     */
+    public UploadSessionStatus initiate(String filename, Long size) throws IOException {
+        if (filename == null || filename.isBlank()) {
+            throw new IllegalArgumentException("filename is required");
+        }
+        if (size != null && size < 0) {
+            throw new IllegalArgumentException("size must not be negative");
+        }
+        if (size != null && size > maxSizeBytes) {
+            throw UploadRejectedException.tooLarge("Upload of " + size + " bytes exceeds the limit of " + maxSizeBytes);
+        }
+        purgeExpired();
+        if (sessions.size() >= maxSessions) {
+            throw new UploadRejectedException(UploadRejectedException.Reason.BUSY,
+                maxSessions + " upload sessions are already open", SESSIONS_FULL_RETRY_SECONDS);
+        }
+
+        String id = UUID.randomUUID().toString();
+        FileChannel channel = FileChannel.open(dataFile(id), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        Session session = new Session(id, filename, size, LocalDateTime.now(), channel, 0);
+        try {
+            writeMeta(session);
+        } catch (IOException e) {
+            discard(session);
+            throw e;
+        }
+        sessions.put(id, session);
+        log.info("Upload session {} started for {} ({} bytes)", id, filename, size == null ? "unknown" : size);
+        return status(session);
+    }
+
+    public UploadSessionStatus status(String id) {
+        return status(session(id));
+    }
+
+    /**
+     * Appends the bytes of {@code body} at {@code offset}. The offset may be lower than the session's
+     * current offset (bytes it already holds are skipped) but not higher.
+     *
+     * @return the session with its new offset
+     * @throws UploadSessionException  when the offset is past the bytes received, or another chunk is
+     *                                 being written to the session
+     * @throws UploadRejectedException when the chunk or the upload exceeds its size limit; the bytes
+     *                                 before the limit are kept
+     */
+    public UploadSessionStatus append(String id, long offset, InputStream body) throws IOException {
+        Session session = session(id);
+        lock(session);
+        try {
+            if (offset < 0 || offset > session.offset) {
+                throw new UploadSessionException(UploadSessionException.Reason.OFFSET_MISMATCH,
+                    "Chunk starts at " + offset + " but upload session " + id + " holds " + session.offset + " bytes",
+                    session.offset);
+            }
+            long limit = session.size != null ? session.size : maxSizeBytes;
+            long skip = session.offset - offset;
+            long chunkBytes = 0;
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            int read;
+            while ((read = body.read(buffer.array())) != -1) {
+                chunkBytes += read;
+                if (chunkBytes > maxChunkBytes) {
+                    throw UploadRejectedException.tooLarge("Chunk exceeds the limit of " + maxChunkBytes + " bytes");
+                }
+                int from = (int) Math.min(skip, read);
+                skip -= from;
+                if (from == read) continue;
+                if (session.offset + read - from > limit) {
+                    throw UploadRejectedException.tooLarge("Upload session " + id + " would exceed " + limit + " bytes");
+                }
+
+                buffer.limit(read).position(from);
+                while (buffer.hasRemaining()) {
+                    session.offset += session.channel.write(buffer, session.offset);
+                }
+                buffer.clear();
+                if (session.offset - session.syncedOffset >= fsyncEveryBytes) {
+                    sync(session);
+                }
+            }
+            return status(session);
+        } finally {
+            session.lastActivity = Instant.now();
+            session.lock.unlock();
+        }
+    }
+
+    /**
+     * Queues the session's file for ingestion and ends the session; the job owns the file from here on.
+     * If the job cannot be queued the session is left as it was, so the client can complete it again.
+     *
+     * @param persist whether the job stores the mapped rows as clients
+     * @throws UploadSessionException when fewer bytes than the declared size have arrived
+     * @throws org.springframework.core.task.TaskRejectedException when the job queue is full
+     */
+    public JobInstance complete(String id, boolean persist) throws IOException {
+        Session session = session(id);
+        lock(session);
+        try {
+            if (session.offset == 0 || (session.size != null && session.offset != session.size)) {
+                throw new UploadSessionException(UploadSessionException.Reason.INCOMPLETE,
+                    "Upload session " + id + " holds " + session.offset + " of "
+                        + (session.size == null ? "unknown" : session.size) + " bytes", session.offset);
+            }
+            session.channel.force(false);
+            // Still holding the lock, so no chunk arrives between queuing the job and closing the session
+            JobInstance job = excelIngestionJobService.submit(dataFile(id), session.filename, persist);
+            close(session);
+            log.info("Upload session {} completed with {} bytes as job {}", id, session.offset, job.getId());
+            return job;
+        } finally {
+            session.lock.unlock();
+        }
+    }
+
+    /** Discards the session and the bytes received so far. */
+    public void abort(String id) {
+        Session session = session(id);
+        lock(session);
+        try {
+            discard(session);
+        } finally {
+            session.lock.unlock();
+        }
+    }
+
+    private Session session(String id) {
+        Session session = sessions.get(id);
+        if (session == null) {
+            throw UploadSessionException.notFound(id);
+        }
+        if (isExpired(session) && session.lock.tryLock()) {
+            try {
+                discard(session);
+            } finally {
+                session.lock.unlock();
+            }
+            throw UploadSessionException.notFound(id);
+        }
+        return session;
+    }
+
+    // Chunks of one session are written one at a time; a second writer is turned away rather than queued
+    private static void lock(Session session) {
+        if (!session.lock.tryLock()) {
+            throw new UploadSessionException(UploadSessionException.Reason.LOCKED,
+                "A chunk is still being written to upload session " + session.id, session.offset);
+        }
+        if (!session.channel.isOpen()) {
+            session.lock.unlock();
+            throw UploadSessionException.notFound(session.id);
+        }
+    }
+
+    private UploadSessionStatus status(Session session) {
+        UploadSessionStatus status = new UploadSessionStatus();
+        status.setId(session.id);
+        status.setFilename(session.filename);
+        status.setSize(session.size);
+        status.setOffset(session.offset);
+        status.setCreated(session.created);
+        status.setExpires(LocalDateTime.ofInstant(session.lastActivity.plus(expireAfter), ZoneId.systemDefault()));
+        return status;
+    }
+
+    private boolean isExpired(Session session) {
+        return session.lastActivity.plus(expireAfter).isBefore(Instant.now());
+    }
+
+    private void purgeExpired() {
+        for (Session session : sessions.values()) {
+            if (isExpired(session) && session.lock.tryLock()) {
+                try {
+                    log.info("Upload session {} expired with {} bytes", session.id, session.offset);
+                    discard(session);
+                } finally {
+                    session.lock.unlock();
+                }
+            }
+        }
+    }
+
+    private void sync(Session session) throws IOException {
+        session.channel.force(false);
+        session.syncedOffset = session.offset;
+        writeMeta(session);
+    }
+
+    private void discard(Session session) {
+        close(session);
+        deleteQuietly(dataFile(session.id));
+    }
+
+    // Ends the session but leaves its data file, which either goes with it or now belongs to a job
+    private void close(Session session) {
+        sessions.remove(session.id);
+        try {
+            session.channel.close();
+        } catch (IOException e) {
+            log.warn("Could not close upload session {}", session.id, e);
+        }
+        deleteQuietly(metaFile(session.id));
+    }
+
+    // The metadata is replaced atomically, so a crash leaves either the previous or the new synced offset
+    private void writeMeta(Session session) throws IOException {
+        Properties meta = new Properties();
+        meta.setProperty("filename", session.filename);
+        if (session.size != null) {
+            meta.setProperty("size", String.valueOf(session.size));
+        }
+        meta.setProperty("created", session.created.toString());
+        meta.setProperty("synced-offset", String.valueOf(session.syncedOffset));
+        Path partial = directory.resolve(session.id + META_SUFFIX + ".tmp");
+        try (OutputStream out = Files.newOutputStream(partial)) {
+            meta.store(out, null);
+        }
+        Files.move(partial, metaFile(session.id), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reopens the sessions left by a previous run at their last fsynced offset. Bytes after it may not
+     * have reached the disk, so they are truncated and the client re-sends them.
+     */
+    private void recover() throws IOException {
+        try (DirectoryStream<Path> metas = Files.newDirectoryStream(directory, "*" + META_SUFFIX)) {
+            for (Path metaFile : metas) {
+                String name = metaFile.getFileName().toString();
+                String id = name.substring(0, name.length() - META_SUFFIX.length());
+                try {
+                    Properties meta = new Properties();
+                    try (Reader in = Files.newBufferedReader(metaFile, StandardCharsets.ISO_8859_1)) {
+                        meta.load(in);
+                    }
+                    String size = meta.getProperty("size");
+                    long synced = Long.parseLong(meta.getProperty("synced-offset"));
+                    FileChannel channel = FileChannel.open(dataFile(id), StandardOpenOption.WRITE);
+                    channel.truncate(synced);
+                    Session session = new Session(id, meta.getProperty("filename"),
+                        size == null ? null : Long.valueOf(size), LocalDateTime.parse(meta.getProperty("created")),
+                        channel, synced);
+                    sessions.put(id, session);
+                    log.info("Recovered upload session {} for {} at offset {}", id, session.filename, synced);
+                } catch (IOException | RuntimeException e) {
+                    log.warn("Discarding unreadable upload session {}", id, e);
+                    deleteQuietly(metaFile);
+                }
+            }
+        }
+        // Data files without a session belong to completed uploads whose jobs did not finish, or to failed starts
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+            for (Path entry : entries) {
+                String name = entry.getFileName().toString();
+                String id = name.endsWith(DATA_SUFFIX) ? name.substring(0, name.length() - DATA_SUFFIX.length()) : null;
+                if (id == null ? !name.endsWith(META_SUFFIX) : !sessions.containsKey(id)) {
+                    deleteQuietly(entry);
+                }
+            }
+        }
+    }
+
+    private Path dataFile(String id) {
+        return directory.resolve(id + DATA_SUFFIX);
+    }
+
+    private Path metaFile(String id) {
+        return directory.resolve(id + META_SUFFIX);
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete {}", file, e);
+        }
+    }
+
+    private static final class Session {
+
+        private final String id;
+        private final String filename;
+        private final Long size;
+        private final LocalDateTime created;
+        private final FileChannel channel;
+        private final ReentrantLock lock = new ReentrantLock();
+
+        // Guarded by lock; offset is read without it only for status reports
+        private volatile long offset;
+        private long syncedOffset;
+        private volatile Instant lastActivity = Instant.now();
+
+        Session(String id, String filename, Long size, LocalDateTime created, FileChannel channel, long offset) {
+            this.id = id;
+            this.filename = filename;
+            this.size = size;
+            this.created = created;
+            this.channel = channel;
+            this.offset = offset;
+            this.syncedOffset = offset;
+        }
+    }
+}
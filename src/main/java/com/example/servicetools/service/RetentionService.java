@@ -0,0 +1,216 @@
+package com.example.servicetools.service;
+
+import com.example.servicetools.dao.JobInstanceRepository;
+import com.example.servicetools.dao.JobLogEntryRepository;
+import com.example.servicetools.dao.LogNotificationRepository;
+import com.example.servicetools.dto.RetentionStatus;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongConsumer;
+
+/**
+ * Scheduled purge of job log entries, notifications and job instances older than their table's
+ * retention, through {@link ChunkedDeleter} so the tables stay online while it runs. Afterwards the
+ * texts that no row refers to any more, whether purged or deleted otherwise, are removed from
+ * {@link TextBlobStore}.
+ * <p>
+ * Job instances are only purged once they have finished ({@link #TERMINAL_JOB_STATUSES}): a job
+ * still queued or running keeps its row however old it is, since its worker updates it when done.
+ * <p>
+ * A retention of 0 days keeps a table's rows forever; that is the default for every table, and the
+ * text sweep still runs. Only one purge runs at a time, whether started by the schedule or by
+ * {@link #trigger()}.
+ */
+@Service
+public class RetentionService {
+
+    private static final Logger log = LoggerFactory.getLogger(RetentionService.class);
+
+    // Statuses a job instance does not leave again
+    public static final List<String> TERMINAL_JOB_STATUSES = List.of("COMPLETED", "FAILED", "CANCELLED");
+
+    private final JobLogEntryRepository jobLogEntryRepository;
+    private final LogNotificationRepository logNotificationRepository;
+    private final JobInstanceRepository jobInstanceRepository;
+    private final ChunkedDeleter chunkedDeleter;
+    private final TextBlobStore textBlobStore;
+    private final TaskScheduler taskScheduler;
+    private final MeterRegistry meterRegistry;
+    private final int jobLogEntryDays;
+    private final int logNotificationDays;
+    private final int jobInstanceDays;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    // Guarded by itself; read through getStatus(), which copies it
+    private final RetentionStatus status = new RetentionStatus();
+
+    public RetentionService(JobLogEntryRepository jobLogEntryRepository,
+                            LogNotificationRepository logNotificationRepository,
+                            JobInstanceRepository jobInstanceRepository,
+                            ChunkedDeleter chunkedDeleter,
+                            TextBlobStore textBlobStore,
+                            TaskScheduler taskScheduler,
+                            MeterRegistry meterRegistry,
+                            @Value("${retention.job-log-entries.days:0}") int jobLogEntryDays,
+                            @Value("${retention.log-notifications.days:0}") int logNotificationDays,
+                            @Value("${retention.job-instances.days:0}") int jobInstanceDays) {
+        this.jobLogEntryRepository = jobLogEntryRepository;
+        this.logNotificationRepository = logNotificationRepository;
+        this.jobInstanceRepository = jobInstanceRepository;
+        this.chunkedDeleter = chunkedDeleter;
+        this.textBlobStore = textBlobStore;
+        this.taskScheduler = taskScheduler;
+        this.meterRegistry = meterRegistry;
+        this.jobLogEntryDays = jobLogEntryDays;
+        this.logNotificationDays = logNotificationDays;
+        this.jobInstanceDays = jobInstanceDays;
+    }
+
+    @Scheduled(cron = "${retention.cron:0 30 2 * * *}")
+    public void scheduledPurge() {
+        if (!purge()) {
+            log.warn("Skipping scheduled retention purge: the previous one is still running");
+        }
+    }
+
+    /**
+     * Starts a purge in the background.
+     *
+     * @return {@code false} if one is already running
+     */
+    public boolean trigger() {
+        if (!running.compareAndSet(false, true)) return false;
+        try {
+            taskScheduler.schedule(this::purgeAndRelease, Instant.now());
+        } catch (RuntimeException e) {
+            running.set(false);
+            throw e;
+        }
+        return true;
+    }
+
+    public RetentionStatus getStatus() {
+        synchronized (status) {
+            RetentionStatus copy = new RetentionStatus();
+            copy.setRunning(status.isRunning());
+            copy.setStartedAt(status.getStartedAt());
+            copy.setFinishedAt(status.getFinishedAt());
+            copy.setOrphanedBlobsDeleted(status.getOrphanedBlobsDeleted());
+            status.getTables().forEach(t -> copy.getTables().add(new RetentionStatus.Table(
+                t.getTable(), t.getDays(), t.getCutoff(), t.getDeleted(), t.getState(), t.getError())));
+            return copy;
+        }
+    }
+
+    /**
+     * Purges every table now, in the calling thread.
+     *
+     * @return {@code false} if a purge was already running, in which case nothing was done
+     */
+    public boolean purge() {
+        if (!running.compareAndSet(false, true)) return false;
+        purgeAndRelease();
+        return true;
+    }
+
+    private void purgeAndRelease() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            RetentionStatus.Table jobLogEntries = table("TJOB_LOGENTRY", jobLogEntryDays, now);
+            RetentionStatus.Table logNotifications = table("LOG_NOTIFICATIONS", logNotificationDays, now);
+            RetentionStatus.Table jobInstances = table("TJOB_INSTANCE", jobInstanceDays, now);
+            synchronized (status) {
+                status.setRunning(true);
+                status.setStartedAt(now);
+                status.setFinishedAt(null);
+                status.setOrphanedBlobsDeleted(0);
+                status.setTables(new ArrayList<>(List.of(jobLogEntries, logNotifications, jobInstances)));
+            }
+
+            purge(jobLogEntries, progress -> chunkedDeleter.delete(jobLogEntries.getTable(),
+                chunk -> jobLogEntryRepository.findIdsByEventTsBefore(jobLogEntries.getCutoff(), chunk),
+                jobLogEntryRepository::deleteByIdIn, progress));
+            purge(logNotifications, progress -> chunkedDeleter.delete(logNotifications.getTable(),
+                chunk -> logNotificationRepository.findIdsByReceivedTimeBefore(
+                    logNotifications.getCutoff().atZone(ZoneId.systemDefault()), chunk),
+                logNotificationRepository::deleteByIdIn, progress));
+            purge(jobInstances, progress -> chunkedDeleter.delete(jobInstances.getTable(),
+                chunk -> jobInstanceRepository.findIdsByCreatedBeforeAndStatusIn(jobInstances.getCutoff(),
+                    TERMINAL_JOB_STATUSES, chunk),
+                jobInstanceRepository::deleteByIdIn, progress));
+
+            // Whatever the retention, since rows are also deleted one by one and through the delete endpoints
+            deleteOrphanedBlobs();
+        } finally {
+            synchronized (status) {
+                status.setRunning(false);
+                status.setFinishedAt(LocalDateTime.now());
+            }
+            running.set(false);
+        }
+    }
+
+    private static RetentionStatus.Table table(String name, int days, LocalDateTime now) {
+        boolean keep = days <= 0;
+        return new RetentionStatus.Table(name, days, keep ? null : now.minusDays(days), 0,
+            keep ? RetentionStatus.State.SKIPPED : RetentionStatus.State.PENDING, null);
+    }
+
+    private interface Purge {
+        long run(LongConsumer progress);
+    }
+
+    private void purge(RetentionStatus.Table table, Purge purge) {
+        if (table.getState() == RetentionStatus.State.SKIPPED) return;
+        update(table, RetentionStatus.State.RUNNING, 0, null);
+        long started = System.currentTimeMillis();
+        try {
+            long deleted = purge.run(progress -> update(table, RetentionStatus.State.RUNNING, progress, null));
+            update(table, RetentionStatus.State.DONE, deleted, null);
+            log.info("Retention purge of {} deleted {} rows older than {} in {} ms", table.getTable(), deleted,
+                table.getCutoff(), System.currentTimeMillis() - started);
+        } catch (RuntimeException e) {
+            // Chunks committed before the failure stay deleted; the other tables are still purged
+            update(table, RetentionStatus.State.FAILED, table.getDeleted(), e.getMessage());
+            log.error("Retention purge of {} failed after {} rows", table.getTable(), table.getDeleted(), e);
+        }
+    }
+
+    private void deleteOrphanedBlobs() {
+        try {
+            long deleted = textBlobStore.deleteOrphans();
+            synchronized (status) {
+                status.setOrphanedBlobsDeleted(deleted);
+            }
+            meterRegistry.counter("retention.deleted", "table", "T_TEXT_BLOB").increment(deleted);
+            log.info("Retention purge deleted {} orphaned text blobs", deleted);
+        } catch (RuntimeException e) {
+            log.error("Deleting orphaned text blobs failed", e);
+        }
+    }
+
+    private void update(RetentionStatus.Table table, RetentionStatus.State state, long deleted, String error) {
+        long added;
+        synchronized (status) {
+            added = deleted - table.getDeleted();
+            table.setState(state);
+            table.setDeleted(deleted);
+            table.setError(error);
+        }
+        if (added > 0) {
+            meterRegistry.counter("retention.deleted", "table", table.getTable()).increment(added);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.servicetools.service;
+
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import java.io.IOException;
+
+/**
+ * Binds the JSON object built for a row straight onto the target DTO.
+ * <p>
+ * The tree is converted with a shared, immutable {@link ObjectReader}, so there is no
+ * serialise-then-parse round trip and no mapper creation per row. The reader uses a default
+ * {@link ObjectMapper} (not the application's), which keeps the binding rules the upload has
+ * always had, such as failing on properties the DTO does not declare. Safe to share between threads.
+ */
+public final class RowBinder<T> {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    private final Class<T> type;
+    private final ObjectReader reader;
+
+    private RowBinder(Class<T> type) {
+        this.type = type;
+        this.reader = MAPPER.readerFor(type);
+    }
+
+    public static <T> RowBinder<T> forType(Class<T> type) {
+        return new RowBinder<>(type);
+    }
+
+    public Class<T> getType() {
+        return type;
+    }
+
+    public T bind(ObjectNode row) throws IOException {
+        return reader.readValue(row);
+    }
+
+    /**
+     * Resolves the declared type of the (possibly nested) property a JSON path binds to.
+     *
+     * @return the raw property type, or {@code null} when the DTO does not declare the path
+     */
+    public Class<?> propertyType(String[] path) {
+        JavaType current = MAPPER.constructType(type);
+        for (String segment : path) {
+            BeanDescription description = MAPPER.getDeserializationConfig().introspect(current);
+            JavaType next = null;
+            for (BeanPropertyDefinition property : description.findProperties()) {
+                if (property.getName().equals(segment)) {
+                    next = property.getPrimaryType();
+                    break;
+                }
+            }
+            if (next == null) return null;
+            current = next;
+        }
+        return current.getRawClass();
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.servicetools.service;
+
+/**
+ * Receives rows that could not be mapped. Mapping continues with the next row.
+ */
+@FunctionalInterface
+public interface RowErrorListener {
+
+    /**
+     * @param rowNum zero-based row number as stored in the sheet
+     * @param error  why the row was skipped
+     */
+    void onRowError(int rowNum, Exception error);
+}
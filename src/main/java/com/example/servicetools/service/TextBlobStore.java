@@ -0,0 +1,253 @@
+package com.example.servicetools.service;
+
+import com.example.servicetools.model.TextBlob;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Content-addressed store for large texts in {@code T_TEXT_BLOB}; see {@link TextBlob}.
+ * <p>
+ * {@link #put(String)} returns the text's hash, which is what rows keep; a text already stored is
+ * not written again, so a stack trace repeated by thousands of entries takes one compressed row.
+ * Blobs are written in the caller's transaction (or their own if there is none), so a row and the
+ * blob it refers to commit or roll back together. A blob that is stored already has its
+ * {@code CREATED_TS} refreshed instead, and {@link #deleteOrphans} leaves blobs alone until that is
+ * older than a grace window, so a writer has time to commit the row that refers to it. The hashes
+ * of recently stored or refreshed blobs are remembered, sparing that round trip for texts that keep
+ * recurring. {@link #get(String)} inflates a text only when it is asked for.
+ */
+@Service
+public class TextBlobStore {
+
+    private static final String MERGE_SQL =
+        "MERGE INTO T_TEXT_BLOB (HASH, DEFLATED, TEXT_LENGTH, CREATED_TS) KEY (HASH) VALUES (?, ?, ?, ?)";
+
+    private static final int[] MERGE_TYPES = {Types.VARCHAR, Types.VARBINARY, Types.INTEGER, Types.TIMESTAMP};
+
+    private static final String REFRESH_SQL = "UPDATE T_TEXT_BLOB SET CREATED_TS = ? WHERE HASH = ?";
+
+    private static final String SELECT_SQL = "SELECT DEFLATED FROM T_TEXT_BLOB WHERE HASH = ?";
+
+    // Blobs no row refers to; EXCEPT compares whole sets, so the hash columns need no index
+    private static final String ORPHANS_SQL = "SELECT HASH FROM T_TEXT_BLOB WHERE CREATED_TS < ?"
+        + " EXCEPT SELECT PAYLOAD_HASH FROM TJOB_LOGENTRY"
+        + " EXCEPT SELECT STACKTRACE_HASH FROM TJOB_LOGENTRY"
+        + " EXCEPT SELECT STACK_TRACE_HASH FROM LOG_NOTIFICATIONS";
+
+    // Rechecked by each DELETE, so a reference committed since the orphans were selected keeps its blob
+    private static final String UNREFERENCED = " AND b.CREATED_TS < ?"
+        + " AND NOT EXISTS (SELECT 1 FROM TJOB_LOGENTRY e WHERE e.PAYLOAD_HASH = b.HASH)"
+        + " AND NOT EXISTS (SELECT 1 FROM TJOB_LOGENTRY e WHERE e.STACKTRACE_HASH = b.HASH)"
+        + " AND NOT EXISTS (SELECT 1 FROM LOG_NOTIFICATIONS n WHERE n.STACK_TRACE_HASH = b.HASH)";
+
+    // Orphans are deleted this many hashes per IN list
+    private static final int LOOKUP_CHUNK = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int compressionLevel;
+    private final long maxTransactionMillis;
+    // Hash -> the CREATED_TS (epoch millis) last committed for it
+    private final Map<String, Long> knownHashes;
+    // Bound to a transaction scope: the hashes it has stored or refreshed, which it need not look up again
+    private final Object scopeHashesKey = new Object();
+
+    public TextBlobStore(JdbcTemplate jdbcTemplate,
+                         PlatformTransactionManager transactionManager,
+                         @Value("${text-blobs.compression-level:1}") int compressionLevel,
+                         @Value("${text-blobs.known-hashes:10000}") int knownHashesSize,
+                         @Value("${text-blobs.max-transaction-minutes:15}") long maxTransactionMinutes) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.compressionLevel = compressionLevel;
+        this.maxTransactionMillis = TimeUnit.MINUTES.toMillis(Math.max(1, maxTransactionMinutes));
+        int maxKnown = Math.max(0, knownHashesSize);
+        this.knownHashes = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > maxKnown;
+            }
+        });
+    }
+
+    /** @return the hash {@code text} is stored under, or {@code null} for a {@code null} text */
+    public String put(String text) {
+        if (text == null) return null;
+        return putAll(List.of(text)).get(text);
+    }
+
+    /**
+     * Stores every distinct text of {@code texts} that is not stored yet, in one batch, and refreshes
+     * the {@code CREATED_TS} of those that are.
+     *
+     * @return the hash of each non-null text
+     */
+    public Map<String, String> putAll(Collection<String> texts) {
+        Set<String> scopeHashes = scopeHashes();
+        // A hash refreshed since then cannot be swept before a transaction started now commits
+        long freshSince = System.currentTimeMillis() - maxTransactionMillis;
+        Map<String, String> hashes = new HashMap<>();
+        Map<String, String> unknown = new LinkedHashMap<>();
+        for (String text : texts) {
+            if (text == null || hashes.containsKey(text)) continue;
+            String hash = hash(text);
+            hashes.put(text, hash);
+            Long known = knownHashes.get(hash);
+            if (!scopeHashes.contains(hash) && (known == null || known < freshSince)) {
+                unknown.put(hash, text);
+            }
+        }
+        if (!unknown.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> store(unknown));
+            scopeHashes.addAll(unknown.keySet());
+        }
+        return hashes;
+    }
+
+    /** @return the text stored under {@code hash}, or {@code null} if there is none */
+    public String get(String hash) {
+        if (hash == null) return null;
+        List<byte[]> blobs = jdbcTemplate.query(SELECT_SQL, (rs, rowNum) -> rs.getBytes(1), hash);
+        return blobs.isEmpty() ? null : inflate(blobs.get(0));
+    }
+
+    /**
+     * Deletes the blobs that no job log entry or notification refers to any more, a chunk per
+     * transaction.
+     * <p>
+     * Writers are not left with a dangling hash: only blobs whose {@code CREATED_TS} is older than
+     * twice {@code text-blobs.max-transaction-minutes} are deleted, and each {@code DELETE} checks
+     * again that no committed row refers to the blob. A writer stores or refreshes a blob in its own
+     * transaction (a {@code DELETE} of that blob waits for it), or trusts a refresh committed at most
+     * one such period earlier, and commits its row within another, so by the time the blob could be
+     * swept the row that refers to it is visible.
+     *
+     * @return the number of blobs deleted
+     */
+    public long deleteOrphans() {
+        Timestamp createdBefore = new Timestamp(System.currentTimeMillis() - 2 * maxTransactionMillis);
+        List<String> orphans = jdbcTemplate.queryForList(ORPHANS_SQL, String.class, createdBefore);
+        long deleted = 0;
+        for (int from = 0; from < orphans.size(); from += LOOKUP_CHUNK) {
+            List<String> chunk = orphans.subList(from, Math.min(from + LOOKUP_CHUNK, orphans.size()));
+            String sql = "DELETE FROM T_TEXT_BLOB b WHERE b.HASH IN ("
+                + String.join(",", Collections.nCopies(chunk.size(), "?")) + ")" + UNREFERENCED;
+            List<Object> args = new ArrayList<>(chunk);
+            args.add(createdBefore);
+            Integer count = transactionTemplate.execute(status -> jdbcTemplate.update(sql, args.toArray()));
+            deleted += count == null ? 0 : count;
+        }
+        return deleted;
+    }
+
+    /** The hashes stored or refreshed in the current transaction scope; a throwaway set outside one. */
+    @SuppressWarnings("unchecked")
+    private Set<String> scopeHashes() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) return new HashSet<>();
+        Set<String> hashes = (Set<String>) TransactionSynchronizationManager.getResource(scopeHashesKey);
+        if (hashes == null) {
+            hashes = new HashSet<>();
+            TransactionSynchronizationManager.bindResource(scopeHashesKey, hashes);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(scopeHashesKey);
+                }
+            });
+        }
+        return hashes;
+    }
+
+    private void store(Map<String, String> unknown) {
+        long now = System.currentTimeMillis();
+        Timestamp createdTs = new Timestamp(now);
+        List<String> hashes = new ArrayList<>(unknown.keySet());
+        List<Object[]> refreshArgs = new ArrayList<>(hashes.size());
+        hashes.forEach(hash -> refreshArgs.add(new Object[] {createdTs, hash}));
+        // A sweep deleting one of these waits for this transaction, then finds it refreshed
+        int[] refreshed = jdbcTemplate.batchUpdate(REFRESH_SQL, refreshArgs);
+
+        List<Object[]> args = new ArrayList<>();
+        for (int i = 0; i < hashes.size(); i++) {
+            if (refreshed[i] <= 0) {
+                String text = unknown.get(hashes.get(i));
+                args.add(new Object[] {hashes.get(i), deflate(text), text.length(), createdTs});
+            }
+        }
+        if (!args.isEmpty()) {
+            // MERGE rather than INSERT: a concurrent transaction may store the same text first
+            jdbcTemplate.batchUpdate(MERGE_SQL, args, MERGE_TYPES);
+        }
+
+        // Only committed blobs and refreshes may be relied on
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                hashes.forEach(hash -> knownHashes.put(hash, now));
+            }
+        });
+    }
+
+    private static String hash(String text) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private byte[] deflate(String text) {
+        byte[] input = text.getBytes(StandardCharsets.UTF_8);
+        Deflater deflater = new Deflater(compressionLevel);
+        try {
+            deflater.setInput(input);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, input.length / 4));
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static String inflate(byte[] deflated) {
+        try (InputStream in = new InflaterInputStream(new ByteArrayInputStream(deflated))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Corrupt text blob", e);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.servicetools.service;
+
+/**
+ * Thrown when an upload is refused, either because it can never be processed within the configured
+ * limits ({@link Reason#TOO_LARGE}) or because the server is busy with other uploads and the
+ * client should retry later ({@link Reason#BUSY}).
+ */
+public class UploadRejectedException extends RuntimeException {
+
+    public enum Reason { TOO_LARGE, BUSY }
+
+    private final Reason reason;
+    private final long retryAfterSeconds;
+
+    public UploadRejectedException(Reason reason, String message, long retryAfterSeconds) {
+        super(message);
+        this.reason = reason;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public static UploadRejectedException tooLarge(String message) {
+        return new UploadRejectedException(Reason.TOO_LARGE, message, 0);
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+
+    /** Seconds the client should wait before retrying; only meaningful for {@link Reason#BUSY}. */
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
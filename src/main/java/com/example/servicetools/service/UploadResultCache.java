@@ -0,0 +1,211 @@
+package com.example.servicetools.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Disk cache of upload responses, keyed by the content hash of the uploaded file, the reader used
+ * for it (its extension), the column mapping version and the response format.
+ * <p>
+ * Entries are the exact response bytes, so a hit is served by copying a file. The cache is
+ * bounded by total size and evicts the least recently used entries. Mapping versions restart when
+ * the application does, so the directory is emptied on startup rather than reused.
+ * A size of 0 disables the cache.
+ */
+@Component
+public class UploadResultCache {
+
+    private static final Logger log = LoggerFactory.getLogger(UploadResultCache.class);
+
+    private final Path directory;
+    private final long maxBytes;
+
+    // Access-ordered: iteration starts at the least recently used entry
+    private final LinkedHashMap<String, Long> sizes = new LinkedHashMap<>(64, 0.75f, true);
+    private long totalBytes;
+
+    public UploadResultCache(@Value("${excel.upload.cache.dir:${java.io.tmpdir}/service-tools/result-cache}") String directory,
+                             @Value("${excel.upload.cache.max-size-mb:512}") long maxSizeMb) throws IOException {
+        this.directory = Path.of(directory);
+        this.maxBytes = maxSizeMb * 1024 * 1024;
+        if (isEnabled()) {
+            Files.createDirectories(this.directory);
+            clear();
+        }
+    }
+
+    /** Writes one cache entry. */
+    @FunctionalInterface
+    public interface EntryWriter {
+        void write(OutputStream out) throws IOException;
+    }
+
+    public boolean isEnabled() {
+        return maxBytes > 0;
+    }
+
+    public static String key(String sha256, String filename, long mappingVersion, String format) {
+        String name = filename == null ? "" : filename.toLowerCase(Locale.ROOT);
+        int dot = name.lastIndexOf('.');
+        String extension = dot >= 0 ? name.substring(dot + 1).replaceAll("[^a-z0-9]", "") : "";
+        return sha256 + "-" + extension + "-v" + mappingVersion + "." + format;
+    }
+
+    /**
+     * Opens a cached entry. The stream stays readable even if the entry is evicted meanwhile.
+     *
+     * @return the entry's bytes, or {@code null} on a miss
+     */
+    public InputStream open(String key) {
+        if (!isEnabled()) return null;
+        synchronized (this) {
+            if (sizes.get(key) == null) return null;
+        }
+        try {
+            return Files.newInputStream(directory.resolve(key));
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            log.warn("Could not read cached upload result {}", key, e);
+            return null;
+        }
+    }
+
+    /**
+     * Stores an entry written by {@code writer}. Entries larger than the whole cache are dropped,
+     * and failures are logged rather than raised, since the cache is only an optimisation.
+     */
+    public void store(String key, EntryWriter writer) {
+        if (!isEnabled()) return;
+        Path partial = null;
+        try {
+            partial = Files.createTempFile(directory, "entry-", ".part");
+            try (OutputStream out = Files.newOutputStream(partial)) {
+                writer.write(out);
+            }
+            commit(key, partial);
+            partial = null;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not cache upload result {}", key, e);
+        } finally {
+            deleteQuietly(partial);
+        }
+    }
+
+    /**
+     * Starts an entry that is written incrementally, e.g. alongside a streamed response.
+     * Call {@link PendingEntry#commit()} once it is complete; closing it uncommitted discards it.
+     */
+    public PendingEntry begin(String key) throws IOException {
+        return new PendingEntry(key, Files.createTempFile(directory, "entry-", ".part"));
+    }
+
+    public final class PendingEntry implements AutoCloseable {
+
+        private final String key;
+        private final Path partial;
+        private final OutputStream out;
+        private boolean committed;
+
+        private PendingEntry(String key, Path partial) throws IOException {
+            this.key = key;
+            this.partial = partial;
+            this.out = Files.newOutputStream(partial);
+        }
+
+        /** A stream writing to {@code response} and to this entry alike; closing it closes neither. */
+        public OutputStream tee(OutputStream response) {
+            return new OutputStream() {
+                @Override
+                public void write(int b) throws IOException {
+                    response.write(b);
+                    out.write(b);
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    response.write(b, off, len);
+                    out.write(b, off, len);
+                }
+
+                @Override
+                public void flush() throws IOException {
+                    response.flush();
+                    out.flush();
+                }
+            };
+        }
+
+        public void commit() throws IOException {
+            out.close();
+            UploadResultCache.this.commit(key, partial);
+            committed = true;
+        }
+
+        @Override
+        public void close() {
+            if (!committed) {
+                try {
+                    out.close();
+                } catch (IOException ignored) {
+                    // the partial file is deleted below either way
+                }
+                deleteQuietly(partial);
+            }
+        }
+    }
+
+    private void commit(String key, Path partial) throws IOException {
+        long size = Files.size(partial);
+        if (size > maxBytes) {
+            Files.deleteIfExists(partial);
+            return;
+        }
+        synchronized (this) {
+            Files.move(partial, directory.resolve(key), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            Long previous = sizes.put(key, size);
+            totalBytes += size - (previous == null ? 0 : previous);
+
+            Iterator<Map.Entry<String, Long>> eldest = sizes.entrySet().iterator();
+            while (totalBytes > maxBytes && eldest.hasNext()) {
+                Map.Entry<String, Long> entry = eldest.next();
+                if (entry.getKey().equals(key)) continue;
+                deleteQuietly(directory.resolve(entry.getKey()));
+                totalBytes -= entry.getValue();
+                eldest.remove();
+            }
+        }
+    }
+
+    private void clear() throws IOException {
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+            for (Path entry : entries) {
+                deleteQuietly(entry);
+            }
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) return;
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete {}", file, e);
+        }
+    }
+}
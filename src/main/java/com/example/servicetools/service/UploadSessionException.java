@@ -0,0 +1,34 @@
+package com.example.servicetools.service;
+
+/**
+ * Thrown when a resumable upload session cannot accept a request: the session does not exist (or
+ * has expired), a chunk does not start at the session's current offset, another chunk is still being
+ * written, or the upload is completed before all declared bytes arrived. {@link #getOffset()} tells
+ * the client where to resume.
+ */
+public class UploadSessionException extends RuntimeException {
+
+    public enum Reason { NOT_FOUND, OFFSET_MISMATCH, LOCKED, INCOMPLETE }
+
+    private final Reason reason;
+    private final long offset;
+
+    public UploadSessionException(Reason reason, String message, long offset) {
+        super(message);
+        this.reason = reason;
+        this.offset = offset;
+    }
+
+    public static UploadSessionException notFound(String id) {
+        return new UploadSessionException(Reason.NOT_FOUND, "Upload session " + id + " does not exist", -1);
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+
+    /** Bytes the session holds, i.e. the offset of the next chunk; {@code -1} for {@link Reason#NOT_FOUND}. */
+    public long getOffset() {
+        return offset;
+    }
+}
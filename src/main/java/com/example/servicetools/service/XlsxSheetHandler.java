@@ -0,0 +1,157 @@
+package com.example.servicetools.service;
+
+import org.apache.poi.ss.usermodel.BuiltinFormats;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+import java.util.Arrays;
+
+/**
+ * SAX handler for a single worksheet part. Only the current row is kept in memory;
+ * each completed row is handed to the {@link ExcelRowListener} before the next one is parsed.
+ * Cell values are converted the same way the workbook (DOM) path converts them: text, booleans,
+ * dates for date-formatted numbers and {@link NumericCell} for all other numbers.
+ */
+class XlsxSheetHandler extends DefaultHandler {
+
+    private final ReadOnlySharedStringsTable sharedStrings;
+    private final StylesTable styles;
+    private final boolean date1904;
+    private final ExcelRowListener listener;
+
+    private Object[] rowValues = new Object[16];
+    private int rowNum = -1;
+    private int lastColumn = -1;
+
+    private int column;
+    private String cellType;
+    private String cellStyle;
+    private boolean inValue;
+    private boolean inInlineString;
+    private final StringBuilder value = new StringBuilder(64);
+
+    XlsxSheetHandler(ReadOnlySharedStringsTable sharedStrings, StylesTable styles, boolean date1904,
+                     ExcelRowListener listener) {
+        this.sharedStrings = sharedStrings;
+        this.styles = styles;
+        this.date1904 = date1904;
+        this.listener = listener;
+    }
+
+    @Override
+    public void startElement(String uri, String localName, String qName, Attributes attributes) {
+        switch (localName) {
+            case "row" -> {
+                String r = attributes.getValue("r");
+                rowNum = r != null ? Integer.parseInt(r) - 1 : rowNum + 1;
+                lastColumn = -1;
+            }
+            case "c" -> {
+                String ref = attributes.getValue("r");
+                column = ref != null ? columnIndex(ref) : lastColumn + 1;
+                cellType = attributes.getValue("t");
+                cellStyle = attributes.getValue("s");
+                value.setLength(0);
+            }
+            case "v" -> {
+                inValue = true;
+                value.setLength(0);
+            }
+            case "is" -> {
+                inInlineString = true;
+                value.setLength(0);
+            }
+            default -> {
+            }
+        }
+    }
+
+    @Override
+    public void characters(char[] ch, int start, int length) {
+        // Inline strings may be split into several rich-text runs; all <t> text inside <is> is kept
+        if (inValue || inInlineString) {
+            value.append(ch, start, length);
+        }
+    }
+
+    @Override
+    public void endElement(String uri, String localName, String qName) throws SAXException {
+        switch (localName) {
+            case "v" -> inValue = false;
+            case "is" -> inInlineString = false;
+            case "c" -> {
+                setValue(column, cellValue());
+                lastColumn = column;
+            }
+            case "row" -> {
+                try {
+                    listener.onRow(rowNum, Arrays.copyOf(rowValues, lastColumn + 1));
+                } catch (SAXException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new SAXException(e);
+                }
+                Arrays.fill(rowValues, 0, Math.min(lastColumn + 1, rowValues.length), null);
+            }
+            default -> {
+            }
+        }
+    }
+
+    private Object cellValue() {
+        if (value.length() == 0 && !"inlineStr".equals(cellType)) {
+            return null;
+        }
+        String text = value.toString();
+        if (cellType == null || "n".equals(cellType)) {
+            return numericValue(text);
+        }
+        return switch (cellType) {
+            case "s" -> sharedStrings.getItemAt(Integer.parseInt(text)).getString();
+            case "b" -> "1".equals(text);
+            // inlineStr, str (cached formula string) and e (error code) are already text
+            default -> text;
+        };
+    }
+
+    private Object numericValue(String text) {
+        double number = Double.parseDouble(text);
+        int formatIndex = 0;
+        String formatString = null;
+        if (cellStyle != null && styles != null) {
+            XSSFCellStyle style = styles.getStyleAt(Integer.parseInt(cellStyle));
+            if (style != null) {
+                formatIndex = style.getDataFormat();
+                formatString = style.getDataFormatString();
+            }
+        }
+        if (formatString == null) {
+            formatString = BuiltinFormats.getBuiltinFormat(formatIndex);
+        }
+        if (DateUtil.isADateFormat(formatIndex, formatString) && DateUtil.isValidExcelDate(number)) {
+            return DateUtil.getJavaDate(number, date1904);
+        }
+        return new NumericCell(number, formatIndex, formatString, date1904);
+    }
+
+    private void setValue(int col, Object cellValue) {
+        if (col >= rowValues.length) {
+            rowValues = Arrays.copyOf(rowValues, Math.max(col + 1, rowValues.length * 2));
+        }
+        rowValues[col] = cellValue;
+    }
+
+    private static int columnIndex(String cellRef) {
+        int end = 0;
+        while (end < cellRef.length() && Character.isLetter(cellRef.charAt(end))) {
+            end++;
+        }
+        return CellReference.convertColStringToIndex(cellRef.substring(0, end));
+    }
+}
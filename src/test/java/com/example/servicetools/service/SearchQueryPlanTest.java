@@ -0,0 +1,121 @@
+package com.example.servicetools.service;
+
+import com.example.servicetools.dao.JobInstanceRepository;
+import com.example.servicetools.dao.JobLogEntryRepository;
+import com.example.servicetools.dao.LogNotificationRepository;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.time.LocalDateTime;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The multi-parameter searches must be served by the composite indexes of their filter column and
+ * timestamp. Each search is run as the service builds it, and the SQL Hibernate sends is explained.
+ */
+@DataJpaTest(showSql = false, properties = {
+    // Filter values become literals, so the captured statement can be explained as it is
+    "spring.jpa.properties.hibernate.criteria.value_handling_mode=inline",
+    "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.example.servicetools.service.SearchQueryPlanTest$CapturedSql"
+})
+class SearchQueryPlanTest {
+
+    private static final Pageable NEWEST_EVENTS = PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "eventTs"));
+
+    @Autowired
+    private JobLogEntryRepository jobLogEntryRepository;
+
+    @Autowired
+    private JobInstanceRepository jobInstanceRepository;
+
+    @Autowired
+    private LogNotificationRepository logNotificationRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void clearCapturedSql() {
+        CapturedSql.statements.clear();
+    }
+
+    @Test
+    void jobLogEntriesOfAJobInstanceUseTheJobInstanceIndex() {
+        LocalDateTime now = LocalDateTime.now();
+        jobLogEntryRepository.findAll(
+            JobLogEntryService.searchFilter(5L, null, null, null, null, now.minusHours(2), now), NEWEST_EVENTS);
+
+        assertThat(explainLastQuery()).contains("IX_TJOB_LOGENTRY_JOB_INSTANCE_EVENT_TS");
+    }
+
+    @Test
+    void jobInstancesByNameUseTheNameIndex() {
+        jobInstanceRepository.findAll(JobInstanceService.searchFilter("ExcelUpload", null, null, null),
+            PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "created")));
+
+        assertThat(explainLastQuery()).contains("IX_TJOB_INSTANCE_NAME_CREATED_TS");
+    }
+
+    @Test
+    void logNotificationsOfAPartyUseThePartyIndex() {
+        ZonedDateTime now = ZonedDateTime.now();
+        logNotificationRepository.findAll(
+            LogNotificationService.searchFilter(42L, null, null, null, now.minusDays(1), now),
+            PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "receivedTime")));
+
+        assertThat(explainLastQuery()).contains("IX_LOG_NOTIFICATIONS_PARTY_RECEIVED_TIME");
+    }
+
+    @Test
+    void logNotificationsFromASourceUseTheSourceIndex() {
+        logNotificationRepository.findAll(LogNotificationService.searchFilter(null, null, "gateway", null, null, null),
+            PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "receivedTime")));
+
+        assertThat(explainLastQuery()).contains("IX_LOG_NOTIFICATIONS_SOURCE_RECEIVED_TIME");
+    }
+
+    // Only the page offset and limit are left as parameters, in that order
+    private String explainLastQuery() {
+        assertThat(CapturedSql.statements).isNotEmpty();
+        String sql = CapturedSql.statements.get(CapturedSql.statements.size() - 1);
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement explain = connection.prepareStatement("EXPLAIN " + sql);
+            int parameters = explain.getParameterMetaData().getParameterCount();
+            for (int i = 1; i <= parameters; i++) {
+                explain.setInt(i, i == parameters ? 20 : 0);
+            }
+            return explain;
+        }, rs -> {
+            StringBuilder plan = new StringBuilder();
+            while (rs.next()) {
+                plan.append(rs.getString(1)).append('\n');
+            }
+            return plan.toString();
+        });
+    }
+
+    /** Records every statement Hibernate prepares. */
+    public static class CapturedSql implements StatementInspector {
+
+        static final List<String> statements = new ArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            statements.add(sql);
+            return sql;
+        }
+    }
+}